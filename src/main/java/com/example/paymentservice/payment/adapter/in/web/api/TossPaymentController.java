@@ -1,18 +1,33 @@
 package com.example.paymentservice.payment.adapter.in.web.api;
 
 import com.example.paymentservice.common.WebAdapter;
+import com.example.paymentservice.payment.adapter.in.web.async.PaymentConfirmTracker;
+import com.example.paymentservice.payment.adapter.in.web.limiter.AdaptiveConcurrencyLimiter;
+import com.example.paymentservice.payment.adapter.in.web.limiter.AdaptiveConcurrencyLimiter.Permit;
 import com.example.paymentservice.payment.adapter.in.web.request.TossPaymentConfirmRequest;
 import com.example.paymentservice.payment.adapter.in.web.response.ApiResponse;
 import com.example.paymentservice.payment.application.port.in.PaymentConfirmCommand;
 import com.example.paymentservice.payment.application.port.in.PaymentConfirmUsecase;
+import com.example.paymentservice.payment.application.port.in.PaymentDeadline;
 import com.example.paymentservice.payment.domain.PaymentConfirmationResult;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @WebAdapter
@@ -21,13 +36,42 @@ import reactor.core.publisher.Mono;
 @RequestMapping("/v1/toss")
 public class TossPaymentController {
 
+    // RFC 7240: 클라이언트가 비동기 응답을 원할 때 보내는 Prefer 헤더 값
+    private static final String RESPOND_ASYNC = "respond-async";
+    // 클라이언트가 결제 승인 결과를 기다릴 수 있는 시간 (밀리초)
+    private static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout";
+
     private final PaymentConfirmUsecase paymentConfirmUsecase;
+    private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+    private final PaymentConfirmTracker paymentConfirmTracker;
+
+    // 동시 처리 한도를 넘어서 거절된 요청에 알려줄 재시도 대기 시간
+    @Value("${payment.confirm.limiter.retry-after:1s}")
+    private final Duration retryAfter;
+
+    // 결제 승인 전체에 주어지는 시간 (0 이하라면 제한하지 않는다. X-Request-Timeout 헤더로 더 짧게 요청할 수 있다.)
+    @Value("${payment.confirm.deadline.timeout:20s}")
+    private final Duration confirmTimeout;
+
+    // 비동기 결제 승인 모드 사용 여부 (사용하더라도 Prefer: respond-async 헤더를 보낸 요청만 비동기로 처리한다.)
+    @Value("${payment.confirm.async.enabled:false}")
+    private final boolean asyncEnabled;
+
+    // 결제 결과 SSE 구독을 유지할 최대 시간
+    @Value("${payment.confirm.async.events-timeout:60s}")
+    private final Duration eventsTimeout;
 
     /**
      * <h4> success.html -> 결제 승인 API 호출 </h4>
+     * <p> 동시 처리 한도 (AdaptiveConcurrencyLimiter) 를 넘으면 결제 승인을 시작하지 않고 바로 503 과 Retry-After 로 응답한다. </p>
+     * <p> 비동기 모드에서 Prefer: respond-async 헤더를 보내면 결제 승인을 요청과 분리해서 시작하고 바로 202 와 상태 조회 URL (Location) 로 응답한다. <br>
+     *     결과는 GET /v1/toss/payments/{orderId} 로 조회하거나 GET /v1/toss/payments/{orderId}/events (SSE) 로 받을 수 있다. </p>
+     * <p> 요청을 받은 시점부터 결제 승인 전체에 주어지는 시간 (PaymentDeadline) 을 Context 로 전달하고, 시간을 넘긴 결제는 UNKNOWN 으로 응답한다. </p>
      */
     @PostMapping("/confirm")
-    public Mono<ResponseEntity<ApiResponse<PaymentConfirmationResult>>> confirm(@RequestBody TossPaymentConfirmRequest request) {
+    public Mono<ResponseEntity<ApiResponse<PaymentConfirmationResult>>> confirm(@RequestBody TossPaymentConfirmRequest request,
+                                                                              @RequestHeader(value = "Prefer", required = false) String prefer,
+                                                                              @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) Long requestTimeoutMillis) {
 
         PaymentConfirmCommand command = PaymentConfirmCommand.builder()
             .paymentKey(request.getPaymentKey())
@@ -35,8 +79,105 @@ public class TossPaymentController {
             .amount(request.getAmount())
             .build();
 
-        return paymentConfirmUsecase.confirm(command)
+        return Mono.defer(() -> {
+
+            Optional<Permit> permit = adaptiveConcurrencyLimiter.tryAcquire();
+
+            if (permit.isEmpty()) {
+                return rejectOverload();
+            }
+
+            Optional<PaymentDeadline> deadline = deadline(requestTimeoutMillis);
+
+            Mono<PaymentConfirmationResult> confirmation = paymentConfirmUsecase.confirm(command)
+                .contextWrite(context -> deadline.map(value -> value.writeTo(context)).orElse(context))
+                .doOnSuccess(result -> permit.get().success())
+                .doOnError(error -> permit.get().dropped())
+                .doOnCancel(() -> permit.get().dropped());
+
+            if (isAsyncRequested(prefer)) {
+
+                if (!paymentConfirmTracker.start(command.getOrderId(), confirmation)) {
+                    // 이미 진행 중인 결제 승인을 추적하고 있으므로 이번 요청은 실행하지 않는다.
+                    permit.get().ignore();
+                }
+
+                return accepted(command.getOrderId());
+            }
+
+            return confirmation
+                .map(result ->
+                    ResponseEntity.ok(ApiResponse.with(HttpStatus.OK, "", result)));
+        });
+    }
+
+    /**
+     * <h4> 비동기 결제 승인 상태 조회 </h4>
+     * <li> 200: 결제 승인이 끝났고 결과를 함께 응답한다. </li>
+     * <li> 202: 결제 승인이 진행 중이다. </li>
+     * <li> 404: 추적 중인 결제 승인이 없다. (비동기로 요청하지 않았거나 보관 기간이 지났다.) </li>
+     */
+    @GetMapping("/payments/{orderId}")
+    public Mono<ResponseEntity<ApiResponse<PaymentConfirmationResult>>> getConfirmation(@PathVariable String orderId) {
+        return Mono.fromSupplier(() ->
+            paymentConfirmTracker.get(orderId)
+                .map(tracked -> tracked.result()
+                    .map(result -> ResponseEntity.ok(ApiResponse.with(HttpStatus.OK, "", result)))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .body(ApiResponse.with(HttpStatus.ACCEPTED, "결제 승인이 진행 중입니다.", null))))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.with(HttpStatus.NOT_FOUND, "결제 승인 요청을 찾을 수 없습니다.", null))));
+    }
+
+    /**
+     * <h4> 비동기 결제 승인 결과 알림 (Server-Sent Events) </h4>
+     * <p> 결제 승인이 끝나면 결과를 payment-confirmation 이벤트 하나로 보내고 스트림을 종료한다. </p>
+     * <p> 추적 중인 결제 승인이 없거나 events-timeout 안에 끝나지 않으면 이벤트 없이 종료하므로 상태 조회 API 로 확인한다. </p>
+     */
+    @GetMapping(value = "/payments/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ApiResponse<PaymentConfirmationResult>>> streamConfirmation(@PathVariable String orderId) {
+        return Mono.justOrEmpty(paymentConfirmTracker.get(orderId))
+            .flatMap(tracked -> tracked.awaitResult().timeout(eventsTimeout, Mono.empty()))
             .map(result ->
-                ResponseEntity.ok(ApiResponse.with(HttpStatus.OK, "", result)));
+                ServerSentEvent.builder(ApiResponse.with(HttpStatus.OK, "", result))
+                    .id(orderId)
+                    .event("payment-confirmation")
+                    .build())
+            .flux();
+    }
+
+    private Optional<PaymentDeadline> deadline(Long requestTimeoutMillis) {
+
+        Duration timeout = confirmTimeout;
+
+        if (requestTimeoutMillis != null && requestTimeoutMillis > 0) {
+            Duration requested = Duration.ofMillis(requestTimeoutMillis);
+            timeout = timeout.compareTo(Duration.ZERO) > 0 ? min(timeout, requested) : requested;
+        }
+
+        return timeout.compareTo(Duration.ZERO) > 0 ? Optional.of(PaymentDeadline.after(timeout)) : Optional.empty();
+    }
+
+    private static Duration min(Duration first, Duration second) {
+        return first.compareTo(second) <= 0 ? first : second;
+    }
+
+    private boolean isAsyncRequested(String prefer) {
+        return asyncEnabled && prefer != null && prefer.toLowerCase().contains(RESPOND_ASYNC);
+    }
+
+    private Mono<ResponseEntity<ApiResponse<PaymentConfirmationResult>>> accepted(String orderId) {
+        return Mono.just(
+            ResponseEntity.accepted()
+                .location(URI.create("/v1/toss/payments/" + orderId))
+                .header("Preference-Applied", RESPOND_ASYNC)
+                .body(ApiResponse.with(HttpStatus.ACCEPTED, "결제 승인 요청을 접수했습니다.", null)));
+    }
+
+    private Mono<ResponseEntity<ApiResponse<PaymentConfirmationResult>>> rejectOverload() {
+        return Mono.just(
+            ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+                .body(ApiResponse.with(HttpStatus.SERVICE_UNAVAILABLE, "결제 승인 요청이 많아 처리할 수 없습니다. 잠시 후 다시 시도해주세요.", null)));
     }
 }
@@ -0,0 +1,97 @@
+package com.example.paymentservice.payment.adapter.in.web.async;
+
+import com.example.paymentservice.payment.domain.PaymentConfirmationResult;
+import com.example.paymentservice.payment.domain.PaymentExecutionResult.PaymentFailure;
+import com.example.paymentservice.payment.domain.PaymentStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * <h4> 비동기 결제 승인 추적 </h4>
+ * <p> 비동기 모드로 접수된 결제 승인을 HTTP 요청과 분리해서 실행하고, 상태 조회와 SSE 구독에서 결과를 받을 수 있도록 orderId 별로 보관한다. </p>
+ * <li> 같은 주문의 결제 승인이 진행 중이라면 새로 시작하지 않고 진행 중인 결제 승인을 그대로 추적한다. </li>
+ * <li> 결과는 result-ttl 동안 보관되고, 최대 max-tracked 건을 넘으면 오래된 것부터 제거된다. </li>
+ */
+@Component
+public class PaymentConfirmTracker {
+
+    private final Cache<String, TrackedConfirmation> trackedConfirmations;
+
+    public PaymentConfirmTracker(MeterRegistry meterRegistry,
+                                 @Value("${payment.confirm.async.result-ttl:10m}") Duration resultTtl,
+                                 @Value("${payment.confirm.async.max-tracked:100000}") long maxTracked) {
+
+        this.trackedConfirmations = Caffeine.newBuilder()
+            .maximumSize(maxTracked)
+            .expireAfterWrite(resultTtl)
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, trackedConfirmations, "payment.confirm.async");
+    }
+
+    /**
+     * <h4> 결제 승인을 요청과 분리해서 시작한다. </h4>
+     * @return 진행 중인 결제 승인이 있어서 새로 시작하지 않았다면 false
+     */
+    public boolean start(String orderId, Mono<PaymentConfirmationResult> confirmation) {
+
+        TrackedConfirmation created = new TrackedConfirmation();
+
+        TrackedConfirmation tracked = trackedConfirmations.asMap().compute(
+            orderId, (key, existing) -> existing != null && !existing.isDone() ? existing : created);
+
+        if (tracked != created) {
+            return false;
+        }
+
+        confirmation
+            // 결제 승인은 에러를 결과로 바꿔서 응답하지만, 그렇지 못한 에러도 조회하는 쪽에서 기다리지 않도록 알 수 없는 상태로 기록한다.
+            .onErrorResume(error -> Mono.just(new PaymentConfirmationResult(
+                PaymentStatus.UNKNOWN, new PaymentFailure(error.getClass().getSimpleName(), String.valueOf(error.getMessage())))))
+            .subscribe(created::complete);
+
+        return true;
+    }
+
+    public Optional<TrackedConfirmation> get(String orderId) {
+        return Optional.ofNullable(trackedConfirmations.getIfPresent(orderId));
+    }
+
+    public static class TrackedConfirmation {
+
+        private final Sinks.One<PaymentConfirmationResult> sink = Sinks.one();
+        private volatile PaymentConfirmationResult result;
+
+        private void complete(PaymentConfirmationResult result) {
+            this.result = result;
+            sink.tryEmitValue(result);
+        }
+
+        public boolean isDone() {
+            return result != null;
+        }
+
+        /**
+         * @return 결제 승인이 끝나지 않았다면 empty
+         */
+        public Optional<PaymentConfirmationResult> result() {
+            return Optional.ofNullable(result);
+        }
+
+        /**
+         * 결제 승인이 끝나면 결과를 발행한다. (이미 끝났다면 바로 발행한다.)
+         */
+        public Mono<PaymentConfirmationResult> awaitResult() {
+            return sink.asMono();
+        }
+    }
+}
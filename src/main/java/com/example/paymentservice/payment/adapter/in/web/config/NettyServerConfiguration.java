@@ -0,0 +1,61 @@
+package com.example.paymentservice.payment.adapter.in.web.config;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * <h4> Reactor Netty 서버 설정 </h4>
+ * <p> 서블릿 스택 (Tomcat) 없이 Reactor Netty 이벤트 루프에서 컨트롤러를 실행한다. </p>
+ * <li> 서버는 WebClient 와 이벤트 루프를 공유하지 않도록 전용 LoopResources (payment-http) 를 사용한다. </li>
+ * <li> 이벤트 루프 스레드 수는 payment.server.netty.worker-threads 로 지정한다. (0 이하라면 코어 수) </li>
+ * <li> 연결 수, 주고받은 데이터, 응답시간은 reactor.netty.http.server.* 지표로 확인할 수 있다. (orderId 는 URI 태그에서 {orderId} 로 바꾼다.) </li>
+ * <p> 클래스패스에 Tomcat 이 있더라도 리액티브 서버는 항상 Netty 를 사용하도록 서버 팩토리를 직접 등록한다. </p>
+ */
+@Configuration
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class NettyServerConfiguration {
+
+    // 지표의 URI 태그 수가 주문 수만큼 늘어나지 않도록 orderId 경로를 묶는다.
+    private static final Pattern ORDER_ID_PATH = Pattern.compile("/payments/[^/?]+");
+
+    @Bean(destroyMethod = "dispose")
+    public LoopResources paymentServerLoopResources(
+        @Value("${payment.server.netty.select-threads:1}") int selectThreads,
+        @Value("${payment.server.netty.worker-threads:0}") int workerThreads) {
+
+        int workers = workerThreads > 0 ? workerThreads : Runtime.getRuntime().availableProcessors();
+
+        return LoopResources.create("payment-http", selectThreads, workers, true);
+    }
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(
+        LoopResources paymentServerLoopResources,
+        @Value("${payment.server.netty.idle-timeout:60s}") Duration idleTimeout) {
+
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory();
+
+        factory.addServerCustomizers(httpServer -> httpServer
+            .runOn(paymentServerLoopResources)
+            // 요청이 없는 keep-alive 연결을 닫아서 연결 수가 계속 늘어나지 않도록 한다.
+            .idleTimeout(idleTimeout)
+            .metrics(true, NettyServerConfiguration::uriTag));
+
+        return factory;
+    }
+
+    static String uriTag(String uri) {
+
+        int queryStart = uri.indexOf('?');
+        String path = queryStart >= 0 ? uri.substring(0, queryStart) : uri;
+
+        return ORDER_ID_PATH.matcher(path).replaceAll("/payments/{orderId}");
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.paymentservice.payment.adapter.in.web.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * <h4> 지연시간 기반 적응형 동시성 제한 (Gradient) </h4>
+ * <p> 결제 승인은 PSP 와 데이터베이스를 기다리는 시간이 대부분이라, 둘 중 하나가 느려지면 처리 중인 요청이 계속 쌓이다가 <br>
+ *     WebClient, R2DBC 커넥션 풀의 타임아웃으로 한꺼번에 실패한다. 따라서 처리할 수 있는 만큼만 받고 나머지는 바로 거절한다. </p>
+ * <p> 평상시 지연시간 (long RTT) 과 최근 지연시간 (short RTT) 의 비율 (gradient) 로 동시 처리 한도를 조정한다. </p>
+ * <li> 최근 지연시간이 평상시와 비슷하다면 (gradient = 1) 한도를 sqrt(limit) 만큼 늘린다. </li>
+ * <li> 최근 지연시간이 늘어나면 (gradient < 1) 대기열이 생긴 것이므로 비율만큼 한도를 줄인다. </li>
+ * <li> 처리 중인 요청이 한도의 절반도 되지 않는다면 지연시간이 한도와 무관하므로 한도를 늘리지 않는다. </li>
+ * <li> 요청이 에러나 취소로 끝나면 지연시간을 믿을 수 없으므로 한도를 일정 비율로 줄인다. </li>
+ * <p> 한도, 처리 중인 요청 수, 거절 수는 payment.confirm.limiter.* 지표로 확인할 수 있다. </p>
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    // 평상시 지연시간을 계산할 샘플 수 (지수 이동 평균)
+    private static final int LONG_WINDOW = 600;
+    // 최근 지연시간을 계산할 샘플 수 (지수 이동 평균)
+    private static final int SHORT_WINDOW = 10;
+    // 한도를 한 번에 바꾸는 비율
+    private static final double SMOOTHING = 0.2;
+    // 에러나 취소로 끝난 요청이 있을 때 한도를 줄이는 비율
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    // 최근 지연시간이 평상시의 몇 배까지 늘어나도 한도를 줄이지 않을지
+    private final double rttTolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejectedCounter;
+
+    private double estimatedLimit;
+    private double longRtt = 0;
+    private double shortRtt = 0;
+
+    @Getter
+    private volatile int limit;
+
+    public AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      @Value("${payment.confirm.limiter.enabled:true}") boolean enabled,
+                                      @Value("${payment.confirm.limiter.initial-limit:20}") int initialLimit,
+                                      @Value("${payment.confirm.limiter.min-limit:5}") int minLimit,
+                                      @Value("${payment.confirm.limiter.max-limit:200}") int maxLimit,
+                                      @Value("${payment.confirm.limiter.rtt-tolerance:1.5}") double rttTolerance) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+
+        this.rejectedCounter = Counter.builder("payment.confirm.limiter.rejected")
+            .description("Number of confirm requests rejected by the concurrency limiter")
+            .register(meterRegistry);
+
+        Gauge.builder("payment.confirm.limiter.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+            .description("Current concurrency limit for confirm requests")
+            .register(meterRegistry);
+        Gauge.builder("payment.confirm.limiter.in_flight", inFlight, AtomicInteger::get)
+            .description("Number of confirm requests in flight")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return 한도를 넘었다면 empty, 아니라면 요청이 끝났을 때 반드시 반납해야 하는 Permit
+     */
+    public Optional<Permit> tryAcquire() {
+
+        if (!enabled) {
+            return Optional.of(new Permit(System.nanoTime()));
+        }
+
+        while (true) {
+
+            int current = inFlight.get();
+
+            if (current >= limit) {
+                rejectedCounter.increment();
+                return Optional.empty();
+            }
+
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return Optional.of(new Permit(System.nanoTime()));
+            }
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart) {
+
+        if (longRtt == 0) {
+            longRtt = rttNanos;
+            shortRtt = rttNanos;
+            return;
+        }
+
+        shortRtt = ewma(shortRtt, rttNanos, SHORT_WINDOW);
+        longRtt = ewma(longRtt, rttNanos, LONG_WINDOW);
+
+        // 지연시간이 오랫동안 높게 유지되면 평상시 지연시간도 따라 올라가므로, 회복된 뒤에는 빠르게 낮춰서 한도를 다시 늘릴 수 있게 한다.
+        if (longRtt > shortRtt * 2) {
+            longRtt *= 0.95;
+        }
+
+        // 한도의 절반도 사용하지 않는 상태에서는 지연시간이 한도와 무관하다.
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+
+        updateLimit(estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+    }
+
+    private synchronized void onDropped() {
+        updateLimit(estimatedLimit * BACKOFF_RATIO);
+    }
+
+    private void updateLimit(double newLimit) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    private static double ewma(double average, double sample, int window) {
+        double factor = 2.0 / (window + 1);
+        return average * (1 - factor) + sample * factor;
+    }
+
+    /**
+     * <h4> 동시 처리 한도 하나 </h4>
+     * <p> 요청이 정상적으로 끝나면 success(), 에러나 취소로 끝나면 dropped(), 실행하지 않았다면 ignore() 로 한 번만 반납한다. </p>
+     */
+    public class Permit {
+
+        private final long startedAt;
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Permit(long startedAt) {
+            this.startedAt = startedAt;
+            this.inFlightAtStart = inFlight.get();
+        }
+
+        public void success() {
+            if (release()) {
+                onSample(System.nanoTime() - startedAt, inFlightAtStart);
+            }
+        }
+
+        public void dropped() {
+            if (release()) {
+                onDropped();
+            }
+        }
+
+        public void ignore() {
+            release();
+        }
+
+        private boolean release() {
+
+            if (!enabled) {
+                return false;
+            }
+
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                return true;
+            }
+
+            return false;
+        }
+    }
+}
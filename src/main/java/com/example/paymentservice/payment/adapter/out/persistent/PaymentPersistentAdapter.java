@@ -1,6 +1,9 @@
 package com.example.paymentservice.payment.adapter.out.persistent;
 
 import com.example.paymentservice.common.PersistentAdapter;
+import com.example.paymentservice.payment.adapter.out.persistent.cache.PaymentOrderSnapshot;
+import com.example.paymentservice.payment.adapter.out.persistent.cache.PaymentOrderSnapshotCache;
+import com.example.paymentservice.payment.adapter.out.persistent.exception.PaymentAlreadyProcessedException;
 import com.example.paymentservice.payment.adapter.out.persistent.repository.PaymentOutboxRepository;
 import com.example.paymentservice.payment.adapter.out.persistent.repository.PaymentRepository;
 import com.example.paymentservice.payment.adapter.out.persistent.repository.PaymentStatusUpdateRepository;
@@ -10,41 +13,80 @@ import com.example.paymentservice.payment.application.port.out.LoadPendingPaymen
 import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdateCommand;
 import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdatePort;
 import com.example.paymentservice.payment.application.port.out.PaymentValidationPort;
+import com.example.paymentservice.payment.application.port.out.PurgeEventMessageCommand;
+import com.example.paymentservice.payment.application.port.out.PurgeEventMessagePort;
 import com.example.paymentservice.payment.application.port.out.SavePaymentPort;
 import com.example.paymentservice.payment.domain.PaymentEvent;
 import com.example.paymentservice.payment.domain.PaymentEventMessage;
+import com.example.paymentservice.payment.domain.PaymentStatus;
 import com.example.paymentservice.payment.domain.PendingPaymentEvent;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @PersistentAdapter
 @RequiredArgsConstructor
-public class PaymentPersistentAdapter implements SavePaymentPort, PaymentStatusUpdatePort, PaymentValidationPort, LoadPendingPaymentPort, LoadPendingPaymentEventMessagePort {
+public class PaymentPersistentAdapter implements SavePaymentPort, PaymentStatusUpdatePort, PaymentValidationPort, LoadPendingPaymentPort, LoadPendingPaymentEventMessagePort, PurgeEventMessagePort {
 
     private final PaymentRepository paymentRepository;
     private final PaymentStatusUpdateRepository paymentStatusUpdateRepository;
     private final PaymentValidationRepository paymentValidationRepository;
     private final PaymentOutboxRepository paymentOutboxRepository;
+    private final PaymentOrderSnapshotCache paymentOrderSnapshotCache;
 
     @Override
     public Mono<Void> save(PaymentEvent paymentEvent) {
-        return paymentRepository.save(paymentEvent);
+        return paymentRepository.save(paymentEvent)
+            .doOnSuccess(saved -> paymentOrderSnapshotCache.put(paymentEvent));
     }
 
+    /**
+     * <h4> 결제 승인 시작 </h4>
+     * <p> 캐시된 상태가 이미 최종 상태라면 데이터베이스에서 주문을 잠그지 않고 바로 거절한다. </p>
+     */
     @Override
-    public Mono<Boolean> updatePaymentStatusToExecuting(String paymentKey, String orderId) {
-        return paymentStatusUpdateRepository.updatePaymentStatusToExecuting(paymentKey, orderId);
+    public Mono<String> updatePaymentStatusToExecuting(String paymentKey, String orderId, Supplier<String> pspExecutorSelector) {
+        return Mono.defer(() -> {
+
+            PaymentOrderSnapshot snapshot = paymentOrderSnapshotCache.get(orderId);
+
+            if (snapshot != null && snapshot.isDone()) {
+                return Mono.error(PaymentAlreadyProcessedException.rejectedTransition(orderId, snapshot.status(), PaymentStatus.EXECUTING));
+            }
+
+            return paymentStatusUpdateRepository.updatePaymentStatusToExecuting(paymentKey, orderId, pspExecutorSelector)
+                .doOnSuccess(recordedExecutor -> paymentOrderSnapshotCache.updateStatus(orderId, PaymentStatus.EXECUTING))
+                .doOnError(PaymentAlreadyProcessedException.class,
+                           error -> paymentOrderSnapshotCache.updateStatus(orderId, error.getStatus()));
+        });
     }
 
+    /**
+     * <h4> 결제 금액 검증 </h4>
+     * <p> 캐시된 금액과 같다면 데이터베이스를 조회하지 않는다. 다르거나 캐시에 없을 때만 데이터베이스에서 검증한다. </p>
+     */
     @Override
     public Mono<Boolean> isValid(String orderId, Long amount) {
-        return paymentValidationRepository.isValid(orderId, amount);
+        return Mono.defer(() -> {
+
+            PaymentOrderSnapshot snapshot = paymentOrderSnapshotCache.get(orderId);
+
+            if (snapshot != null && amount != null && snapshot.totalAmount() == amount) {
+                return Mono.just(true);
+            }
+
+            return paymentValidationRepository.isValid(orderId, amount);
+        });
     }
 
     @Override
     public Mono<Boolean> updatePaymentStatus(PaymentStatusUpdateCommand command) {
-        return paymentStatusUpdateRepository.updatePaymentStatus(command);
+        return paymentStatusUpdateRepository.updatePaymentStatus(command)
+            .doOnSuccess(updated -> paymentOrderSnapshotCache.updateStatus(command.getOrderId(), command.getStatus()))
+            .doOnError(PaymentAlreadyProcessedException.class,
+                       error -> paymentOrderSnapshotCache.updateStatus(command.getOrderId(), error.getStatus()));
     }
 
     @Override
@@ -56,4 +98,15 @@ public class PaymentPersistentAdapter implements SavePaymentPort, PaymentStatusU
     public Flux<PaymentEventMessage> getPendingPaymentEventMessage() {
         return paymentOutboxRepository.getPendingPaymentOutboxes();
     }
+
+    @Override
+    public Flux<Long> purgeSentEventMessages(PurgeEventMessageCommand command) {
+        return paymentOutboxRepository.purgeSentOutboxes(
+            command.getCreatedBefore(), command.getChunkSize(), command.getChunkInterval(), command.isArchive());
+    }
+
+    @Override
+    public Mono<LocalDateTime> getOldestSentEventMessageCreatedAt() {
+        return paymentOutboxRepository.getOldestSentOutboxCreatedAt();
+    }
 }
@@ -0,0 +1,21 @@
+package com.example.paymentservice.payment.adapter.out.persistent.cache;
+
+import com.example.paymentservice.payment.domain.PaymentStatus;
+
+/**
+ * <h4> 결제 승인에 필요한 주문 정보 </h4>
+ * <p> 결제 금액은 체크아웃 이후 바뀌지 않고, 결제 상태는 상태 변경이 커밋될 때마다 갱신된다. </p>
+ */
+public record PaymentOrderSnapshot(String orderId, long totalAmount, PaymentStatus status) {
+
+    public PaymentOrderSnapshot withStatus(PaymentStatus status) {
+        return new PaymentOrderSnapshot(orderId, totalAmount, status);
+    }
+
+    /**
+     * SUCCESS, FAILURE 는 다시 결제 승인 (EXECUTING) 으로 변경될 수 없는 최종 상태이다.
+     */
+    public boolean isDone() {
+        return !PaymentStatus.EXECUTING.allowedPreviousStatuses().contains(status);
+    }
+}
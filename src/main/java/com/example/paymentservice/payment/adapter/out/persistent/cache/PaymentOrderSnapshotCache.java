@@ -0,0 +1,79 @@
+package com.example.paymentservice.payment.adapter.out.persistent.cache;
+
+import com.example.paymentservice.payment.domain.PaymentEvent;
+import com.example.paymentservice.payment.domain.PaymentStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * <h4> 주문 스냅샷 캐시 (Write-Through) </h4>
+ * <p> 체크아웃에서 저장한 주문의 결제 금액과 상태를 메모리에 두고, 결제 승인 시 금액 검증과 상태 사전 확인을 데이터베이스 조회 없이 처리한다. </p>
+ * <li> 저장: 체크아웃 저장이 커밋된 이후에 추가한다. </li>
+ * <li> 갱신: 상태 변경이 커밋된 이후에 변경된 상태로 갱신한다. </li>
+ * <li> 조회 실패: 다른 인스턴스에서 체크아웃했거나 만료된 주문이므로 데이터베이스에서 조회한다. </li>
+ * <p> 데이터베이스가 항상 원본이기 때문에 캐시된 상태는 다시 바뀔 수 없는 최종 상태 (SUCCESS, FAILURE) 일 때만 판단에 사용한다. </p>
+ * <p> 캐시 적중률, 제거 건수는 Actuator 의 cache.* 지표 (cache: payment.order.snapshot) 로 확인할 수 있다. </p>
+ */
+@Component
+public class PaymentOrderSnapshotCache {
+
+    // 항목 하나의 대략적인 크기 (캐시 노드 + 스냅샷 + orderId 를 제외한 String 객체)
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+
+    private final boolean enabled;
+    private final Cache<String, PaymentOrderSnapshot> cache;
+
+    public PaymentOrderSnapshotCache(
+        MeterRegistry meterRegistry,
+        @Value("${payment.persistence.order-cache.enabled:true}") boolean enabled,
+        @Value("${payment.persistence.order-cache.max-memory:32MB}") DataSize maxMemory,
+        @Value("${payment.persistence.order-cache.expire-after-write:30m}") Duration expireAfterWrite) {
+
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+            // 건수가 아니라 orderId 길이를 포함한 추정 크기로 메모리 사용량을 제한한다.
+            .maximumWeight(maxMemory.toBytes())
+            .weigher((String orderId, PaymentOrderSnapshot snapshot) -> ENTRY_OVERHEAD_BYTES + orderId.length() * 2)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "payment.order.snapshot");
+    }
+
+    public void put(PaymentEvent paymentEvent) {
+
+        if (!enabled) {
+            return;
+        }
+
+        cache.put(paymentEvent.getOrderId(),
+                  new PaymentOrderSnapshot(paymentEvent.getOrderId(), paymentEvent.totalAmount(), PaymentStatus.NOT_STARTED));
+    }
+
+    /**
+     * @return 캐시된 스냅샷 (없다면 null)
+     */
+    public PaymentOrderSnapshot get(String orderId) {
+        return enabled ? cache.getIfPresent(orderId) : null;
+    }
+
+    /**
+     * <h4> 캐시에 있는 주문만 상태를 갱신한다. (금액을 모르는 주문을 새로 추가하지 않는다.) </h4>
+     * <p> 상태 변경 완료 콜백의 순서가 커밋 순서와 다를 수 있으므로 최종 상태는 다른 상태로 덮어쓰지 않는다. </p>
+     */
+    public void updateStatus(String orderId, PaymentStatus status) {
+
+        if (!enabled) {
+            return;
+        }
+
+        cache.asMap().computeIfPresent(orderId, (key, snapshot) -> snapshot.isDone() ? snapshot : snapshot.withStatus(status));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.paymentservice.payment.adapter.out.persistent.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * <h4> JDBC 저장소 설정 (jdbc 프로파일) </h4>
+ * <p> jdbc 프로파일에서는 결제 저장, 상태 변경, 금액 검증, 미처리 결제/메세지 조회를 R2DBC 대신 블로킹 JDBC (HikariCP) 로 실행한다. </p>
+ * <p> JDBC 호출은 커넥션 풀 크기만큼의 스레드를 가진 전용 스케줄러 (payment-jdbc) 에서 실행하고 Mono 로 감싸서 리액티브 파이프라인에 연결한다. <br>
+ *     이벤트 루프 스레드는 블로킹되지 않고, 커넥션을 얻지 못한 작업은 스레드가 아니라 스케줄러의 대기열에서 기다린다. </p>
+ * <p> 복제본 라우팅과 샤딩, Group Commit 은 R2DBC 저장소에만 적용된다. </p>
+ * <p> 풀별 커넥션 수와 획득 지연시간은 Actuator 의 hikaricp.connections.* 지표로 확인할 수 있다. </p>
+ */
+@Configuration
+@Profile("jdbc")
+public class JDBCPersistenceConfiguration {
+
+    @Value("${spring.r2dbc.username}") private String username;
+    @Value("${spring.r2dbc.password}") private String password;
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource paymentDataSource(
+        MeterRegistry meterRegistry,
+        @Value("${payment.persistence.jdbc.url}") String url,
+        @Value("${payment.persistence.jdbc.max-pool-size:20}") int maxPoolSize,
+        @Value("${payment.persistence.jdbc.connection-timeout:3s}") Duration connectionTimeout) {
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("payment-jdbc");
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(maxPoolSize);
+        config.setMinimumIdle(maxPoolSize);
+        // 풀이 가득 찼을 때 커넥션을 기다리는 최대 시간 (무한정 대기하지 않고 실패시킨다.)
+        config.setConnectionTimeout(connectionTimeout.toMillis());
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        return new HikariDataSource(config);
+    }
+
+    @Bean
+    public NamedParameterJdbcTemplate paymentJdbcTemplate(
+        @Qualifier("paymentDataSource") DataSource dataSource,
+        @Value("${payment.persistence.jdbc.query-timeout:5s}") Duration queryTimeout) {
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        // 구독이 취소되어도 실행 중인 쿼리는 멈추지 않으므로 쿼리마다 데이터베이스의 타임아웃을 건다.
+        jdbcTemplate.setQueryTimeout((int) Math.max(1, queryTimeout.toSeconds()));
+
+        return new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @Bean
+    public TransactionTemplate paymentTransactionTemplate(@Qualifier("paymentDataSource") DataSource dataSource) {
+        return new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    /**
+     * <p> 커넥션 수보다 많은 스레드는 커넥션을 기다리기만 하므로 스레드 수를 풀 크기로 제한한다. </p>
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler paymentJdbcScheduler(
+        @Value("${payment.persistence.jdbc.max-pool-size:20}") int maxPoolSize,
+        @Value("${payment.persistence.jdbc.max-queued-tasks:10000}") int maxQueuedTasks) {
+
+        return Schedulers.newBoundedElastic(maxPoolSize, maxQueuedTasks, "payment-jdbc");
+    }
+}
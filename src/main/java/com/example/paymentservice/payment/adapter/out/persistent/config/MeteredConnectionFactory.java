@@ -0,0 +1,66 @@
+package com.example.paymentservice.payment.adapter.out.persistent.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import java.io.Closeable;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+/**
+ * <h4> 커넥션 획득 지연시간을 기록하는 ConnectionFactory </h4>
+ * <p> 풀의 acquired, pending, idle 지표는 스프링 부트가 Wrapped 를 풀어서 ConnectionPool 에 직접 등록하고, </p>
+ * <p> 여기서는 풀에서 커넥션을 얻기까지 걸린 시간만 히스토그램으로 기록한다. </p>
+ */
+class MeteredConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Closeable {
+
+    private final ConnectionPool connectionPool;
+    private final Timer acquireSuccessTimer;
+    private final Timer acquireFailureTimer;
+
+    MeteredConnectionFactory(String name, ConnectionPool connectionPool, MeterRegistry meterRegistry) {
+        this.connectionPool = connectionPool;
+        this.acquireSuccessTimer = acquireTimer(name, "success", meterRegistry);
+        this.acquireFailureTimer = acquireTimer(name, "failure", meterRegistry);
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.defer(() -> {
+
+            Timer.Sample sample = Timer.start();
+
+            return connectionPool.create()
+                .doOnSuccess(connection -> sample.stop(acquireSuccessTimer))
+                .doOnError(error -> sample.stop(acquireFailureTimer));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return connectionPool.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return connectionPool;
+    }
+
+    @Override
+    public void close() {
+        connectionPool.dispose();
+    }
+
+    private static Timer acquireTimer(String name, String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("r2dbc.pool.acquire")
+            .description("Time taken to acquire a connection from the pool")
+            .tag("name", name)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+}
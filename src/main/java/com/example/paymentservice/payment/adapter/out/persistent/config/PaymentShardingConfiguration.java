@@ -0,0 +1,119 @@
+package com.example.paymentservice.payment.adapter.out.persistent.config;
+
+import com.example.paymentservice.payment.adapter.out.persistent.repository.PaymentShard;
+import com.example.paymentservice.payment.adapter.out.persistent.repository.PaymentShardRouter;
+import com.example.paymentservice.payment.adapter.out.persistent.repository.R2DBCPaymentOutboxRepository;
+import com.example.paymentservice.payment.adapter.out.persistent.repository.R2DBCPaymentRepository;
+import com.example.paymentservice.payment.adapter.out.persistent.repository.R2DBCPaymentStatusUpdateRepository;
+import com.example.paymentservice.payment.adapter.out.persistent.repository.R2DBCPaymentValidationRepository;
+import com.example.paymentservice.payment.adapter.out.persistent.stream.util.PartitionKeyUtil;
+import com.example.paymentservice.payment.domain.PaymentEventMessagePublisher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * <h4> orderId 기반 샤딩 </h4>
+ * <p> 0번 샤드는 기본 데이터베이스 (spring.r2dbc.url) 이고, payment.persistence.sharding.urls 에 지정한 데이터베이스가 1번 샤드부터 순서대로 추가된다. </p>
+ * <p> 샤드마다 실시간 요청용, 백그라운드 작업용 커넥션 풀과 트랜잭션 매니저를 따로 가진다. </p>
+ * <p> 복제본 라우팅은 0번 샤드에만 적용된다. </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "payment.persistence.sharding.enabled", havingValue = "true")
+public class PaymentShardingConfiguration {
+
+    @Value("${spring.r2dbc.username}") private String username;
+    @Value("${spring.r2dbc.password}") private String password;
+
+    // 0번 샤드 (기본 데이터베이스) 를 제외한 샤드들의 R2DBC URL (쉼표로 구분)
+    @Value("${payment.persistence.sharding.urls:}") private List<String> shardUrls;
+
+    @Value("${payment.persistence.sharding.pools.oltp.max-size:20}") private int oltpMaxSize;
+    @Value("${payment.persistence.sharding.pools.background.max-size:5}") private int backgroundMaxSize;
+    @Value("${payment.persistence.sharding.pools.max-acquire-time:3s}") private Duration maxAcquireTime;
+    @Value("${payment.persistence.sharding.pools.max-idle-time:30m}") private Duration maxIdleTime;
+
+    @Value("${payment.recovery.page-size:100}") private int pageSize;
+
+    private final List<MeteredConnectionFactory> shardConnectionFactories = new ArrayList<>();
+
+    @Bean
+    public PaymentShardRouter paymentShardRouter(DatabaseClient databaseClient,
+                                                 @Qualifier("backgroundDatabaseClient") DatabaseClient backgroundDatabaseClient,
+                                                 TransactionalOperator transactionalOperator,
+                                                 PartitionKeyUtil partitionKeyUtil,
+                                                 PaymentEventMessagePublisher paymentEventMessagePublisher,
+                                                 MeterRegistry meterRegistry) {
+
+        List<PaymentShard> shards = new ArrayList<>();
+        shards.add(createShard(0, databaseClient, backgroundDatabaseClient, transactionalOperator, partitionKeyUtil, paymentEventMessagePublisher));
+
+        for (String shardUrl : shardUrls) {
+
+            if (shardUrl.isBlank()) {
+                continue;
+            }
+
+            int index = shards.size();
+            MeteredConnectionFactory oltpConnectionFactory = createShardConnectionPool("shard-" + index, shardUrl, oltpMaxSize, meterRegistry);
+            MeteredConnectionFactory backgroundConnectionFactory = createShardConnectionPool("shard-" + index + "-background", shardUrl, backgroundMaxSize, meterRegistry);
+
+            shards.add(createShard(index,
+                                   DatabaseClient.create(oltpConnectionFactory),
+                                   DatabaseClient.create(backgroundConnectionFactory),
+                                   TransactionalOperator.create(new R2dbcTransactionManager(oltpConnectionFactory)),
+                                   partitionKeyUtil,
+                                   paymentEventMessagePublisher));
+        }
+
+        return new PaymentShardRouter(shards);
+    }
+
+    @PreDestroy
+    void closeShardConnectionPools() {
+        shardConnectionFactories.forEach(MeteredConnectionFactory::close);
+    }
+
+    private PaymentShard createShard(int index,
+                                     DatabaseClient databaseClient,
+                                     DatabaseClient backgroundDatabaseClient,
+                                     TransactionalOperator transactionalOperator,
+                                     PartitionKeyUtil partitionKeyUtil,
+                                     PaymentEventMessagePublisher paymentEventMessagePublisher) {
+
+        // 상태 변경과 아웃박스 저장이 같은 트랜잭션에 묶이도록 샤드의 아웃박스 저장소를 사용한다.
+        R2DBCPaymentOutboxRepository paymentOutboxRepository = new R2DBCPaymentOutboxRepository(databaseClient, partitionKeyUtil, backgroundDatabaseClient);
+
+        return new PaymentShard(
+            index,
+            new R2DBCPaymentRepository(databaseClient, transactionalOperator, backgroundDatabaseClient, pageSize),
+            new R2DBCPaymentStatusUpdateRepository(databaseClient, transactionalOperator, paymentOutboxRepository, paymentEventMessagePublisher),
+            new R2DBCPaymentValidationRepository(databaseClient),
+            paymentOutboxRepository);
+    }
+
+    private MeteredConnectionFactory createShardConnectionPool(String name, String url, int maxSize, MeterRegistry meterRegistry) {
+
+        MeteredConnectionFactory connectionFactory = R2DBCConnectionPoolConfiguration.createConnectionPool(
+            name, R2DBCConnectionPoolConfiguration.options(url, username, password), 1, maxSize, maxAcquireTime, maxIdleTime, meterRegistry);
+
+        // 빈으로 등록되지 않은 풀이므로 스프링 부트가 등록해주는 r2dbc.pool.* 지표를 직접 등록한다.
+        new ConnectionPoolMetrics((ConnectionPool) connectionFactory.unwrap(), name, Tags.empty()).bindTo(meterRegistry);
+        shardConnectionFactories.add(connectionFactory);
+
+        return connectionFactory;
+    }
+}
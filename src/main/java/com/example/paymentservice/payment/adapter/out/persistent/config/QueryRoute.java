@@ -0,0 +1,25 @@
+package com.example.paymentservice.payment.adapter.out.persistent.config;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * <h4> 쿼리를 실행할 데이터베이스 </h4>
+ * <p> 레포지토리는 조회 쿼리에 contextWrite(QueryRoute.REPLICA.context()) 를 붙여서 복제본에서 실행해도 되는 쿼리임을 표시한다. </p>
+ * <p> 표시하지 않은 쿼리와 트랜잭션 안에서 실행되는 쿼리는 항상 원본(PRIMARY)에서 실행된다. </p>
+ */
+public enum QueryRoute {
+
+    PRIMARY,
+    REPLICA;
+
+    private static final String CONTEXT_KEY = QueryRoute.class.getName();
+
+    public Context context() {
+        return Context.of(CONTEXT_KEY, this);
+    }
+
+    static QueryRoute from(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, PRIMARY);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.paymentservice.payment.adapter.out.persistent.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import java.time.Duration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * <h4> 용도별 R2DBC 커넥션 풀 </h4>
+ * <p> 결제 승인/체크아웃 같은 실시간 요청과 복구/메세지 릴레이/발행 결과 기록 같은 백그라운드 작업이 하나의 풀을 공유하면, </p>
+ * <p> 백그라운드 작업이 커넥션을 모두 점유했을 때 실시간 요청이 커넥션을 얻지 못하고 멈추게 된다. 따라서 두 작업의 풀을 분리한다. </p>
+ * <li> oltp: 실시간 요청용 풀 (@Primary 이므로 트랜잭션 매니저와 TransactionalOperator 도 이 풀을 사용한다.) </li>
+ * <li> background: 백그라운드 작업용 풀 (backgroundDatabaseClient 로만 사용한다.) </li>
+ * <p> 풀별 acquired, pending, idle 커넥션 수는 Actuator 의 r2dbc.pool.* 지표로, 커넥션 획득 지연시간은 r2dbc.pool.acquire 지표로 확인할 수 있다. </p>
+ * <p> 복제본 (payment.persistence.replica) 을 사용하면 두 풀 모두 QueryRoute.REPLICA 로 표시된 조회 쿼리를 복제본 풀로 보낸다. </p>
+ */
+@Configuration
+public class R2DBCConnectionPoolConfiguration {
+
+    @Value("${spring.r2dbc.url}") private String url;
+    @Value("${spring.r2dbc.username}") private String username;
+    @Value("${spring.r2dbc.password}") private String password;
+
+    @Primary
+    @Bean
+    public ConnectionFactory oltpConnectionFactory(
+        MeterRegistry meterRegistry,
+        @Value("${payment.persistence.pools.oltp.initial-size:10}") int initialSize,
+        @Value("${payment.persistence.pools.oltp.max-size:20}") int maxSize,
+        @Value("${payment.persistence.pools.oltp.max-acquire-time:3s}") Duration maxAcquireTime,
+        @Value("${payment.persistence.pools.oltp.max-idle-time:30m}") Duration maxIdleTime,
+        ObjectProvider<ReplicaLagMonitor> replicaLagMonitor) {
+
+        return routeToReplica(
+            createConnectionPool("oltp", options(url, username, password), initialSize, maxSize, maxAcquireTime, maxIdleTime, meterRegistry),
+            replicaLagMonitor.getIfAvailable());
+    }
+
+    @Bean
+    public ConnectionFactory backgroundConnectionFactory(
+        MeterRegistry meterRegistry,
+        @Value("${payment.persistence.pools.background.initial-size:2}") int initialSize,
+        @Value("${payment.persistence.pools.background.max-size:5}") int maxSize,
+        @Value("${payment.persistence.pools.background.max-acquire-time:10s}") Duration maxAcquireTime,
+        @Value("${payment.persistence.pools.background.max-idle-time:10m}") Duration maxIdleTime,
+        ObjectProvider<ReplicaLagMonitor> replicaLagMonitor) {
+
+        return routeToReplica(
+            createConnectionPool("background", options(url, username, password), initialSize, maxSize, maxAcquireTime, maxIdleTime, meterRegistry),
+            replicaLagMonitor.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "payment.persistence.replica.enabled", havingValue = "true")
+    public ConnectionFactory replicaConnectionFactory(
+        MeterRegistry meterRegistry,
+        @Value("${payment.persistence.replica.url}") String replicaUrl,
+        @Value("${payment.persistence.replica.initial-size:5}") int initialSize,
+        @Value("${payment.persistence.replica.max-size:10}") int maxSize,
+        @Value("${payment.persistence.replica.max-acquire-time:1s}") Duration maxAcquireTime,
+        @Value("${payment.persistence.replica.max-idle-time:10m}") Duration maxIdleTime) {
+
+        return createConnectionPool("replica", options(replicaUrl, username, password), initialSize, maxSize, maxAcquireTime, maxIdleTime, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "payment.persistence.replica.enabled", havingValue = "true")
+    ReplicaLagMonitor replicaLagMonitor(
+        MeterRegistry meterRegistry,
+        @Qualifier("replicaConnectionFactory") ConnectionFactory replicaConnectionFactory,
+        @Value("${payment.persistence.replica.max-lag:2s}") Duration maxLag,
+        @Value("${payment.persistence.replica.lag-check-interval:1s}") Duration lagCheckInterval) {
+
+        return new ReplicaLagMonitor(replicaConnectionFactory, maxLag, lagCheckInterval, meterRegistry);
+    }
+
+    // 별도의 DatabaseClient 를 등록하면 자동 설정된 DatabaseClient 가 등록되지 않기 때문에 기본 DatabaseClient 도 직접 등록한다.
+    @Primary
+    @Bean
+    public DatabaseClient databaseClient(@Qualifier("oltpConnectionFactory") ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @Bean
+    public DatabaseClient backgroundDatabaseClient(@Qualifier("backgroundConnectionFactory") ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    private ConnectionFactory routeToReplica(MeteredConnectionFactory connectionFactory, ReplicaLagMonitor replicaLagMonitor) {
+        return replicaLagMonitor != null
+            ? new ReplicaRoutingConnectionFactory(connectionFactory, replicaLagMonitor)
+            : connectionFactory;
+    }
+
+    static ConnectionFactoryOptions options(String url, String username, String password) {
+        return ConnectionFactoryOptions.parse(url).mutate()
+            .option(ConnectionFactoryOptions.USER, username)
+            .option(ConnectionFactoryOptions.PASSWORD, password)
+            .build();
+    }
+
+    static MeteredConnectionFactory createConnectionPool(String name,
+                                                         ConnectionFactoryOptions options,
+                                                         int initialSize,
+                                                         int maxSize,
+                                                         Duration maxAcquireTime,
+                                                         Duration maxIdleTime,
+                                                         MeterRegistry meterRegistry) {
+
+        ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+            .name("payment-" + name)
+            .initialSize(initialSize)
+            .maxSize(maxSize)
+            // 풀이 가득 찼을 때 커넥션을 기다리는 최대 시간 (무한정 대기하지 않고 실패시킨다.)
+            .maxAcquireTime(maxAcquireTime)
+            .maxIdleTime(maxIdleTime)
+            .build();
+
+        return new MeteredConnectionFactory(name, new ConnectionPool(configuration), meterRegistry);
+    }
+}
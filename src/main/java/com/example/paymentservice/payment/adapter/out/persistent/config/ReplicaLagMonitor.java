@@ -0,0 +1,101 @@
+package com.example.paymentservice.payment.adapter.out.persistent.config;
+
+import com.example.paymentservice.common.LoggerUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Optional;
+import lombok.Getter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * <h4> 복제본의 복제 지연 감시 </h4>
+ * <p> 주기적으로 SHOW REPLICA STATUS 의 Seconds_Behind_Source 를 조회해서 허용 지연시간 이내일 때만 복제본을 사용할 수 있다고 판단한다. </p>
+ * <p> 복제가 멈췄거나 (NULL) 조회에 실패하면 복제본을 사용하지 않고 원본으로 대체한다. </p>
+ */
+class ReplicaLagMonitor {
+
+    private static final String SHOW_REPLICA_STATUS_QUERY = "SHOW REPLICA STATUS";
+
+    @Getter
+    private final ConnectionFactory replicaConnectionFactory;
+    private final DatabaseClient databaseClient;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final Counter fallbackCounter;
+
+    private volatile boolean available = false;
+    private volatile long lagSeconds = -1;
+
+    private Disposable subscription;
+
+    ReplicaLagMonitor(ConnectionFactory replicaConnectionFactory, Duration maxLag, Duration checkInterval, MeterRegistry meterRegistry) {
+        this.replicaConnectionFactory = replicaConnectionFactory;
+        this.databaseClient = DatabaseClient.create(replicaConnectionFactory);
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        this.fallbackCounter = Counter.builder("r2dbc.replica.fallback")
+            .description("Number of replica-eligible queries routed to the primary")
+            .register(meterRegistry);
+
+        Gauge.builder("r2dbc.replica.lag", this, monitor -> monitor.lagSeconds)
+            .description("Replication lag in seconds (-1 when unknown)")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        Gauge.builder("r2dbc.replica.available", this, monitor -> monitor.available ? 1 : 0)
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        subscription = Flux.interval(Duration.ZERO, checkInterval)
+            .onBackpressureDrop()
+            .concatMap(tick -> checkLag())
+            .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    boolean isAvailable() {
+        return available;
+    }
+
+    void recordFallback() {
+        fallbackCounter.increment();
+    }
+
+    private Mono<Void> checkLag() {
+        return databaseClient.sql(SHOW_REPLICA_STATUS_QUERY)
+            .map(row -> Optional.ofNullable(row.get("Seconds_Behind_Source", Long.class)))
+            .first()
+            // 복제 상태가 없다면 복제본 역할을 대신하는 별도 스키마 (로컬, 테스트 환경) 이므로 지연이 없는 것으로 본다.
+            .defaultIfEmpty(Optional.of(0L))
+            .timeout(checkInterval)
+            .doOnNext(lag -> update(lag.orElse(-1L)))
+            .onErrorResume(error -> {
+                if (available) {
+                    LoggerUtil.error("replicaLagMonitor", "failed to check replication lag, fall back to primary", error);
+                }
+                update(-1L);
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    private void update(long lagSeconds) {
+        this.lagSeconds = lagSeconds;
+        this.available = lagSeconds >= 0 && lagSeconds <= maxLag.toSeconds();
+    }
+}
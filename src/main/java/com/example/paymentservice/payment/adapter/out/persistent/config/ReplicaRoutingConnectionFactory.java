@@ -0,0 +1,69 @@
+package com.example.paymentservice.payment.adapter.out.persistent.config;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import java.util.Map;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+
+/**
+ * <h4> 복제본 라우팅 ConnectionFactory </h4>
+ * <p> 구독 컨텍스트에 QueryRoute.REPLICA 가 있는 쿼리만 복제본 풀에서 커넥션을 얻고, 나머지는 원본 풀을 사용한다. </p>
+ * <p> 복제 지연이 허용치를 넘었거나 복제본 커넥션을 얻지 못하면 원본 풀로 대체한다. </p>
+ */
+class ReplicaRoutingConnectionFactory extends AbstractRoutingConnectionFactory implements Wrapped<ConnectionFactory> {
+
+    private final MeteredConnectionFactory primaryConnectionFactory;
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    ReplicaRoutingConnectionFactory(MeteredConnectionFactory primaryConnectionFactory, ReplicaLagMonitor replicaLagMonitor) {
+        this.primaryConnectionFactory = primaryConnectionFactory;
+        this.replicaLagMonitor = replicaLagMonitor;
+
+        setTargetConnectionFactories(Map.of(
+            QueryRoute.PRIMARY, primaryConnectionFactory,
+            QueryRoute.REPLICA, replicaLagMonitor.getReplicaConnectionFactory()));
+        setDefaultTargetConnectionFactory(primaryConnectionFactory);
+        afterPropertiesSet();
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return super.create()
+            .onErrorResume(error -> Mono.deferContextual(context -> {
+
+                // 복제본에서 커넥션을 얻으려다 실패한 경우에만 원본으로 다시 시도한다.
+                if (QueryRoute.from(context) != QueryRoute.REPLICA || !replicaLagMonitor.isAvailable()) {
+                    return Mono.error(error);
+                }
+
+                replicaLagMonitor.recordFallback();
+                return Mono.<Connection>from(primaryConnectionFactory.create());
+            }));
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> {
+
+            QueryRoute route = QueryRoute.from(context);
+
+            if (route == QueryRoute.REPLICA && !replicaLagMonitor.isAvailable()) {
+                replicaLagMonitor.recordFallback();
+                return Mono.just(QueryRoute.PRIMARY);
+            }
+
+            return Mono.just(route);
+        });
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return primaryConnectionFactory;
+    }
+
+    public void close() {
+        primaryConnectionFactory.close();
+    }
+}
@@ -13,4 +13,17 @@ public class PaymentAlreadyProcessedException extends RuntimeException {
         super(message);
         this.status = status;
     }
+
+    /**
+     * <h4> 현재 상태에서 변경하려는 상태로 변경할 수 없을 때 발생시킬 예외 </h4>
+     * <p> 이미 최종 상태 (SUCCESS, FAILURE) 라면 PaymentAlreadyProcessedException, 그 외에는 IllegalStateException 이다. </p>
+     */
+    public static RuntimeException rejectedTransition(String orderId, PaymentStatus previousStatus, PaymentStatus status) {
+        return switch (previousStatus) {
+            case SUCCESS -> new PaymentAlreadyProcessedException(PaymentStatus.SUCCESS, "이미 처리 성공한 결제 입니다.");
+            case FAILURE -> new PaymentAlreadyProcessedException(PaymentStatus.FAILURE, "이미 처리 실패한 결제 입니다.");
+            default -> new IllegalStateException(
+                String.format("결제 (orderId: %s) 의 상태를 %s 에서 %s 로 변경할 수 없습니다.", orderId, previousStatus, status));
+        };
+    }
 }
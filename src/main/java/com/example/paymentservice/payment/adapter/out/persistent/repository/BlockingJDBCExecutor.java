@@ -0,0 +1,39 @@
+package com.example.paymentservice.payment.adapter.out.persistent.repository;
+
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * <h4> 블로킹 JDBC 호출을 리액티브 파이프라인에 연결 </h4>
+ * <p> 구독할 때마다 JDBC 스케줄러 (payment-jdbc) 의 스레드에서 한 번 실행하고 결과를 Mono 로 전달한다. (null 이라면 empty) </p>
+ * <p> 트랜잭션은 실행하는 스레드에 바인딩되므로 하나의 트랜잭션에 속한 쿼리들은 반드시 하나의 transactional() 안에서 실행해야 한다. </p>
+ */
+@Component
+@Profile("jdbc")
+@RequiredArgsConstructor
+public class BlockingJDBCExecutor {
+
+    @Qualifier("paymentJdbcTemplate")
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    @Qualifier("paymentTransactionTemplate")
+    private final TransactionTemplate transactionTemplate;
+    @Qualifier("paymentJdbcScheduler")
+    private final Scheduler scheduler;
+
+    public <T> Mono<T> execute(Function<NamedParameterJdbcTemplate, T> callback) {
+        return Mono.fromCallable(() -> callback.apply(jdbcTemplate))
+            .subscribeOn(scheduler);
+    }
+
+    public <T> Mono<T> transactional(Function<NamedParameterJdbcTemplate, T> callback) {
+        return Mono.fromCallable(() -> transactionTemplate.execute(status -> callback.apply(jdbcTemplate)))
+            .subscribeOn(scheduler);
+    }
+}
@@ -0,0 +1,367 @@
+package com.example.paymentservice.payment.adapter.out.persistent.repository;
+
+import com.example.paymentservice.common.LoggerUtil;
+import com.example.paymentservice.payment.adapter.out.persistent.exception.PaymentAlreadyProcessedException;
+import com.example.paymentservice.payment.adapter.out.persistent.exception.PaymentValidationException;
+import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdateCommand;
+import com.example.paymentservice.payment.domain.PaymentEventMessagePublisher;
+import com.example.paymentservice.payment.domain.PaymentStatus;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * <h4> 여러 요청의 결제 상태 변경을 모아서 하나의 트랜잭션으로 커밋하는 Group Commit 저장소 </h4>
+ * <p> 동시에 처리되는 결제 승인들의 상태 변경 (SUCCESS, FAILURE, UNKNOWN) 을 짧은 시간 (max-wait) 또는 최대 건수 (max-batch-size) 만큼 모아서 <br>
+ *     한 번의 트랜잭션 (= 한 번의 fsync) 으로 처리한다. </p>
+ * <li> 1. 배치에 포함된 주문들을 SELECT ... FOR UPDATE 로 잠그고 현재 상태를 확인한다. </li>
+ * <li> 2. 변경 가능한 주문들의 히스토리를 multi-row INSERT 로 저장한다. </li>
+ * <li> 3. 결제 상태, 실패 횟수, 결제 부가 정보를 CASE 기반 UPDATE 로 한 번에 변경한다. </li>
+ * <p> 호출자의 Mono 는 배치 트랜잭션이 커밋된 이후에 완료된다. <br>
+ *     배치 트랜잭션이 실패하면 (아웃박스 저장 실패 등) 배치 전체가 롤백되므로, 남은 상태 변경을 한 건씩 기존 저장소의 트랜잭션으로 다시 처리해서 실패한 호출자만 에러를 받게 한다. </p>
+ * <p> NOT_STARTED -> EXECUTING 변경은 결과에 따라 바로 PSP 호출 여부가 결정되기 때문에 기존 저장소로 즉시 처리한다. </p>
+ * <p> 배치 트랜잭션은 하나의 데이터베이스만 대상으로 하기 때문에 샤딩 (payment.persistence.sharding) 을 사용할 때는 적용되지 않는다. </p>
+ */
+@Primary
+@Repository
+// jdbc 프로파일에서는 JDBC 저장소를 사용한다.
+@Profile("!jdbc")
+@ConditionalOnExpression("${payment.persistence.group-commit.enabled:false} and !${payment.persistence.sharding.enabled:false}")
+@RequiredArgsConstructor
+public class GroupCommitPaymentStatusUpdateRepository implements PaymentStatusUpdateRepository {
+
+    private final R2DBCPaymentStatusUpdateRepository r2dbcPaymentStatusUpdateRepository;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final PaymentOutboxRepository paymentOutboxRepository;
+    private final PaymentEventMessagePublisher paymentEventMessagePublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${payment.persistence.group-commit.max-batch-size:64}") private int maxBatchSize;
+    @Value("${payment.persistence.group-commit.max-wait:5ms}") private Duration maxWait;
+    @Value("${payment.persistence.group-commit.max-concurrent-flushes:4}") private int maxConcurrentFlushes;
+    @Value("${payment.persistence.group-commit.shutdown-timeout:10s}") private Duration shutdownTimeout;
+
+    private final Sinks.Many<PendingTransition> pendingTransitions = Sinks.many().unicast().onBackpressureBuffer();
+    // 모든 배치가 커밋된 뒤에 완료된다. (종료 시 남은 배치를 기다리기 위해 사용한다.)
+    private final Sinks.Empty<Void> drained = Sinks.empty();
+    // 아직 결과를 받지 못한 호출자들 (종료 시간 안에 커밋하지 못한 호출자에게 에러를 전달하기 위해 사용한다.)
+    private final Set<PendingTransition> inFlightTransitions = ConcurrentHashMap.newKeySet();
+    private volatile boolean stopped;
+
+    private DistributionSummary flushSize;
+    private Timer flushLatency;
+    private Disposable subscription;
+
+    private static final String SELECT_PAYMENT_ORDERS_FOR_UPDATE_QUERY = """
+                                                                         SELECT id, order_id, payment_order_status FROM payment_orders
+                                                                         WHERE order_id IN (:orderIds)
+                                                                         FOR UPDATE
+                                                                         """;
+
+    private static final String INSERT_PAYMENT_HISTORY_QUERY = """
+                                                               INSERT INTO payment_order_histories
+                                                               (payment_order_id, previous_status, new_status, reason) VALUES %s
+                                                               """;
+
+    private static final String UPDATE_PAYMENT_ORDER_STATUS_QUERY = """
+                                                                    UPDATE payment_orders
+                                                                    SET payment_order_status = CASE order_id %s END,
+                                                                        failed_count = %s,
+                                                                        updated_at = CURRENT_TIMESTAMP
+                                                                    WHERE order_id IN (%s)
+                                                                    """;
+
+    private static final String UPDATE_PAYMENT_EVENT_EXTRA_DETAILS_QUERY = """
+                                                                           UPDATE payment_events
+                                                                           SET order_name = CASE order_id %1$s END,
+                                                                               method = CASE order_id %2$s END,
+                                                                               approved_at = CASE order_id %3$s END,
+                                                                               type = CASE order_id %4$s END,
+                                                                               updated_at = CURRENT_TIMESTAMP
+                                                                           WHERE order_id IN (%5$s)
+                                                                           """;
+
+    @PostConstruct
+    public void start() {
+
+        flushSize = DistributionSummary.builder("payment.status.group_commit.flush.size")
+            .description("한 번의 트랜잭션으로 커밋된 결제 상태 변경 건수")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+
+        flushLatency = Timer.builder("payment.status.group_commit.flush.latency")
+            .description("배치 트랜잭션 커밋까지 걸린 시간")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+
+        subscription = pendingTransitions.asFlux()
+            // fairBackpressure: 하위 스트림의 요청이 없는 동안 버퍼가 넘쳐서 에러가 나지않도록 한다.
+            .bufferTimeout(maxBatchSize, maxWait, true)
+            .flatMap(this::flush, maxConcurrentFlushes)
+            .doFinally(signal -> drained.tryEmitEmpty())
+            .subscribe();
+    }
+
+    /**
+     * <h4> 새로운 상태 변경을 받지 않고, bufferTimeout 에 남아 있는 상태 변경까지 커밋한 뒤에 종료한다. </h4>
+     * <p> shutdown-timeout 안에 커밋하지 못한 호출자에게는 에러를 전달해서 Mono 가 완료되지 않은 채로 남지 않게 한다. </p>
+     */
+    @PreDestroy
+    public void stop() {
+
+        stopped = true;
+        pendingTransitions.emitComplete(Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+
+        Boolean completed = drained.asMono()
+            .thenReturn(true)
+            .timeout(shutdownTimeout, Mono.just(false))
+            .block();
+
+        subscription.dispose();
+
+        if (!Boolean.TRUE.equals(completed)) {
+            LoggerUtil.info("groupCommit", "shutdown timed out before flushing pending payment status transitions", inFlightTransitions.size());
+        }
+
+        inFlightTransitions.forEach(transition -> transition.result().tryEmitError(new IllegalStateException(
+            String.format("결제 (orderId: %s) 의 상태 변경을 커밋하기 전에 저장소가 종료되었습니다.", transition.command().getOrderId()))));
+    }
+
+    @Override
+    public Mono<String> updatePaymentStatusToExecuting(String paymentKey, String orderId, Supplier<String> pspExecutorSelector) {
+        return r2dbcPaymentStatusUpdateRepository.updatePaymentStatusToExecuting(paymentKey, orderId, pspExecutorSelector);
+    }
+
+    @Override
+    public Mono<Boolean> updatePaymentStatus(PaymentStatusUpdateCommand command) {
+        return Mono.defer(() -> {
+
+            PendingTransition pendingTransition = new PendingTransition(command, Sinks.one());
+            // 종료 여부보다 먼저 등록해서, 종료 직전에 들어와 버려진 상태 변경도 stop() 에서 에러를 전달받게 한다.
+            inFlightTransitions.add(pendingTransition);
+
+            if (stopped) {
+                inFlightTransitions.remove(pendingTransition);
+                return Mono.error(new IllegalStateException("결제 상태 변경 저장소가 종료되어 상태를 변경할 수 없습니다."));
+            }
+
+            // 여러 스레드에서 동시에 emit 할 수 있기 때문에 직렬화 실패 시 잠깐 재시도 한다.
+            pendingTransitions.emitNext(pendingTransition, Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+
+            return pendingTransition.result().asMono()
+                .doFinally(signal -> inFlightTransitions.remove(pendingTransition));
+        });
+    }
+
+    private Mono<Void> flush(List<PendingTransition> batch) {
+
+        long startedAt = System.nanoTime();
+        flushSize.record(batch.size());
+
+        // 같은 주문의 상태 변경이 하나의 배치에 두 번 들어오면 순서대로 반영될 수 있도록 다음 flush 로 미룬다.
+        Map<String, PendingTransition> transitions = new LinkedHashMap<>();
+        List<PendingTransition> deferred = new ArrayList<>();
+        for (PendingTransition transition : batch) {
+            if (transitions.putIfAbsent(transition.command().getOrderId(), transition) != null) {
+                deferred.add(transition);
+            }
+        }
+
+        // 변경할 수 없는 상태 변경은 바로 에러를 전달하고 목록에서 뺀다. (남은 목록이 배치로 커밋할 상태 변경이다.)
+        List<PendingTransition> accepted = new ArrayList<>(transitions.values());
+
+        return lockPaymentOrders(transitions.keySet())
+            .flatMap(paymentOrders -> {
+
+                for (PendingTransition transition : transitions.values()) {
+                    RuntimeException rejection = validate(transition.command(), paymentOrders.get(transition.command().getOrderId()));
+                    if (rejection != null) {
+                        accepted.remove(transition);
+                        transition.result().tryEmitError(rejection);
+                    }
+                }
+
+                return accepted.isEmpty() ? Mono.<Void>empty() : writeTransitions(accepted, paymentOrders);
+            })
+            .as(transactionalOperator::transactional)
+            .doOnSuccess(ignored -> accepted.forEach(transition -> transition.result().tryEmitValue(true)))
+            .onErrorResume(error -> {
+                LoggerUtil.error("groupCommit", "failed to flush payment status transitions, retrying one by one", error);
+                return replayIndividually(accepted);
+            })
+            .doFinally(signal -> flushLatency.record(Duration.ofNanos(System.nanoTime() - startedAt)))
+            .then(Mono.defer(() -> deferred.isEmpty() ? Mono.<Void>empty() : flush(deferred)));
+    }
+
+    /**
+     * <h4> 롤백된 배치의 상태 변경을 한 건씩 각자의 트랜잭션으로 다시 처리한다. </h4>
+     * <p> 한 주문의 실패 (아웃박스 저장, 이벤트 발행 실패 등) 때문에 같은 배치에 있던 다른 호출자까지 실패하지 않도록 한다. </p>
+     */
+    private Mono<Void> replayIndividually(List<PendingTransition> transitions) {
+        return Flux.fromIterable(transitions)
+            .concatMap(transition ->
+                           r2dbcPaymentStatusUpdateRepository.updatePaymentStatus(transition.command())
+                               .doOnNext(updated -> transition.result().tryEmitValue(updated))
+                               .doOnError(error -> transition.result().tryEmitError(error))
+                               .onErrorResume(error -> Mono.empty()))
+            .then();
+    }
+
+    private Mono<Map<String, Collection<LockedPaymentOrder>>> lockPaymentOrders(Collection<String> orderIds) {
+        return databaseClient.sql(SELECT_PAYMENT_ORDERS_FOR_UPDATE_QUERY)
+            .bind("orderIds", orderIds)
+            .map((row, metadata) -> new LockedPaymentOrder(
+                row.get(0, Long.class),
+                row.get(1, String.class),
+                PaymentStatus.get(row.get(2, String.class))))
+            .all()
+            .collectMultimap(LockedPaymentOrder::orderId);
+    }
+
+    private RuntimeException validate(PaymentStatusUpdateCommand command, Collection<LockedPaymentOrder> paymentOrders) {
+
+        if (paymentOrders == null || paymentOrders.isEmpty()) {
+            return new PaymentValidationException(String.format("결제 (orderId: %s) 가 존재하지 않습니다.", command.getOrderId()));
+        }
+
+        PaymentStatus previousStatus = paymentOrders.iterator().next().status();
+
+        if (!command.getStatus().allowedPreviousStatuses().contains(previousStatus)) {
+            return PaymentAlreadyProcessedException.rejectedTransition(command.getOrderId(), previousStatus, command.getStatus());
+        }
+
+        return null;
+    }
+
+    private Mono<Void> writeTransitions(List<PendingTransition> accepted, Map<String, Collection<LockedPaymentOrder>> paymentOrders) {
+
+        List<PaymentStatusUpdateCommand> commands = accepted.stream().map(PendingTransition::command).toList();
+        List<PaymentStatusUpdateCommand> succeeded = commands.stream()
+            .filter(command -> command.getStatus() == PaymentStatus.SUCCESS)
+            .toList();
+
+        return insertPaymentHistories(commands, paymentOrders)
+            .then(updatePaymentOrderStatuses(commands))
+            .then(updatePaymentEventExtraDetails(succeeded))
+            .thenMany(Flux.fromIterable(succeeded)
+                          .concatMap(command ->
+                                         paymentOutboxRepository.insertOutbox(command)   // 아웃박스 저장
+                                             .flatMap(paymentEventMessagePublisher::publishEvent)))    // 커밋 이후 즉시 발행
+            .then();
+    }
+
+    private Mono<Long> insertPaymentHistories(List<PaymentStatusUpdateCommand> commands, Map<String, Collection<LockedPaymentOrder>> paymentOrders) {
+
+        List<Object> parameters = new ArrayList<>();
+        List<String> valueClauses = new ArrayList<>();
+
+        for (PaymentStatusUpdateCommand command : commands) {
+            for (LockedPaymentOrder paymentOrder : paymentOrders.get(command.getOrderId())) {
+                valueClauses.add("(?, ?, ?, ?)");
+                parameters.add(paymentOrder.id());
+                parameters.add(paymentOrder.status().name());
+                parameters.add(command.getStatus().name());
+                parameters.add(reason(command));
+            }
+        }
+
+        return execute(String.format(INSERT_PAYMENT_HISTORY_QUERY, String.join(", ", valueClauses)), parameters);
+    }
+
+    private Mono<Long> updatePaymentOrderStatuses(List<PaymentStatusUpdateCommand> commands) {
+
+        List<Object> parameters = new ArrayList<>();
+
+        for (PaymentStatusUpdateCommand command : commands) {
+            parameters.add(command.getOrderId());
+            parameters.add(command.getStatus().name());
+        }
+        String statusCases = String.join(" ", Collections.nCopies(commands.size(), "WHEN ? THEN ?"));
+
+        // UNKNOWN 으로 변경되는 주문만 실패 횟수를 증가시킨다.
+        List<PaymentStatusUpdateCommand> unknowns = commands.stream()
+            .filter(command -> command.getStatus() == PaymentStatus.UNKNOWN)
+            .toList();
+
+        unknowns.forEach(command -> parameters.add(command.getOrderId()));
+        String failedCount = unknowns.isEmpty()
+            ? "failed_count"
+            : "failed_count + CASE order_id " + String.join(" ", Collections.nCopies(unknowns.size(), "WHEN ? THEN 1")) + " ELSE 0 END";
+
+        commands.forEach(command -> parameters.add(command.getOrderId()));
+
+        return execute(
+            String.format(UPDATE_PAYMENT_ORDER_STATUS_QUERY, statusCases, failedCount, placeholders(commands.size())),
+            parameters);
+    }
+
+    private Mono<Long> updatePaymentEventExtraDetails(List<PaymentStatusUpdateCommand> commands) {
+
+        if (commands.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        String cases = String.join(" ", Collections.nCopies(commands.size(), "WHEN ? THEN ?"));
+
+        List<Object> parameters = new ArrayList<>();
+        commands.forEach(command -> parameters.addAll(List.of(command.getOrderId(), command.getExtraDetails().getOrderName())));
+        commands.forEach(command -> parameters.addAll(List.of(command.getOrderId(), command.getExtraDetails().getMethod().name())));
+        commands.forEach(command -> parameters.addAll(List.of(command.getOrderId(), command.getExtraDetails().getApproveAt().toString())));
+        commands.forEach(command -> parameters.addAll(List.of(command.getOrderId(), command.getExtraDetails().getType().name())));
+        commands.forEach(command -> parameters.add(command.getOrderId()));
+
+        return execute(
+            String.format(UPDATE_PAYMENT_EVENT_EXTRA_DETAILS_QUERY, cases, cases, cases, cases, placeholders(commands.size())),
+            parameters);
+    }
+
+    private Mono<Long> execute(String sql, List<Object> parameters) {
+
+        GenericExecuteSpec spec = databaseClient.sql(sql);
+        for (int i = 0; i < parameters.size(); i++) {
+            spec = spec.bind(i, parameters.get(i));
+        }
+
+        return spec.fetch().rowsUpdated();
+    }
+
+    private String placeholders(int size) {
+        return String.join(", ", Collections.nCopies(size, "?"));
+    }
+
+    private String reason(PaymentStatusUpdateCommand command) {
+        return command.getStatus() == PaymentStatus.SUCCESS
+            ? "PAYMENT_CONFIRMATION_DONE"
+            : command.getFailure().toString();
+    }
+
+    private record PendingTransition(PaymentStatusUpdateCommand command, Sinks.One<Boolean> result) {}
+
+    private record LockedPaymentOrder(Long id, String orderId, PaymentStatus status) {}
+}
@@ -0,0 +1,228 @@
+package com.example.paymentservice.payment.adapter.out.persistent.repository;
+
+import com.example.paymentservice.common.ObjectMapperUtil;
+import com.example.paymentservice.payment.adapter.out.persistent.stream.util.PartitionKeyUtil;
+import com.example.paymentservice.payment.adapter.out.persistent.util.MySQLDateTimeFormatter;
+import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdateCommand;
+import com.example.paymentservice.payment.domain.PaymentEventMessage;
+import com.example.paymentservice.payment.domain.PaymentEventMessage.PaymentEventMessageType;
+import com.example.paymentservice.payment.domain.PaymentStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * <h4> 아웃박스 저장소 (jdbc 프로파일) </h4>
+ * <p> R2DBCPaymentOutboxRepository 와 같은 쿼리를 블로킹 JDBC 로 실행한다. </p>
+ * <p> 결제 상태 변경 트랜잭션 안에서는 insertOutbox(jdbcTemplate, command) 로 같은 트랜잭션에 아웃박스를 저장한다. </p>
+ */
+@Primary
+@Repository
+@Profile("jdbc")
+@RequiredArgsConstructor
+public class JDBCPaymentOutboxRepository implements PaymentOutboxRepository {
+
+    private final BlockingJDBCExecutor blockingJDBCExecutor;
+    private final PartitionKeyUtil partitionKeyUtil;
+
+    private static final String INSERT_OUTBOX_QUERY = """
+                                                      INSERT INTO outboxes (idempotency_key, type, partition_key, payload, metadata)
+                                                      VALUES(:idempotencyKey, :type, :partitionKey, :payload, :metadata)
+                                                      """;
+
+    private static final String UPDATE_OUTBOX_MESSAGE_STATUS_QUERY = """
+                                                                     UPDATE outboxes SET status = :status
+                                                                     WHERE idempotency_key = :idempotencyKey
+                                                                     AND type = :type
+                                                                     """;
+
+    private static final String SELECT_PENDING_PAYMENT_OUTBOX_QUERY = """
+                                                                      SELECT payload, metadata
+                                                                      FROM outboxes
+                                                                      WHERE (status = 'INIT' OR status = 'FAILURE')
+                                                                      AND created_at <= :createdAt - INTERVAL 1 MINUTE
+                                                                      AND type = 'PAYMENT_CONFIRMATION_SUCCESS'
+                                                                      """;
+
+    private static final String SELECT_OUTBOX_CHUNK_QUERY = """
+                                                            SELECT id, status, created_at
+                                                            FROM outboxes
+                                                            WHERE id > :lastId
+                                                            ORDER BY id
+                                                            LIMIT :chunkSize
+                                                            """;
+
+    private static final String ARCHIVE_SENT_OUTBOX_QUERY = """
+                                                            INSERT IGNORE INTO outbox_archives
+                                                            SELECT * FROM outboxes
+                                                            WHERE id IN (:ids)
+                                                            AND status = 'SUCCESS'
+                                                            """;
+
+    private static final String DELETE_SENT_OUTBOX_QUERY = """
+                                                           DELETE FROM outboxes
+                                                           WHERE id IN (:ids)
+                                                           AND status = 'SUCCESS'
+                                                           """;
+
+    private static final String SELECT_OLDEST_SENT_OUTBOX_QUERY = """
+                                                                  SELECT created_at
+                                                                  FROM outboxes
+                                                                  WHERE status = 'SUCCESS'
+                                                                  ORDER BY id
+                                                                  LIMIT 1
+                                                                  """;
+
+    @Override
+    public Mono<PaymentEventMessage> insertOutbox(PaymentStatusUpdateCommand command) {
+        return blockingJDBCExecutor.execute(jdbcTemplate -> insertOutbox(jdbcTemplate, command));
+    }
+
+    /**
+     * 호출한 스레드의 트랜잭션 (결제 상태 변경) 안에서 아웃박스를 저장한다.
+     */
+    PaymentEventMessage insertOutbox(NamedParameterJdbcTemplate jdbcTemplate, PaymentStatusUpdateCommand command) {
+
+        if (command.getStatus() != PaymentStatus.SUCCESS) throw new IllegalStateException();
+
+        PaymentEventMessage paymentEventMessage = createPaymentEventMessage(command);
+
+        String payload;
+        String metadata;
+        try {
+            payload = ObjectMapperUtil.getObjectMapper().writeValueAsString(paymentEventMessage.getPayload());
+            metadata = ObjectMapperUtil.getObjectMapper().writeValueAsString(paymentEventMessage.getMetadata());
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+
+        jdbcTemplate.update(INSERT_OUTBOX_QUERY, Map.of(
+            "idempotencyKey", paymentEventMessage.getPayload().get("orderId"),
+            "partitionKey", paymentEventMessage.getMetadata().getOrDefault("partitionKey", 0),
+            "type", paymentEventMessage.getType().name(),
+            "payload", payload,
+            "metadata", metadata));
+
+        return paymentEventMessage;
+    }
+
+    @Override
+    public Mono<Boolean> markMessageAsSent(String idempotencyKey, PaymentEventMessageType type) {
+        return updateMessageStatus(idempotencyKey, type, "SUCCESS");
+    }
+
+    @Override
+    public Mono<Boolean> markMessageAsFailure(String idempotencyKey, PaymentEventMessageType type) {
+        return updateMessageStatus(idempotencyKey, type, "FAILURE");
+    }
+
+    @Override
+    public Flux<PaymentEventMessage> getPendingPaymentOutboxes() {
+        return blockingJDBCExecutor.execute(jdbcTemplate -> jdbcTemplate.query(
+                SELECT_PENDING_PAYMENT_OUTBOX_QUERY,
+                Map.of("createdAt", LocalDateTime.now().format(MySQLDateTimeFormatter.formatter)),
+                (rs, rowNum) -> toPaymentEventMessage(rs.getString(1), rs.getString(2))))
+            .flatMapIterable(messages -> messages);
+    }
+
+    /**
+     * <h4> 전송 완료된 메세지를 청크 단위로 삭제한다. </h4>
+     * <p> R2DBCPaymentOutboxRepository 와 같이 id 순서로 청크를 읽고 보관 기간이 지나지 않은 메세지를 만나면 멈춘다. </p>
+     */
+    @Override
+    public Flux<Long> purgeSentOutboxes(LocalDateTime createdBefore, int chunkSize, Duration chunkInterval, boolean archive) {
+        return purgeChunk(0L, createdBefore, chunkSize, archive)
+            .expand(chunk ->
+                        chunk.reachedEnd()
+                            ? Mono.empty()
+                            : Mono.delay(chunkInterval).then(purgeChunk(chunk.lastId(), createdBefore, chunkSize, archive)))
+            .map(PurgedOutboxChunk::purgedCount);
+    }
+
+    @Override
+    public Mono<LocalDateTime> getOldestSentOutboxCreatedAt() {
+        return blockingJDBCExecutor.execute(jdbcTemplate -> jdbcTemplate.query(
+                SELECT_OLDEST_SENT_OUTBOX_QUERY,
+                Map.of(),
+                (rs, rowNum) -> rs.getTimestamp(1).toLocalDateTime())
+            .stream()
+            .findFirst()
+            .orElse(null));
+    }
+
+    private Mono<Boolean> updateMessageStatus(String idempotencyKey, PaymentEventMessageType type, String status) {
+        return blockingJDBCExecutor.execute(jdbcTemplate -> jdbcTemplate.update(
+                UPDATE_OUTBOX_MESSAGE_STATUS_QUERY,
+                Map.of("status", status, "idempotencyKey", idempotencyKey, "type", type.name())))
+            .thenReturn(true);
+    }
+
+    private Mono<PurgedOutboxChunk> purgeChunk(Long lastId, LocalDateTime createdBefore, int chunkSize, boolean archive) {
+        return blockingJDBCExecutor.execute(jdbcTemplate -> {
+
+            List<OutboxRow> rows = jdbcTemplate.query(
+                SELECT_OUTBOX_CHUNK_QUERY,
+                Map.of("lastId", lastId, "chunkSize", chunkSize),
+                (rs, rowNum) -> new OutboxRow(rs.getLong(1), rs.getString(2), rs.getTimestamp(3).toLocalDateTime()));
+
+            if (rows.isEmpty()) {
+                return new PurgedOutboxChunk(0L, lastId, true);
+            }
+
+            List<Long> ids = rows.stream()
+                .filter(row -> "SUCCESS".equals(row.status()) && row.createdAt().isBefore(createdBefore))
+                .map(OutboxRow::id)
+                .toList();
+
+            boolean reachedEnd = rows.size() < chunkSize
+                || rows.stream().anyMatch(row -> !row.createdAt().isBefore(createdBefore));
+
+            long purgedCount = 0L;
+
+            if (!ids.isEmpty()) {
+
+                if (archive) {
+                    jdbcTemplate.update(ARCHIVE_SENT_OUTBOX_QUERY, Map.of("ids", ids));
+                }
+
+                purgedCount = jdbcTemplate.update(DELETE_SENT_OUTBOX_QUERY, Map.of("ids", ids));
+            }
+
+            return new PurgedOutboxChunk(purgedCount, rows.get(rows.size() - 1).id(), reachedEnd);
+        });
+    }
+
+    private PaymentEventMessage toPaymentEventMessage(String payload, String metadata) {
+        try {
+            return PaymentEventMessage.builder()
+                .type(PaymentEventMessageType.PAYMENT_CONFIRMATION_SUCCESS)
+                .payload(ObjectMapperUtil.getObjectMapper().readValue(payload, new TypeReference<>() {}))
+                .metadata(ObjectMapperUtil.getObjectMapper().readValue(metadata, new TypeReference<>() {}))
+                .build();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to deserialize PaymentEventMessage", e);
+        }
+    }
+
+    private PaymentEventMessage createPaymentEventMessage(PaymentStatusUpdateCommand command) {
+        return PaymentEventMessage.builder()
+            .type(PaymentEventMessageType.PAYMENT_CONFIRMATION_SUCCESS)
+            .payload(Map.of("orderId", command.getOrderId()))
+            .metadata(Map.of("partitionKey", partitionKeyUtil.createPartitionKey(command.getOrderId().hashCode())))
+            .build();
+    }
+
+    private record OutboxRow(Long id, String status, LocalDateTime createdAt) {}
+
+    private record PurgedOutboxChunk(Long purgedCount, Long lastId, boolean reachedEnd) {}
+}
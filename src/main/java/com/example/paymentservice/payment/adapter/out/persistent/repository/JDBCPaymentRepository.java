@@ -0,0 +1,187 @@
+package com.example.paymentservice.payment.adapter.out.persistent.repository;
+
+import com.example.paymentservice.payment.adapter.out.persistent.repository.R2DBCPaymentRepository.PendingPaymentRow;
+import com.example.paymentservice.payment.adapter.out.persistent.util.MySQLDateTimeFormatter;
+import com.example.paymentservice.payment.domain.PaymentEvent;
+import com.example.paymentservice.payment.domain.PaymentOrder;
+import com.example.paymentservice.payment.domain.PaymentStatus;
+import com.example.paymentservice.payment.domain.PendingPaymentEvent;
+import com.example.paymentservice.payment.domain.PendingPaymentOrder;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.CollectionUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * JDBC (jdbc 프로파일)
+ * - R2DBCPaymentRepository 와 같은 쿼리를 블로킹 JDBC 로 실행한다.
+ * 장점: 트랜잭션이 스레드에 바인딩되는 익숙한 모델이고, JDBC 드라이버의 배치 (rewriteBatchedStatements) 를 그대로 사용할 수 있다.
+ * 단점: 쿼리가 실행되는 동안 스레드를 점유하기 때문에 동시에 실행할 수 있는 쿼리 수가 스레드 수 (= 커넥션 풀 크기) 로 제한된다.
+ */
+@Primary
+@Repository
+@Profile("jdbc")
+@RequiredArgsConstructor
+public class JDBCPaymentRepository implements PaymentRepository {
+
+    private final BlockingJDBCExecutor blockingJDBCExecutor;
+
+    // 한 번에 조회할 미처리 결제 주문 수
+    @Value("${payment.recovery.page-size:100}")
+    private final int pageSize;
+
+    private static final String INSERT_PAYMENT_EVENT_QUERY = """
+    INSERT INTO payment_events (buyer_id, order_name, order_id) VALUES(:buyerId, :orderName, :orderId)
+    """;
+
+    private static final String INSERT_PAYMENT_ORDER_QUERY = """
+    INSERT INTO payment_orders
+    (payment_event_id, seller_id, order_id, product_id, amount, payment_order_status)
+    VALUES (:paymentEventId, :sellerId, :orderId, :productId, :amount, :status)
+    """;
+
+    private static final String SELECT_PENDING_PAYMENT_QUERY = """
+                                                                SELECT pe.id as payment_event_id, pe.payment_key, pe.order_id, po.id as payment_order_id, po.payment_order_status, po.amount, po.failed_count, po.threshold, pe.psp_executor
+                                                                FROM payment_events pe
+                                                                INNER JOIN payment_orders po ON po.payment_event_id = pe.id
+                                                                WHERE (po.payment_order_status = 'UNKNOWN' OR po.payment_order_status = 'EXECUTING' AND po.updated_at <= :updatedAt - INTERVAL 3 MINUTE)
+                                                                AND po.failed_count < po.threshold
+                                                                AND (po.payment_event_id > :lastPaymentEventId OR (po.payment_event_id = :lastPaymentEventId AND po.id > :lastPaymentOrderId))
+                                                                ORDER BY po.payment_event_id, po.id
+                                                                LIMIT :pageSize
+                                                                """;
+
+    /**
+     * <h4> 결제 이벤트와 주문을 하나의 트랜잭션으로 저장한다. </h4>
+     * <p> 주문들은 JDBC 배치 한 번으로 저장한다. </p>
+     */
+    @Override
+    public Mono<Void> save(PaymentEvent paymentEvent) {
+        return blockingJDBCExecutor.transactional(jdbcTemplate -> {
+
+                Long paymentEventId = insertPaymentEvent(jdbcTemplate, paymentEvent);
+                insertPaymentOrders(jdbcTemplate, paymentEvent, paymentEventId);
+
+                return paymentEventId;
+            })
+            .then();
+    }
+
+    /**
+     * <h4> 미처리 결제를 키셋 페이지 단위로 스트리밍한다. </h4>
+     * <p> R2DBCPaymentRepository 와 같이 구독자가 소비하지 않은 페이지는 최대 하나만 미리 조회한다. </p>
+     */
+    @Override
+    public Flux<PendingPaymentEvent> getPendingPayments() {
+
+        // 스캔 도중 기준 시각이 바뀌면 처리 중인 주문이 다시 조회될 수 있으므로 스캔 시작 시점으로 고정한다.
+        String updatedAt = LocalDateTime.now().format(MySQLDateTimeFormatter.formatter);
+
+        return getPendingPaymentPage(updatedAt, 0L, 0L)
+            .expand(page -> {
+
+                if (page.size() < pageSize) {
+                    return Mono.empty();
+                }
+
+                PendingPaymentRow last = page.get(page.size() - 1);
+                return getPendingPaymentPage(updatedAt, last.paymentEventId(), last.paymentOrderId());
+            })
+            .flatMapIterable(Function.identity(), 1)
+            .bufferUntilChanged(PendingPaymentRow::paymentEventId)
+            .map(this::toPendingPaymentEvent);
+    }
+
+    private Mono<List<PendingPaymentRow>> getPendingPaymentPage(String updatedAt, Long lastPaymentEventId, Long lastPaymentOrderId) {
+        return blockingJDBCExecutor.execute(jdbcTemplate -> jdbcTemplate.query(
+            SELECT_PENDING_PAYMENT_QUERY,
+            Map.of(
+                "updatedAt", updatedAt,
+                "lastPaymentEventId", lastPaymentEventId,
+                "lastPaymentOrderId", lastPaymentOrderId,
+                "pageSize", pageSize),
+            (rs, rowNum) -> new PendingPaymentRow(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getLong(4),
+                rs.getString(5),
+                rs.getBigDecimal(6),
+                rs.getByte(7),
+                rs.getByte(8),
+                rs.getString(9))));
+    }
+
+    private PendingPaymentEvent toPendingPaymentEvent(List<PendingPaymentRow> rows) {
+
+        PendingPaymentRow first = rows.get(0);
+
+        return PendingPaymentEvent.builder()
+            .paymentEventId(first.paymentEventId())
+            .paymentKey(first.paymentKey())
+            .orderId(first.orderId())
+            .pspExecutor(first.pspExecutor())
+            .pendingPaymentOrders(
+                rows.stream()
+                    .map(r ->
+                             PendingPaymentOrder.builder()
+                                 .paymentOrderId(r.paymentOrderId())
+                                 .status(PaymentStatus.get(r.paymentOrderStatus()))
+                                 .amount(r.amount().longValue())
+                                 .failedCount(r.failedCount())
+                                 .threshold(r.threshold())
+                                 .build())
+                    .toList())
+            .build();
+    }
+
+    private Long insertPaymentEvent(NamedParameterJdbcTemplate jdbcTemplate, PaymentEvent paymentEvent) {
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.update(
+            INSERT_PAYMENT_EVENT_QUERY,
+            new MapSqlParameterSource()
+                .addValue("buyerId", paymentEvent.getBuyerId())
+                .addValue("orderName", paymentEvent.getOrderName())
+                .addValue("orderId", paymentEvent.getOrderId()),
+            keyHolder,
+            new String[] {"id"});
+
+        return keyHolder.getKey().longValue();
+    }
+
+    private void insertPaymentOrders(NamedParameterJdbcTemplate jdbcTemplate, PaymentEvent paymentEvent, Long paymentEventId) {
+
+        List<PaymentOrder> paymentOrders = paymentEvent.getPaymentOrders();
+
+        if (CollectionUtils.isEmpty(paymentOrders)) {
+            return;
+        }
+
+        SqlParameterSource[] batch = paymentOrders.stream()
+            .map(paymentOrder -> new MapSqlParameterSource()
+                .addValue("paymentEventId", paymentEventId)
+                .addValue("sellerId", paymentOrder.getSellerId())
+                .addValue("orderId", paymentOrder.getOrderId())
+                .addValue("productId", paymentOrder.getProductId())
+                .addValue("amount", paymentOrder.getAmount())
+                .addValue("status", paymentOrder.getPaymentStatus().name()))
+            .toArray(SqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate(INSERT_PAYMENT_ORDER_QUERY, batch);
+    }
+}
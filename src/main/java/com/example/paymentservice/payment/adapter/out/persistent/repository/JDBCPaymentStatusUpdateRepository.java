@@ -0,0 +1,199 @@
+package com.example.paymentservice.payment.adapter.out.persistent.repository;
+
+import com.example.paymentservice.payment.adapter.out.persistent.exception.PaymentAlreadyProcessedException;
+import com.example.paymentservice.payment.adapter.out.persistent.exception.PaymentValidationException;
+import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdateCommand;
+import com.example.paymentservice.payment.domain.PaymentEventMessage;
+import com.example.paymentservice.payment.domain.PaymentStatus;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * <h4> 결제 상태 변경 (Compare-And-Set, jdbc 프로파일) </h4>
+ * <p> R2DBCPaymentStatusUpdateRepository 와 같은 쿼리 (히스토리 INSERT ... SELECT ... FOR UPDATE -> 조건부 UPDATE) 를 하나의 JDBC 트랜잭션으로 실행한다. </p>
+ * <p> SUCCESS 로 변경할 때는 같은 트랜잭션에서 아웃박스를 저장하고, 메세지는 커밋 이후 @TransactionalEventListener 로 발행된다. </p>
+ */
+@Primary
+@Repository
+@Profile("jdbc")
+@RequiredArgsConstructor
+public class JDBCPaymentStatusUpdateRepository implements PaymentStatusUpdateRepository {
+
+    private final BlockingJDBCExecutor blockingJDBCExecutor;
+    private final JDBCPaymentOutboxRepository jdbcPaymentOutboxRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private static final String SELECT_PAYMENT_ORDER_STATUS_QUERY = """
+                                                                    SELECT payment_order_status FROM payment_orders
+                                                                    WHERE order_id = :orderId
+                                                                    LIMIT 1
+                                                                    """;
+
+    private static final String INSERT_PAYMENT_HISTORY_QUERY = """
+                                                               INSERT INTO payment_order_histories
+                                                               (payment_order_id, previous_status, new_status, reason)
+                                                               SELECT id, payment_order_status, :newStatus, :reason
+                                                               FROM payment_orders
+                                                               WHERE order_id = :orderId
+                                                               AND payment_order_status IN (:allowedStatuses)
+                                                               FOR UPDATE
+                                                               """;
+
+    // 한 번 기록된 PSP 는 바꾸지 않는다. (Idempotency-Key 는 PSP 별로만 유효하기 때문에 다른 PSP 로 보내면 중복 승인될 수 있다.)
+    private static final String UPDATE_PAYMENT_STATUS_TO_EXECUTING_QUERY = """
+                                                                           UPDATE payment_orders po
+                                                                           INNER JOIN payment_events pe ON pe.id = po.payment_event_id
+                                                                           SET po.payment_order_status = :status, po.updated_at = CURRENT_TIMESTAMP, pe.payment_key = :paymentKey,
+                                                                               pe.psp_executor = COALESCE(pe.psp_executor, :pspExecutor)
+                                                                           WHERE po.order_id = :orderId
+                                                                           AND po.payment_order_status IN (:allowedStatuses)
+                                                                           """;
+
+    private static final String SELECT_PSP_EXECUTOR_QUERY = """
+                                                            SELECT psp_executor FROM payment_events
+                                                            WHERE order_id = :orderId
+                                                            """;
+
+    private static final String UPDATE_PAYMENT_STATUS_TO_SUCCESS_QUERY = """
+                                                                         UPDATE payment_orders po
+                                                                         INNER JOIN payment_events pe ON pe.id = po.payment_event_id
+                                                                         SET po.payment_order_status = :status, po.updated_at = CURRENT_TIMESTAMP,
+                                                                             pe.order_name = :orderName, pe.method = :method, pe.approved_at = :approvedAt, pe.type = :type, pe.updated_at = CURRENT_TIMESTAMP
+                                                                         WHERE po.order_id = :orderId
+                                                                         AND po.payment_order_status IN (:allowedStatuses)
+                                                                         """;
+
+    private static final String UPDATE_PAYMENT_STATUS_TO_FAILURE_QUERY = """
+                                                                         UPDATE payment_orders
+                                                                         SET payment_order_status = :status, updated_at = CURRENT_TIMESTAMP
+                                                                         WHERE order_id = :orderId
+                                                                         AND payment_order_status IN (:allowedStatuses)
+                                                                         """;
+
+    private static final String UPDATE_PAYMENT_STATUS_TO_UNKNOWN_QUERY = """
+                                                                         UPDATE payment_orders
+                                                                         SET payment_order_status = :status, updated_at = CURRENT_TIMESTAMP, failed_count = failed_count + 1
+                                                                         WHERE order_id = :orderId
+                                                                         AND payment_order_status IN (:allowedStatuses)
+                                                                         """;
+
+    @Override
+    public Mono<String> updatePaymentStatusToExecuting(String paymentKey, String orderId, Supplier<String> pspExecutorSelector) {
+        return blockingJDBCExecutor.transactional(jdbcTemplate -> {
+
+            transition(jdbcTemplate, orderId, PaymentStatus.EXECUTING, "PAYMENT_CONFIRMATION_START");
+
+            // 주문을 잠근 상태에서 기록된 PSP 를 읽고, 없을 때만 새로 고른다.
+            String pspExecutor = Optional.ofNullable(jdbcTemplate.queryForObject(SELECT_PSP_EXECUTOR_QUERY, Map.of("orderId", orderId), String.class))
+                .orElseGet(pspExecutorSelector);
+
+            jdbcTemplate.update(UPDATE_PAYMENT_STATUS_TO_EXECUTING_QUERY,
+                                guardedUpdateParameters(orderId, PaymentStatus.EXECUTING)
+                                    .addValue("paymentKey", paymentKey)
+                                    .addValue("pspExecutor", pspExecutor));
+
+            return pspExecutor;
+        });
+    }
+
+    @Override
+    public Mono<Boolean> updatePaymentStatus(PaymentStatusUpdateCommand command) {
+
+        switch (command.getStatus()) {
+            case SUCCESS -> { return updatePaymentStatusToSuccess(command); }
+            case FAILURE -> { return updatePaymentStatus(command, UPDATE_PAYMENT_STATUS_TO_FAILURE_QUERY); }
+            case UNKNOWN -> { return updatePaymentStatus(command, UPDATE_PAYMENT_STATUS_TO_UNKNOWN_QUERY); }
+            default -> throw new IllegalStateException(
+                String.format("결제 상태 (status: %s) 는 올바르지 않은 결제 상태입니다.", command.getStatus()));
+        }
+    }
+
+    private Mono<Boolean> updatePaymentStatusToSuccess(PaymentStatusUpdateCommand command) {
+        return blockingJDBCExecutor.transactional(jdbcTemplate -> {
+
+            transition(jdbcTemplate, command.getOrderId(), command.getStatus(), "PAYMENT_CONFIRMATION_DONE");
+            jdbcTemplate.update(UPDATE_PAYMENT_STATUS_TO_SUCCESS_QUERY,
+                                guardedUpdateParameters(command.getOrderId(), command.getStatus())
+                                    .addValue("orderName", command.getExtraDetails().getOrderName())
+                                    .addValue("method", command.getExtraDetails().getMethod().name())
+                                    .addValue("approvedAt", command.getExtraDetails().getApproveAt().toString())
+                                    .addValue("type", command.getExtraDetails().getType().name()));
+
+            // 이벤트에 실패한 메시지들을 스케줄링으로 재발행하기 위한 아웃박스 패턴
+            PaymentEventMessage paymentEventMessage = jdbcPaymentOutboxRepository.insertOutbox(jdbcTemplate, command);
+            // 현재 스레드의 트랜잭션이 커밋된 이후에 발행된다.
+            applicationEventPublisher.publishEvent(paymentEventMessage);
+
+            return true;
+        });
+    }
+
+    private Mono<Boolean> updatePaymentStatus(PaymentStatusUpdateCommand command, String sql) {
+        return blockingJDBCExecutor.transactional(jdbcTemplate -> {
+
+            transition(jdbcTemplate, command.getOrderId(), command.getStatus(), command.getFailure().toString());
+            jdbcTemplate.update(sql, guardedUpdateParameters(command.getOrderId(), command.getStatus()));
+
+            return true;
+        });
+    }
+
+    /**
+     * <h4> 변경 가능한 주문들을 잠그고 히스토리를 남긴다. </h4>
+     * <p> 히스토리가 한 건도 생성되지 않았다면 변경할 수 없는 상태이므로 현재 상태를 조회해서 예외를 발생시킨다. (트랜잭션은 롤백된다.) </p>
+     */
+    private void transition(NamedParameterJdbcTemplate jdbcTemplate, String orderId, PaymentStatus status, String reason) {
+
+        int transitioned = jdbcTemplate.update(
+            INSERT_PAYMENT_HISTORY_QUERY,
+            new MapSqlParameterSource()
+                .addValue("newStatus", status.name())
+                .addValue("reason", reason)
+                .addValue("orderId", orderId)
+                .addValue("allowedStatuses", allowedStatuses(status)));
+
+        if (transitioned > 0) {
+            return;
+        }
+
+        PaymentStatus previousStatus = jdbcTemplate.query(
+                SELECT_PAYMENT_ORDER_STATUS_QUERY,
+                Map.of("orderId", orderId),
+                (rs, rowNum) -> PaymentStatus.get(rs.getString(1)))
+            .stream()
+            .findFirst()
+            .orElseThrow(() -> new PaymentValidationException(
+                String.format("결제 (orderId: %s) 가 존재하지 않습니다.", orderId)));
+
+        throw PaymentAlreadyProcessedException.rejectedTransition(orderId, previousStatus, status);
+    }
+
+    private MapSqlParameterSource guardedUpdateParameters(String orderId, PaymentStatus status) {
+        return new MapSqlParameterSource()
+            .addValue("status", status.name())
+            .addValue("orderId", orderId)
+            .addValue("allowedStatuses", allowedStatuses(status));
+    }
+
+    private List<String> allowedStatuses(PaymentStatus status) {
+
+        if (status.allowedPreviousStatuses().isEmpty()) {
+            throw new IllegalStateException(
+                String.format("결제 상태 (status: %s) 로는 변경할 수 없습니다.", status));
+        }
+
+        return status.allowedPreviousStatuses().stream()
+            .map(PaymentStatus::name)
+            .toList();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.paymentservice.payment.adapter.out.persistent.repository;
+
+import com.example.paymentservice.payment.adapter.out.persistent.exception.PaymentValidationException;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Primary
+@Repository
+@Profile("jdbc")
+@RequiredArgsConstructor
+public class JDBCPaymentValidationRepository implements PaymentValidationRepository {
+
+    private final BlockingJDBCExecutor blockingJDBCExecutor;
+
+    private static final String SELECT_PAYMENT_TOTAL_AMOUNT_QUERY = """
+                                                                    SELECT SUM(amount) as total_amount
+                                                                    FROM payment_orders
+                                                                    WHERE order_id = :orderId
+                                                                    HAVING COUNT(*) > 0
+                                                                    """;
+
+    @Override
+    public Mono<Boolean> isValid(String orderId, Long amount) {
+        return blockingJDBCExecutor.execute(jdbcTemplate -> jdbcTemplate.query(
+                SELECT_PAYMENT_TOTAL_AMOUNT_QUERY,
+                Map.of("orderId", orderId),
+                // 주문이 없다면 HAVING 조건으로 행이 조회되지 않기 때문에 SUM 결과는 항상 null 이 아니다.
+                (rs, rowNum) -> rs.getBigDecimal(1).longValue())
+            .stream()
+            .findFirst()
+            .orElse(null))
+            .filter(totalAmount -> totalAmount.equals(amount))
+            .switchIfEmpty(Mono.error(() ->
+                new PaymentValidationException(
+                    String.format("결제 (orderId: %s) 에서 금액 (amount: %d)이 올바르지 않습니다.", orderId, amount))))
+            .thenReturn(true);
+    }
+}
@@ -3,6 +3,8 @@ package com.example.paymentservice.payment.adapter.out.persistent.repository;
 import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdateCommand;
 import com.example.paymentservice.payment.domain.PaymentEventMessage;
 import com.example.paymentservice.payment.domain.PaymentEventMessage.PaymentEventMessageType;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -16,4 +18,9 @@ public interface PaymentOutboxRepository {
     Mono<Boolean> markMessageAsFailure(String idempotencyKey, PaymentEventMessageType type);
 
     Flux<PaymentEventMessage> getPendingPaymentOutboxes();
+
+    // 전송 완료된 메세지를 청크 단위로 삭제하고 청크마다 삭제된 메세지 수를 발행한다.
+    Flux<Long> purgeSentOutboxes(LocalDateTime createdBefore, int chunkSize, Duration chunkInterval, boolean archive);
+
+    Mono<LocalDateTime> getOldestSentOutboxCreatedAt();
 }
\ No newline at end of file
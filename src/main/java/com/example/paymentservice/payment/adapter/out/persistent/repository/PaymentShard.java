@@ -0,0 +1,13 @@
+package com.example.paymentservice.payment.adapter.out.persistent.repository;
+
+/**
+ * <h4> 하나의 샤드 (데이터베이스) 에 연결된 저장소 묶음 </h4>
+ * <p> 같은 주문의 결제, 상태 변경, 아웃박스는 항상 같은 샤드에 저장되므로 하나의 로컬 트랜잭션으로 처리된다. </p>
+ */
+public record PaymentShard(
+    int index,
+    PaymentRepository paymentRepository,
+    PaymentStatusUpdateRepository paymentStatusUpdateRepository,
+    PaymentValidationRepository paymentValidationRepository,
+    PaymentOutboxRepository paymentOutboxRepository
+) {}
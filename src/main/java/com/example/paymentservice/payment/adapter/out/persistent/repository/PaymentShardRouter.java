@@ -0,0 +1,47 @@
+package com.example.paymentservice.payment.adapter.out.persistent.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+/**
+ * <h4> orderId 기반 샤드 라우터 </h4>
+ * <p> orderId 의 CRC32 해시를 샤드 수로 나눈 나머지로 샤드를 결정한다. (JVM 이나 인스턴스가 달라도 항상 같은 샤드로 라우팅된다.) </p>
+ * <p> 샤드 수를 변경하면 기존 주문의 샤드가 바뀌기 때문에 샤드를 추가할 때는 데이터 재배치가 필요하다. </p>
+ */
+public class PaymentShardRouter {
+
+    private final List<PaymentShard> shards;
+
+    public PaymentShardRouter(List<PaymentShard> shards) {
+
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("샤드는 최소 하나 이상이어야 합니다.");
+        }
+
+        this.shards = List.copyOf(shards);
+    }
+
+    public PaymentShard route(String orderId) {
+
+        CRC32 crc32 = new CRC32();
+        crc32.update(orderId.getBytes(StandardCharsets.UTF_8));
+
+        return shards.get((int) (crc32.getValue() % shards.size()));
+    }
+
+    /**
+     * <h4> 모든 샤드에 같은 조회를 실행하고 결과를 합친다. </h4>
+     * <p> 샤드마다 한 건씩만 미리 요청해서 구독자가 소비하는 속도 이상으로 샤드의 데이터를 당겨오지 않는다. </p>
+     */
+    public <T> Flux<T> fanOut(Function<PaymentShard, Publisher<T>> query) {
+        return Flux.merge(Flux.fromIterable(shards).map(query), shards.size(), 1);
+    }
+
+    public int size() {
+        return shards.size();
+    }
+}
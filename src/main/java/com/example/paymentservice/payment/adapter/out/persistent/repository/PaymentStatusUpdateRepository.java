@@ -1,11 +1,12 @@
 package com.example.paymentservice.payment.adapter.out.persistent.repository;
 
 import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdateCommand;
+import java.util.function.Supplier;
 import reactor.core.publisher.Mono;
 
 public interface PaymentStatusUpdateRepository {
 
-    Mono<Boolean> updatePaymentStatusToExecuting(String paymentKey, String orderId);
+    Mono<String> updatePaymentStatusToExecuting(String paymentKey, String orderId, Supplier<String> pspExecutorSelector);
 
     Mono<Boolean> updatePaymentStatus(PaymentStatusUpdateCommand command);
 
@@ -1,6 +1,7 @@
 package com.example.paymentservice.payment.adapter.out.persistent.repository;
 
 import com.example.paymentservice.common.ObjectMapperUtil;
+import com.example.paymentservice.payment.adapter.out.persistent.config.QueryRoute;
 import com.example.paymentservice.payment.adapter.out.persistent.stream.util.PartitionKeyUtil;
 import com.example.paymentservice.payment.adapter.out.persistent.util.MySQLDateTimeFormatter;
 import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdateCommand;
@@ -9,9 +10,12 @@ import com.example.paymentservice.payment.domain.PaymentEventMessage.PaymentEven
 import com.example.paymentservice.payment.domain.PaymentStatus;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -24,6 +28,11 @@ public class R2DBCPaymentOutboxRepository implements PaymentOutboxRepository {
     private final DatabaseClient databaseClient;
     private final PartitionKeyUtil partitionKeyUtil;
 
+    // 발행 결과 기록과 미발행 메세지 조회는 실시간 요청의 커넥션을 점유하지 않도록 백그라운드 풀을 사용한다.
+    // (아웃박스 저장은 결제 상태 변경과 같은 트랜잭션이어야 하므로 기본 풀을 사용한다.)
+    @Qualifier("backgroundDatabaseClient")
+    private final DatabaseClient backgroundDatabaseClient;
+
 
     private static final String INSERT_OUTBOX_QUERY = """
                                                       INSERT INTO outboxes (idempotency_key, type, partition_key, payload, metadata)
@@ -43,13 +52,45 @@ public class R2DBCPaymentOutboxRepository implements PaymentOutboxRepository {
                                                                       """;
 
     private static final String SELECT_PENDING_PAYMENT_OUTBOX_QUERY = """
-                                                                      SELECT * 
+                                                                      SELECT payload, metadata
                                                                       FROM outboxes
                                                                       WHERE (status = 'INIT' OR status = 'FAILURE') 
                                                                       AND created_at <= :createdAt - INTERVAL 1 MINUTE
                                                                       AND type = 'PAYMENT_CONFIRMATION_SUCCESS'
                                                                       """;
 
+    // 보관 기간 관리는 PK 범위로만 조회해서 status, created_at 인덱스 없이도 청크마다 chunkSize 만큼의 행만 읽는다.
+    private static final String SELECT_OUTBOX_CHUNK_QUERY = """
+                                                            SELECT id, status, created_at
+                                                            FROM outboxes
+                                                            WHERE id > :lastId
+                                                            ORDER BY id
+                                                            LIMIT :chunkSize
+                                                            """;
+
+    // 보관 테이블 (outbox_archives) 은 outboxes 와 같은 컬럼 구조여야 한다.
+    // 보관 후 삭제 전에 중단되더라도 다음 실행에서 다시 보관할 수 있도록 INSERT IGNORE 를 사용한다.
+    private static final String ARCHIVE_SENT_OUTBOX_QUERY = """
+                                                            INSERT IGNORE INTO outbox_archives
+                                                            SELECT * FROM outboxes
+                                                            WHERE id IN (:ids)
+                                                            AND status = 'SUCCESS'
+                                                            """;
+
+    private static final String DELETE_SENT_OUTBOX_QUERY = """
+                                                           DELETE FROM outboxes
+                                                           WHERE id IN (:ids)
+                                                           AND status = 'SUCCESS'
+                                                           """;
+
+    private static final String SELECT_OLDEST_SENT_OUTBOX_QUERY = """
+                                                                  SELECT created_at
+                                                                  FROM outboxes
+                                                                  WHERE status = 'SUCCESS'
+                                                                  ORDER BY id
+                                                                  LIMIT 1
+                                                                  """;
+
     @Override
     public Mono<PaymentEventMessage> insertOutbox(PaymentStatusUpdateCommand command) {
 
@@ -79,7 +120,7 @@ public class R2DBCPaymentOutboxRepository implements PaymentOutboxRepository {
 
     @Override
     public Mono<Boolean> markMessageAsSent(String idempotencyKey, PaymentEventMessageType type) {
-        return databaseClient.sql(UPDATE_OUTBOX_MESSAGE_AS_SENT_QUERY)
+        return backgroundDatabaseClient.sql(UPDATE_OUTBOX_MESSAGE_AS_SENT_QUERY)
             .bind("idempotencyKey", idempotencyKey)
             .bind("type", type.name())
             .fetch()
@@ -89,7 +130,7 @@ public class R2DBCPaymentOutboxRepository implements PaymentOutboxRepository {
 
     @Override
     public Mono<Boolean> markMessageAsFailure(String idempotencyKey, PaymentEventMessageType type) {
-        return databaseClient.sql(UPDATE_OUTBOX_MESSAGE_AS_FAILURE_QUERY)
+        return backgroundDatabaseClient.sql(UPDATE_OUTBOX_MESSAGE_AS_FAILURE_QUERY)
             .bind("idempotencyKey", idempotencyKey)
             .bind("type", type.name())
             .fetch()
@@ -99,21 +140,93 @@ public class R2DBCPaymentOutboxRepository implements PaymentOutboxRepository {
 
     @Override
     public Flux<PaymentEventMessage> getPendingPaymentOutboxes() {
-        return databaseClient.sql(SELECT_PENDING_PAYMENT_OUTBOX_QUERY)
+        return backgroundDatabaseClient.sql(SELECT_PENDING_PAYMENT_OUTBOX_QUERY)
             .bind("createdAt", LocalDateTime.now().format(MySQLDateTimeFormatter.formatter))
-            .fetch()
+            .map((row, metadata) -> toPaymentEventMessage(row.get(0, String.class), row.get(1, String.class)))
+            .all()
+            // 메세지는 멱등키와 함께 발행되므로 복제 지연으로 이미 발행된 메세지가 다시 조회되더라도 복제본에서 조회한다.
+            .contextWrite(QueryRoute.REPLICA.context());
+    }
+
+    /**
+     * <h4> 전송 완료된 메세지를 청크 단위로 삭제한다. </h4>
+     * <p> id 순서로 chunkSize 만큼 읽어서 보관 기간이 지난 SUCCESS 메세지만 삭제하고, 다음 청크는 chunkInterval 이후에 마지막 id 다음부터 읽는다. </p>
+     * <p> id 는 생성 순서와 같기 때문에 보관 기간이 지나지 않은 메세지를 만나면 그 이후는 읽지 않는다. </p>
+     * <p> 각 쿼리는 트랜잭션 없이 짧게 실행되므로 락을 오래 잡지 않는다. </p>
+     */
+    @Override
+    public Flux<Long> purgeSentOutboxes(LocalDateTime createdBefore, int chunkSize, Duration chunkInterval, boolean archive) {
+        return purgeChunk(0L, createdBefore, chunkSize, archive)
+            .expand(chunk ->
+                        chunk.reachedEnd()
+                            ? Mono.empty()
+                            : Mono.delay(chunkInterval).then(purgeChunk(chunk.lastId(), createdBefore, chunkSize, archive)))
+            .map(PurgedOutboxChunk::purgedCount);
+    }
+
+    @Override
+    public Mono<LocalDateTime> getOldestSentOutboxCreatedAt() {
+        return backgroundDatabaseClient.sql(SELECT_OLDEST_SENT_OUTBOX_QUERY)
+            .map((row, metadata) -> row.get(0, LocalDateTime.class))
+            .first();
+    }
+
+    private Mono<PurgedOutboxChunk> purgeChunk(Long lastId, LocalDateTime createdBefore, int chunkSize, boolean archive) {
+        return backgroundDatabaseClient.sql(SELECT_OUTBOX_CHUNK_QUERY)
+            .bind("lastId", lastId)
+            .bind("chunkSize", chunkSize)
+            .map((row, metadata) -> new OutboxRow(
+                row.get(0, Long.class),
+                row.get(1, String.class),
+                row.get(2, LocalDateTime.class)))
             .all()
-            .handle((row, sink) -> {
-                     try {
-                         sink.next(PaymentEventMessage.builder()
-                                       .type(PaymentEventMessageType.PAYMENT_CONFIRMATION_SUCCESS)
-                                       .payload(ObjectMapperUtil.getObjectMapper().readValue((String) row.get("payload"), new TypeReference<>() {}))
-                                       .metadata(ObjectMapperUtil.getObjectMapper().readValue((String) row.get("metadata"), new TypeReference<>() {}))
-                                       .build());
-                     } catch (JsonProcessingException e) {
-                         sink.error(new RuntimeException("Failed to deserialize PaymentEventMessage", e));
-                     }
-                 });
+            .collectList()
+            .flatMap(rows -> {
+
+                if (rows.isEmpty()) {
+                    return Mono.just(new PurgedOutboxChunk(0L, lastId, true));
+                }
+
+                List<Long> ids = rows.stream()
+                    .filter(row -> "SUCCESS".equals(row.status()) && row.createdAt().isBefore(createdBefore))
+                    .map(OutboxRow::id)
+                    .toList();
+
+                boolean reachedEnd = rows.size() < chunkSize
+                    || rows.stream().anyMatch(row -> !row.createdAt().isBefore(createdBefore));
+
+                return deleteSentOutboxes(ids, archive)
+                    .map(purgedCount -> new PurgedOutboxChunk(purgedCount, rows.get(rows.size() - 1).id(), reachedEnd));
+            });
+    }
+
+    private Mono<Long> deleteSentOutboxes(List<Long> ids, boolean archive) {
+
+        if (ids.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        Mono<Long> archiveOutboxes = archive
+            ? backgroundDatabaseClient.sql(ARCHIVE_SENT_OUTBOX_QUERY).bind("ids", ids).fetch().rowsUpdated()
+            : Mono.just(0L);
+
+        return archiveOutboxes
+            .then(backgroundDatabaseClient.sql(DELETE_SENT_OUTBOX_QUERY)
+                      .bind("ids", ids)
+                      .fetch()
+                      .rowsUpdated());
+    }
+
+    private PaymentEventMessage toPaymentEventMessage(String payload, String metadata) {
+        try {
+            return PaymentEventMessage.builder()
+                .type(PaymentEventMessageType.PAYMENT_CONFIRMATION_SUCCESS)
+                .payload(ObjectMapperUtil.getObjectMapper().readValue(payload, new TypeReference<>() {}))
+                .metadata(ObjectMapperUtil.getObjectMapper().readValue(metadata, new TypeReference<>() {}))
+                .build();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to deserialize PaymentEventMessage", e);
+        }
     }
 
     private PaymentEventMessage createPaymentEventMessage(PaymentStatusUpdateCommand command) {
@@ -123,4 +236,8 @@ public class R2DBCPaymentOutboxRepository implements PaymentOutboxRepository {
             .metadata(Map.of("partitionKey", partitionKeyUtil.createPartitionKey(command.getOrderId().hashCode())))
             .build();
     }
+
+    private record OutboxRow(Long id, String status, LocalDateTime createdAt) {}
+
+    private record PurgedOutboxChunk(Long purgedCount, Long lastId, boolean reachedEnd) {}
 }
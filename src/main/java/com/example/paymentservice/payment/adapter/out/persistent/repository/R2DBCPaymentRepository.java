@@ -1,19 +1,27 @@
 package com.example.paymentservice.payment.adapter.out.persistent.repository;
 
+import com.example.paymentservice.payment.adapter.out.persistent.config.QueryRoute;
 import com.example.paymentservice.payment.adapter.out.persistent.util.MySQLDateTimeFormatter;
 import com.example.paymentservice.payment.domain.PaymentEvent;
+import com.example.paymentservice.payment.domain.PaymentOrder;
 import com.example.paymentservice.payment.domain.PaymentStatus;
 import com.example.paymentservice.payment.domain.PendingPaymentEvent;
 import com.example.paymentservice.payment.domain.PendingPaymentOrder;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
 import java.math.BigDecimal;
-import java.math.BigInteger;
 import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.util.CollectionUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -31,98 +39,186 @@ public class R2DBCPaymentRepository implements PaymentRepository {
     private final DatabaseClient databaseClient;
     private final TransactionalOperator transactionalOperator;
 
+    // 복구 스캔은 실시간 요청의 커넥션을 점유하지 않도록 백그라운드 풀을 사용한다.
+    @Qualifier("backgroundDatabaseClient")
+    private final DatabaseClient backgroundDatabaseClient;
+
+    // 한 번에 조회할 미처리 결제 주문 수
+    @Value("${payment.recovery.page-size:100}")
+    private final int pageSize;
+
     private static final String INSERT_PAYMENT_EVENT_QUERY = """
     INSERT INTO payment_events (buyer_id, order_name, order_id) VALUES(:buyerId, :orderName, :orderId)
     """;
 
-    private static final String LAST_INSERT_ID_QUERY = """
-    SELECT LAST_INSERT_ID()
-    """;
-
+    // 장바구니 크기와 상관없이 SQL 문이 항상 동일하도록 바인딩 파라미터(?)만 사용한다.
+    // 주문 건수만큼 Statement.add() 로 바인딩을 쌓아서 한번에 실행한다.
     private static final String INSERT_PAYMENT_ORDER_QUERY = """
     INSERT INTO payment_orders
-    (payment_event_id, seller_id, order_id, product_id, amount, payment_order_status) VALUES %s
+    (payment_event_id, seller_id, order_id, product_id, amount, payment_order_status) VALUES (?, ?, ?, ?, ?, ?)
     """;
 
+    // (payment_event_id, payment_order_id) 복합 키셋으로 마지막으로 읽은 위치 이후부터 한 페이지씩 읽는다.
+    // OFFSET 과 달리 앞 페이지를 다시 스캔하지 않고, 같은 결제 이벤트의 주문들이 항상 연속된 행으로 조회된다.
     private static final String SELECT_PENDING_PAYMENT_QUERY = """
-                                                                SELECT pe.id as payment_event_id, pe.payment_key, pe.order_id, po.id as payment_order_id, po.payment_order_status, po.amount, po.failed_count, po.threshold
+                                                                SELECT pe.id as payment_event_id, pe.payment_key, pe.order_id, po.id as payment_order_id, po.payment_order_status, po.amount, po.failed_count, po.threshold, pe.psp_executor
                                                                 FROM payment_events pe 
                                                                 INNER JOIN payment_orders po ON po.payment_event_id = pe.id
                                                                 WHERE (po.payment_order_status = 'UNKNOWN' OR po.payment_order_status = 'EXECUTING' AND po.updated_at <= :updatedAt - INTERVAL 3 MINUTE)
                                                                 AND po.failed_count < po.threshold
-                                                                LIMIT 10
+                                                                AND (po.payment_event_id > :lastPaymentEventId OR (po.payment_event_id = :lastPaymentEventId AND po.id > :lastPaymentOrderId))
+                                                                ORDER BY po.payment_event_id, po.id
+                                                                LIMIT :pageSize
                                                                 """;
 
     @Override
     public Mono<Void> save(PaymentEvent paymentEvent) {
         return insertPaymentEvent(paymentEvent)
-            .flatMap(it -> selectPaymentEventId())
             .flatMap(paymentEventId -> insertPaymentOrders(paymentEvent, paymentEventId))
             .as(transactionalOperator::transactional)   // 해당되는 쿼리들을 하나의 트랜잭션으로 묶는다.
             .then();
     }
 
+    /**
+     * <h4> 미처리 결제를 키셋 페이지 단위로 스트리밍한다. </h4>
+     * <p> 다음 페이지는 이전 페이지의 마지막 행을 기준으로 조회하고, 구독자가 아직 소비하지 않은 페이지는 최대 하나만 미리 조회되기 때문에 메모리에는 최대 두 페이지만 유지된다. </p>
+     * <p> 행이 결제 이벤트 순서로 정렬되어 있으므로 groupBy 대신 이벤트 ID 가 바뀌는 지점에서 끊어서 PendingPaymentEvent 를 만든다. </p>
+     */
     @Override
     public Flux<PendingPaymentEvent> getPendingPayments() {
-        return databaseClient.sql(SELECT_PENDING_PAYMENT_QUERY)
-            .bind("updatedAt", LocalDateTime.now().format(MySQLDateTimeFormatter.formatter))
-            .fetch()
+
+        // 스캔 도중 기준 시각이 바뀌면 처리 중인 주문이 다시 조회될 수 있으므로 스캔 시작 시점으로 고정한다.
+        String updatedAt = LocalDateTime.now().format(MySQLDateTimeFormatter.formatter);
+
+        return getPendingPaymentPage(updatedAt, 0L, 0L)
+            .expand(page -> {
+
+                if (page.size() < pageSize) {
+                    return Mono.empty();
+                }
+
+                PendingPaymentRow last = page.get(page.size() - 1);
+                return getPendingPaymentPage(updatedAt, last.paymentEventId(), last.paymentOrderId());
+            })
+            .flatMapIterable(Function.identity(), 1)    // 페이지를 한 개씩만 요청해서 구독자가 소비하는 속도 이상으로 페이지를 쌓아두지 않는다.
+            .bufferUntilChanged(PendingPaymentRow::paymentEventId)
+            .map(this::toPendingPaymentEvent)
+            // 복제 지연으로 이미 처리된 결제가 조회되더라도 상태 변경은 이전 상태를 검사하므로 (Compare-And-Set) 복제본에서 조회한다.
+            .contextWrite(QueryRoute.REPLICA.context());
+    }
+
+    private Mono<List<PendingPaymentRow>> getPendingPaymentPage(String updatedAt, Long lastPaymentEventId, Long lastPaymentOrderId) {
+        return backgroundDatabaseClient.sql(SELECT_PENDING_PAYMENT_QUERY)
+            .bind("updatedAt", updatedAt)
+            .bind("lastPaymentEventId", lastPaymentEventId)
+            .bind("lastPaymentOrderId", lastPaymentOrderId)
+            .bind("pageSize", pageSize)
+            .map(R2DBCPaymentRepository::toPendingPaymentRow)
             .all()
-            .groupBy(row -> (Long) row.get("payment_event_id"))
-            .flatMap(groupedFlex ->
-                groupedFlex.collectList().map(results -> {
-
-                    Map<String, Object> first = results.get(0);
-
-                    return PendingPaymentEvent.builder()
-                        .paymentEventId((Long) groupedFlex.key())
-                        .paymentKey(first.get("payment_key").toString())
-                        .orderId(first.get("order_id").toString())
-                        .pendingPaymentOrders(
-                            results.stream()
-                                .map(r ->
-                                         PendingPaymentOrder.builder()
-                                             .paymentOrderId((Long) r.get("payment_order_id"))
-                                             .status(PaymentStatus.get((String) r.get("payment_order_status")))
-                                             .amount(((BigDecimal) r.get("amount")).longValue())
-                                             .failedCount((Byte) r.get("failed_count"))
-                                             .threshold((Byte) r.get("threshold"))
-                                             .build())
-                                .toList())
-                        .build();
-                }));
+            .collectList();
+    }
+
+    /**
+     * <h4> SELECT_PENDING_PAYMENT_QUERY 의 컬럼 순서대로 타입을 지정해서 읽는다. </h4>
+     * <p> fetch() 는 행마다 컬럼 이름을 키로 하는 Map 을 만들기 때문에 행을 바로 레코드로 매핑해서 불필요한 할당을 줄인다. </p>
+     */
+    static PendingPaymentRow toPendingPaymentRow(Row row, RowMetadata metadata) {
+        return new PendingPaymentRow(
+            row.get(0, Long.class),
+            row.get(1, String.class),
+            row.get(2, String.class),
+            row.get(3, Long.class),
+            row.get(4, String.class),
+            row.get(5, BigDecimal.class),
+            row.get(6, Byte.class),
+            row.get(7, Byte.class),
+            row.get(8, String.class));
+    }
+
+    private PendingPaymentEvent toPendingPaymentEvent(List<PendingPaymentRow> rows) {
+
+        PendingPaymentRow first = rows.get(0);
+
+        return PendingPaymentEvent.builder()
+            .paymentEventId(first.paymentEventId())
+            .paymentKey(first.paymentKey())
+            .orderId(first.orderId())
+            .pspExecutor(first.pspExecutor())
+            .pendingPaymentOrders(
+                rows.stream()
+                    .map(r ->
+                             PendingPaymentOrder.builder()
+                                 .paymentOrderId(r.paymentOrderId())
+                                 .status(PaymentStatus.get(r.paymentOrderStatus()))
+                                 .amount(r.amount().longValue())
+                                 .failedCount(r.failedCount())
+                                 .threshold(r.threshold())
+                                 .build())
+                    .toList())
+            .build();
     }
 
+    /**
+     * <h4> payment_events 를 저장하고 생성된 PK 를 반환한다. </h4>
+     * <p> INSERT 응답(OK 패킷)에 포함된 생성 키를 그대로 사용하기 때문에 SELECT LAST_INSERT_ID() 를 위한 추가 왕복이 필요없다. </p>
+     */
     private Mono<Long> insertPaymentEvent(PaymentEvent paymentEvent) {
         return databaseClient.sql(INSERT_PAYMENT_EVENT_QUERY)
             .bind("buyerId", paymentEvent.getBuyerId())
             .bind("orderName", paymentEvent.getOrderName())
             .bind("orderId", paymentEvent.getOrderId())
-            .fetch()
-            .rowsUpdated();
-    }
-
-    private Mono<Long> selectPaymentEventId() {
-        return databaseClient.sql(LAST_INSERT_ID_QUERY)
-            .fetch()
-            .first()
-            .map(row -> ((BigInteger) row.get("LAST_INSERT_ID()")).longValue());
+            .filter(statement -> statement.returnGeneratedValues("id"))
+            .map((row, metadata) -> row.get(0, Long.class))
+            .one();
     }
 
+    /**
+     * <h4> payment_orders 를 하나의 파라미터 바인딩 배치로 저장한다. </h4>
+     * <p> DatabaseClient 는 배치 바인딩을 지원하지 않기 때문에 현재 트랜잭션에 바인딩된 커넥션을 직접 사용한다. </p>
+     */
     private Mono<Long> insertPaymentOrders(PaymentEvent paymentEvent, Long paymentEventId) {
 
-        // 1️⃣ values (...) (...) (...) 문자열 만들기
-        String valueClauses = paymentEvent.getPaymentOrders().stream()
-            .map(o ->
-                     String.format("(%d, %d, '%s', %d, %s, '%s')", paymentEventId, o.getSellerId(), o.getOrderId(), o.getProductId(), o.getAmount(), o.getPaymentStatus().name()))
-            .collect(Collectors.joining(", "));
+        List<PaymentOrder> paymentOrders = paymentEvent.getPaymentOrders();
+
+        if (CollectionUtils.isEmpty(paymentOrders)) {
+            return Mono.just(0L);
+        }
 
-        // 2️⃣ 완성된 SQL
-        String sql = String.format(INSERT_PAYMENT_ORDER_QUERY, valueClauses);
+        return databaseClient.inConnectionMany(connection -> {
 
-        // 3️⃣ 실행
-        return databaseClient.sql(sql)
-            .fetch()
-            .rowsUpdated();
+                Statement statement = connection.createStatement(INSERT_PAYMENT_ORDER_QUERY);
+
+                for (int i = 0; i < paymentOrders.size(); i++) {
+
+                    // add() 는 현재까지의 바인딩을 저장하고 다음 행의 바인딩을 시작한다. (마지막 행 이후에는 호출하지 않는다.)
+                    if (i > 0) {
+                        statement.add();
+                    }
+
+                    PaymentOrder paymentOrder = paymentOrders.get(i);
+                    statement.bind(0, paymentEventId)
+                        .bind(1, paymentOrder.getSellerId())
+                        .bind(2, paymentOrder.getOrderId())
+                        .bind(3, paymentOrder.getProductId())
+                        .bind(4, paymentOrder.getAmount())
+                        .bind(5, paymentOrder.getPaymentStatus().name());
+                }
+
+                return Flux.from(statement.execute())
+                    .flatMap(Result::getRowsUpdated);
+            })
+            .reduce(0L, Long::sum);
     }
+
+    record PendingPaymentRow(
+        Long paymentEventId,
+        String paymentKey,
+        String orderId,
+        Long paymentOrderId,
+        String paymentOrderStatus,
+        BigDecimal amount,
+        Byte failedCount,
+        Byte threshold,
+        String pspExecutor
+    ) {}
 }
@@ -1,21 +1,28 @@
 package com.example.paymentservice.payment.adapter.out.persistent.repository;
 
 import com.example.paymentservice.payment.adapter.out.persistent.exception.PaymentAlreadyProcessedException;
+import com.example.paymentservice.payment.adapter.out.persistent.exception.PaymentValidationException;
 import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdateCommand;
 import com.example.paymentservice.payment.domain.PaymentEventMessagePublisher;
 import com.example.paymentservice.payment.domain.PaymentStatus;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.reactive.TransactionalOperator;
-import org.springframework.util.CollectionUtils;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.publisher.SynchronousSink;
 
+/**
+ * <h4> 결제 상태 변경 (Compare-And-Set) </h4>
+ * <p> 상태 변경은 아래 두 개의 쿼리로 처리된다. </p>
+ * <li> 1. 변경 가능한 이전 상태(PaymentStatus.allowedPreviousStatuses) 인 주문들을 잠그면서 히스토리를 INSERT ... SELECT 로 생성한다. </li>
+ * <li> 2. 같은 조건으로 결제 상태와 부가 정보를 하나의 UPDATE 로 변경한다. </li>
+ * <p> 1번 쿼리에서 생성된 히스토리 건수가 0 이라면 상태 변경 조건을 만족하지 못한 것이므로 그때만 현재 상태를 조회해서 예외를 결정한다. </p>
+ * <p> EXECUTING 으로 변경할 때는 주문을 잠근 뒤 기록된 PSP 가 없을 때만 PSP 를 골라서 같은 트랜잭션에서 기록한다. (처음 기록된 PSP 는 바뀌지 않는다.) </p>
+ */
 @Repository
 @RequiredArgsConstructor
 public class R2DBCPaymentStatusUpdateRepository implements PaymentStatusUpdateRepository {
@@ -26,48 +33,76 @@ public class R2DBCPaymentStatusUpdateRepository implements PaymentStatusUpdateRe
     private final PaymentEventMessagePublisher paymentEventMessagePublisher;
 
     private static final String SELECT_PAYMENT_ORDER_STATUS_QUERY = """
-                                                                    SELECT id, payment_order_status FROM payment_orders
-                                                                    where order_id = :orderId
+                                                                    SELECT payment_order_status FROM payment_orders
+                                                                    WHERE order_id = :orderId
+                                                                    LIMIT 1
                                                                     """;
 
+    // FOR UPDATE 로 변경 대상 주문을 먼저 X 락으로 잡아서 동시에 들어온 상태 변경끼리 S -> X 락 승격으로 데드락이 나지않도록 한다.
     private static final String INSERT_PAYMENT_HISTORY_QUERY = """
                                                                INSERT INTO payment_order_histories
-                                                               (payment_order_id, previous_status, new_status, reason) VALUES %s
+                                                               (payment_order_id, previous_status, new_status, reason)
+                                                               SELECT id, payment_order_status, :newStatus, :reason
+                                                               FROM payment_orders
+                                                               WHERE order_id = :orderId
+                                                               AND payment_order_status IN (:allowedStatuses)
+                                                               FOR UPDATE
                                                                """;
 
-    private static final String UPDATE_PAYMENT_ORDER_STATUS_QUERY = """
-                                                                    UPDATE payment_orders 
-                                                                    SET payment_order_status = :status, updated_at = CURRENT_TIMESTAMP
-                                                                    WHERE order_id = :orderId
-                                                                    """;
-
-    private static final String UPDATE_PAYMENT_KEY_QUERY = """
-                                                           UPDATE payment_events
-                                                           SET payment_key = :paymentKey
-                                                           WHERE order_id = :orderId
-                                                           """;
-
-    private static final String UPDATE_PAYMENT_EVENT_EXTRA_DETAILS_QUERY = """
-                                                                           UPDATE payment_events
-                                                                           SET order_name = :orderName, method = :method, approved_at = :approvedAt, type = :type, updated_at = CURRENT_TIMESTAMP
-                                                                           WHERE order_id = :orderId
+    // 한 번 기록된 PSP 는 바꾸지 않는다. (Idempotency-Key 는 PSP 별로만 유효하기 때문에 다른 PSP 로 보내면 중복 승인될 수 있다.)
+    private static final String UPDATE_PAYMENT_STATUS_TO_EXECUTING_QUERY = """
+                                                                           UPDATE payment_orders po
+                                                                           INNER JOIN payment_events pe ON pe.id = po.payment_event_id
+                                                                           SET po.payment_order_status = :status, po.updated_at = CURRENT_TIMESTAMP, pe.payment_key = :paymentKey,
+                                                                               pe.psp_executor = COALESCE(pe.psp_executor, :pspExecutor)
+                                                                           WHERE po.order_id = :orderId
+                                                                           AND po.payment_order_status IN (:allowedStatuses)
                                                                            """;
 
-    private static final String INCREMENT_PAYMENT_ORDER_FAILED_COUNT_QUERY = """
-                                                                             UPDATE payment_orders
-                                                                             SET failed_count = failed_count + 1
-                                                                             WHERE order_id = :orderId
-                                                                             """;
+    private static final String SELECT_PSP_EXECUTOR_QUERY = """
+                                                            SELECT psp_executor FROM payment_events
+                                                            WHERE order_id = :orderId
+                                                            """;
+
+    private static final String UPDATE_PAYMENT_STATUS_TO_SUCCESS_QUERY = """
+                                                                         UPDATE payment_orders po
+                                                                         INNER JOIN payment_events pe ON pe.id = po.payment_event_id
+                                                                         SET po.payment_order_status = :status, po.updated_at = CURRENT_TIMESTAMP,
+                                                                             pe.order_name = :orderName, pe.method = :method, pe.approved_at = :approvedAt, pe.type = :type, pe.updated_at = CURRENT_TIMESTAMP
+                                                                         WHERE po.order_id = :orderId
+                                                                         AND po.payment_order_status IN (:allowedStatuses)
+                                                                         """;
+
+    private static final String UPDATE_PAYMENT_STATUS_TO_FAILURE_QUERY = """
+                                                                         UPDATE payment_orders
+                                                                         SET payment_order_status = :status, updated_at = CURRENT_TIMESTAMP
+                                                                         WHERE order_id = :orderId
+                                                                         AND payment_order_status IN (:allowedStatuses)
+                                                                         """;
+
+    private static final String UPDATE_PAYMENT_STATUS_TO_UNKNOWN_QUERY = """
+                                                                         UPDATE payment_orders
+                                                                         SET payment_order_status = :status, updated_at = CURRENT_TIMESTAMP, failed_count = failed_count + 1
+                                                                         WHERE order_id = :orderId
+                                                                         AND payment_order_status IN (:allowedStatuses)
+                                                                         """;
 
     @Override
-    public Mono<Boolean> updatePaymentStatusToExecuting(String paymentKey, String orderId) {
-        return checkPreviousPaymentOrderStatus(orderId)
-            .flatMap(it -> insertPaymentHistory(it, PaymentStatus.EXECUTING, "PAYMENT_CONFIRMATION_START"))
-            .then(updatePaymentOrderStatus(orderId, PaymentStatus.EXECUTING))
-            .then(updatePaymentKey(orderId, paymentKey))
-            .as(transactionalOperator::transactional)
-            .thenReturn(true)
-        ;
+    public Mono<String> updatePaymentStatusToExecuting(String paymentKey, String orderId, Supplier<String> pspExecutorSelector) {
+        return transition(orderId, PaymentStatus.EXECUTING, "PAYMENT_CONFIRMATION_START")
+            // 주문을 잠근 상태에서 기록된 PSP 를 읽고, 없을 때만 새로 고른다.
+            .then(databaseClient.sql(SELECT_PSP_EXECUTOR_QUERY)
+                      .bind("orderId", orderId)
+                      .map((row, metadata) -> Optional.ofNullable(row.get(0, String.class)))
+                      .one())
+            .map(recordedExecutor -> recordedExecutor.orElseGet(pspExecutorSelector))
+            .flatMap(pspExecutor -> guardedUpdate(UPDATE_PAYMENT_STATUS_TO_EXECUTING_QUERY, orderId, PaymentStatus.EXECUTING)
+                .bind("paymentKey", paymentKey)
+                .bind("pspExecutor", pspExecutor)
+                .fetch()
+                .rowsUpdated()
+                .thenReturn(pspExecutor))
+            .as(transactionalOperator::transactional);
     }
 
     @Override
@@ -82,76 +117,15 @@ public class R2DBCPaymentStatusUpdateRepository implements PaymentStatusUpdateRe
         }
     }
 
-    private Mono<List<Pair<Long, String>>> checkPreviousPaymentOrderStatus(String orderId) {
-
-        return selectPaymentOrderStatus(orderId)
-            .handle((Pair<Long, String> paymentOrder, SynchronousSink<Pair<Long, String>> sink) -> {
-
-                String status = paymentOrder.getRight();
-                PaymentStatus paymentStatus = PaymentStatus.get(status);
-
-                switch (paymentStatus) {
-                    case NOT_STARTED, UNKNOWN, EXECUTING ->
-                        sink.next(paymentOrder);
-                    case SUCCESS ->
-                        sink.error(new PaymentAlreadyProcessedException(PaymentStatus.SUCCESS, "이미 처리 성공한 결제 입니다."));
-                    case FAILURE ->
-                        sink.error(new PaymentAlreadyProcessedException(PaymentStatus.FAILURE, "이미 처리 실패한 결제 입니다."));
-                    default ->
-                        sink.error(new IllegalArgumentException(String.format("지원하지 않는 결제 상태 입니다: %s", paymentStatus)));
-                }
-            })
-            .collectList();
-    }
-
-    private Flux<Pair<Long, String>> selectPaymentOrderStatus(String orderId) {
-        return databaseClient.sql(SELECT_PAYMENT_ORDER_STATUS_QUERY)
-            .bind("orderId", orderId)
-            .fetch()
-            .all()
-            .map( row -> Pair.of((Long) row.get("id"), (String) row.get("payment_order_status")));
-    }
-
-    private Mono<Long> insertPaymentHistory(List<Pair<Long, String>> paymentOrderIdToStatus, PaymentStatus status, String reason) {
-
-        if (CollectionUtils.isEmpty(paymentOrderIdToStatus)) {
-            return Mono.just(0L);
-        }
-
-        String valueClauses = paymentOrderIdToStatus.stream()
-            .map(pair ->
-                String.format("(%d, '%s', '%s', '%s')", pair.getLeft(), pair.getRight(), status, reason))
-            .collect(Collectors.joining(", "));
-
-        String sql = String.format(INSERT_PAYMENT_HISTORY_QUERY, valueClauses);
-
-        return databaseClient.sql(sql)
-            .fetch()
-            .rowsUpdated();
-    }
-
-    private Mono<Long> updatePaymentKey(String orderId, String paymentKey) {
-        return databaseClient.sql(UPDATE_PAYMENT_KEY_QUERY)
-            .bind("paymentKey", paymentKey)
-            .bind("orderId", orderId)
-            .fetch()
-            .rowsUpdated();
-    }
-
-    private Mono<Long> updatePaymentOrderStatus(String orderId, PaymentStatus status) {
-        return databaseClient.sql(UPDATE_PAYMENT_ORDER_STATUS_QUERY)
-            .bind("orderId", orderId)
-            .bind("status", status)
-            .fetch()
-            .rowsUpdated();
-    }
-
     private Mono<Boolean> updatePaymentStatusToSuccess(PaymentStatusUpdateCommand command) {
-        return selectPaymentOrderStatus(command.getOrderId())
-            .collectList()
-            .flatMap(it -> insertPaymentHistory(it, command.getStatus(), "PAYMENT_CONFIRMATION_DONE"))
-            .then(updatePaymentOrderStatus(command.getOrderId(), command.getStatus()))
-            .then(updatePaymentEventExtraDetails(command))
+        return transition(command.getOrderId(), command.getStatus(), "PAYMENT_CONFIRMATION_DONE")
+            .then(guardedUpdate(UPDATE_PAYMENT_STATUS_TO_SUCCESS_QUERY, command.getOrderId(), command.getStatus())
+                      .bind("orderName", command.getExtraDetails().getOrderName())
+                      .bind("method", command.getExtraDetails().getMethod())
+                      .bind("approvedAt", command.getExtraDetails().getApproveAt().toString())
+                      .bind("type", command.getExtraDetails().getType())
+                      .fetch()
+                      .rowsUpdated())
             .then(paymentOutboxRepository.insertOutbox(command))    // 이벤트에 실패한 메시지들을 스케줄링으로 재발행하기 위한 아웃박스 패턴
             .flatMap(paymentEventMessagePublisher::publishEvent)    // 실시간 + 스케줄링 시 DB 부하 감소를 위해 즉시 발행
             .as(transactionalOperator::transactional)
@@ -159,40 +133,70 @@ public class R2DBCPaymentStatusUpdateRepository implements PaymentStatusUpdateRe
     }
 
     private Mono<Boolean> updatePaymentStatusToFailure(PaymentStatusUpdateCommand command) {
-        return selectPaymentOrderStatus(command.getOrderId())
-            .collectList()
-            .flatMap(it -> insertPaymentHistory(it, command.getStatus(), command.getFailure().toString()))
-            .then(updatePaymentOrderStatus(command.getOrderId(), command.getStatus()))
+        return transition(command.getOrderId(), command.getStatus(), command.getFailure().toString())
+            .then(guardedUpdate(UPDATE_PAYMENT_STATUS_TO_FAILURE_QUERY, command.getOrderId(), command.getStatus())
+                      .fetch()
+                      .rowsUpdated())
             .as(transactionalOperator::transactional)
             .thenReturn(true);
-
     }
 
     private Mono<Boolean> updatePaymentStatusToUnknown(PaymentStatusUpdateCommand command) {
-        return selectPaymentOrderStatus(command.getOrderId())
-            .collectList()
-            .flatMap(it -> insertPaymentHistory(it, command.getStatus(), command.getFailure().toString()))
-            .then(updatePaymentOrderStatus(command.getOrderId(), command.getStatus()))
-            .then(incrementPaymentOrderFailedCount(command))
+        return transition(command.getOrderId(), command.getStatus(), command.getFailure().toString())
+            .then(guardedUpdate(UPDATE_PAYMENT_STATUS_TO_UNKNOWN_QUERY, command.getOrderId(), command.getStatus())
+                      .fetch()
+                      .rowsUpdated())
             .as(transactionalOperator::transactional)
             .thenReturn(true);
     }
 
-    private Mono<Long> updatePaymentEventExtraDetails(PaymentStatusUpdateCommand command) {
-        return databaseClient.sql(UPDATE_PAYMENT_EVENT_EXTRA_DETAILS_QUERY)
-            .bind("orderName", command.getExtraDetails().getOrderName())
-            .bind("method", command.getExtraDetails().getMethod())
-            .bind("approvedAt", command.getExtraDetails().getApproveAt().toString())
-            .bind("orderId", command.getOrderId())
-            .bind("type", command.getExtraDetails().getType())
+    /**
+     * <h4> 변경 가능한 주문들을 잠그고 히스토리를 남긴다. </h4>
+     * <p> 히스토리가 한 건도 생성되지 않았다면 변경할 수 없는 상태이므로 예외를 발생시킨다. </p>
+     */
+    private Mono<Long> transition(String orderId, PaymentStatus status, String reason) {
+        return databaseClient.sql(INSERT_PAYMENT_HISTORY_QUERY)
+            .bind("newStatus", status.name())
+            .bind("reason", reason)
+            .bind("orderId", orderId)
+            .bind("allowedStatuses", allowedStatuses(status))
             .fetch()
-            .rowsUpdated();
+            .rowsUpdated()
+            .flatMap(transitioned ->
+                         transitioned > 0
+                             ? Mono.just(transitioned)
+                             : rejectTransition(orderId, status));
     }
 
-    private Mono<Long> incrementPaymentOrderFailedCount(PaymentStatusUpdateCommand command) {
-        return databaseClient.sql(INCREMENT_PAYMENT_ORDER_FAILED_COUNT_QUERY)
-            .bind("orderId", command.getOrderId())
-            .fetch()
-            .rowsUpdated();
+    private GenericExecuteSpec guardedUpdate(String sql, String orderId, PaymentStatus status) {
+        return databaseClient.sql(sql)
+            .bind("status", status.name())
+            .bind("orderId", orderId)
+            .bind("allowedStatuses", allowedStatuses(status));
+    }
+
+    /**
+     * 상태 변경에 실패한 경우에만 현재 상태를 조회해서 어떤 예외인지 결정한다.
+     */
+    private Mono<Long> rejectTransition(String orderId, PaymentStatus status) {
+        return databaseClient.sql(SELECT_PAYMENT_ORDER_STATUS_QUERY)
+            .bind("orderId", orderId)
+            .map((row, metadata) -> PaymentStatus.get(row.get(0, String.class)))
+            .first()
+            .switchIfEmpty(Mono.error(() -> new PaymentValidationException(
+                String.format("결제 (orderId: %s) 가 존재하지 않습니다.", orderId))))
+            .flatMap(previousStatus -> Mono.error(PaymentAlreadyProcessedException.rejectedTransition(orderId, previousStatus, status)));
+    }
+
+    private List<String> allowedStatuses(PaymentStatus status) {
+
+        if (status.allowedPreviousStatuses().isEmpty()) {
+            throw new IllegalStateException(
+                String.format("결제 상태 (status: %s) 로는 변경할 수 없습니다.", status));
+        }
+
+        return status.allowedPreviousStatuses().stream()
+            .map(PaymentStatus::name)
+            .toList();
     }
 }
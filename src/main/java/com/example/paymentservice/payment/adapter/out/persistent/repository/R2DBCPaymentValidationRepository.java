@@ -1,5 +1,6 @@
 package com.example.paymentservice.payment.adapter.out.persistent.repository;
 
+import com.example.paymentservice.payment.adapter.out.persistent.config.QueryRoute;
 import com.example.paymentservice.payment.adapter.out.persistent.exception.PaymentValidationException;
 import java.math.BigDecimal;
 import lombok.RequiredArgsConstructor;
@@ -17,22 +18,31 @@ public class R2DBCPaymentValidationRepository implements PaymentValidationReposi
                                                                     SELECT SUM(amount) as total_amount
                                                                     FROM payment_orders
                                                                     WHERE order_id = :orderId
+                                                                    HAVING COUNT(*) > 0
                                                                     """;
 
+    /**
+     * <h4> 결제 금액 검증 </h4>
+     * <p> 복제본에서 먼저 검증하고, 복제 지연으로 방금 생성된 결제가 복제본에 아직 없거나 금액이 다를 때만 원본에서 다시 검증한다. </p>
+     */
     @Override
     public Mono<Boolean> isValid(String orderId, Long amount) {
+        return selectTotalAmount(orderId, QueryRoute.REPLICA)
+            .filter(totalAmount -> totalAmount.equals(amount))
+            .switchIfEmpty(Mono.defer(() -> selectTotalAmount(orderId, QueryRoute.PRIMARY)
+                .filter(totalAmount -> totalAmount.equals(amount))))
+            .switchIfEmpty(Mono.error(() ->
+                new PaymentValidationException(
+                    String.format("결제 (orderId: %s) 에서 금액 (amount: %d)이 올바르지 않습니다.", orderId, amount))))
+            .thenReturn(true);
+    }
+
+    private Mono<Long> selectTotalAmount(String orderId, QueryRoute route) {
         return databaseClient.sql(SELECT_PAYMENT_TOTAL_AMOUNT_QUERY)
             .bind("orderId", orderId)
-            .fetch()
+            // 주문이 없다면 HAVING 조건으로 행이 조회되지 않기 때문에 SUM 결과는 항상 null 이 아니다.
+            .map((row, metadata) -> row.get(0, BigDecimal.class).longValue())
             .first()
-            .handle((row, sink) -> {
-                if (((BigDecimal) row.get("total_amount")).longValue() == amount) {
-                    sink.next(true);
-                } else {
-                    sink.error(
-                        new PaymentValidationException(
-                            String.format("결제 (orderId: %s) 에서 금액 (amount: %d)이 올바르지 않습니다.", orderId, amount)));
-                }
-            });
+            .contextWrite(route.context());
     }
 }
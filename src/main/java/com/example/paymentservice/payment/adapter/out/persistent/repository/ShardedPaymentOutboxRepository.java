@@ -0,0 +1,59 @@
+package com.example.paymentservice.payment.adapter.out.persistent.repository;
+
+import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdateCommand;
+import com.example.paymentservice.payment.domain.PaymentEventMessage;
+import com.example.paymentservice.payment.domain.PaymentEventMessage.PaymentEventMessageType;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 아웃박스의 멱등키는 orderId 이므로 결제와 같은 샤드에 저장된다.
+ */
+@Primary
+@Repository
+// jdbc 프로파일에서는 JDBC 저장소를 사용한다.
+@Profile("!jdbc")
+@ConditionalOnProperty(name = "payment.persistence.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShardedPaymentOutboxRepository implements PaymentOutboxRepository {
+
+    private final PaymentShardRouter paymentShardRouter;
+
+    @Override
+    public Mono<PaymentEventMessage> insertOutbox(PaymentStatusUpdateCommand command) {
+        return paymentShardRouter.route(command.getOrderId()).paymentOutboxRepository().insertOutbox(command);
+    }
+
+    @Override
+    public Mono<Boolean> markMessageAsSent(String idempotencyKey, PaymentEventMessageType type) {
+        return paymentShardRouter.route(idempotencyKey).paymentOutboxRepository().markMessageAsSent(idempotencyKey, type);
+    }
+
+    @Override
+    public Mono<Boolean> markMessageAsFailure(String idempotencyKey, PaymentEventMessageType type) {
+        return paymentShardRouter.route(idempotencyKey).paymentOutboxRepository().markMessageAsFailure(idempotencyKey, type);
+    }
+
+    @Override
+    public Flux<PaymentEventMessage> getPendingPaymentOutboxes() {
+        return paymentShardRouter.fanOut(shard -> shard.paymentOutboxRepository().getPendingPaymentOutboxes());
+    }
+
+    @Override
+    public Flux<Long> purgeSentOutboxes(LocalDateTime createdBefore, int chunkSize, Duration chunkInterval, boolean archive) {
+        return paymentShardRouter.fanOut(shard -> shard.paymentOutboxRepository().purgeSentOutboxes(createdBefore, chunkSize, chunkInterval, archive));
+    }
+
+    @Override
+    public Mono<LocalDateTime> getOldestSentOutboxCreatedAt() {
+        return paymentShardRouter.fanOut(shard -> shard.paymentOutboxRepository().getOldestSentOutboxCreatedAt())
+            .reduce((left, right) -> left.isBefore(right) ? left : right);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.paymentservice.payment.adapter.out.persistent.repository;
+
+import com.example.paymentservice.payment.domain.PaymentEvent;
+import com.example.paymentservice.payment.domain.PendingPaymentEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Primary
+@Repository
+// jdbc 프로파일에서는 JDBC 저장소를 사용한다.
+@Profile("!jdbc")
+@ConditionalOnProperty(name = "payment.persistence.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShardedPaymentRepository implements PaymentRepository {
+
+    private final PaymentShardRouter paymentShardRouter;
+
+    @Override
+    public Mono<Void> save(PaymentEvent paymentEvent) {
+        return paymentShardRouter.route(paymentEvent.getOrderId()).paymentRepository().save(paymentEvent);
+    }
+
+    @Override
+    public Flux<PendingPaymentEvent> getPendingPayments() {
+        return paymentShardRouter.fanOut(shard -> shard.paymentRepository().getPendingPayments());
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.paymentservice.payment.adapter.out.persistent.repository;
+
+import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdateCommand;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Primary
+@Repository
+// jdbc 프로파일에서는 JDBC 저장소를 사용한다.
+@Profile("!jdbc")
+@ConditionalOnProperty(name = "payment.persistence.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShardedPaymentStatusUpdateRepository implements PaymentStatusUpdateRepository {
+
+    private final PaymentShardRouter paymentShardRouter;
+
+    @Override
+    public Mono<String> updatePaymentStatusToExecuting(String paymentKey, String orderId, Supplier<String> pspExecutorSelector) {
+        return paymentShardRouter.route(orderId).paymentStatusUpdateRepository().updatePaymentStatusToExecuting(paymentKey, orderId, pspExecutorSelector);
+    }
+
+    @Override
+    public Mono<Boolean> updatePaymentStatus(PaymentStatusUpdateCommand command) {
+        return paymentShardRouter.route(command.getOrderId()).paymentStatusUpdateRepository().updatePaymentStatus(command);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.paymentservice.payment.adapter.out.persistent.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Primary
+@Repository
+// jdbc 프로파일에서는 JDBC 저장소를 사용한다.
+@Profile("!jdbc")
+@ConditionalOnProperty(name = "payment.persistence.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShardedPaymentValidationRepository implements PaymentValidationRepository {
+
+    private final PaymentShardRouter paymentShardRouter;
+
+    @Override
+    public Mono<Boolean> isValid(String orderId, Long amount) {
+        return paymentShardRouter.route(orderId).paymentValidationRepository().isValid(orderId, amount);
+    }
+}
@@ -1,7 +1,8 @@
 package com.example.paymentservice.payment.adapter.out.web.toss;
 
 import com.example.paymentservice.common.WebAdapter;
-import com.example.paymentservice.payment.adapter.out.web.toss.executor.PaymentExecutor;
+import com.example.paymentservice.payment.adapter.out.web.toss.policy.PaymentExecutorRoutingPolicy;
+import com.example.paymentservice.payment.adapter.out.web.toss.policy.RateLimitPolicy;
 import com.example.paymentservice.payment.application.port.in.PaymentConfirmCommand;
 import com.example.paymentservice.payment.application.port.out.PaymentExecutorPort;
 import com.example.paymentservice.payment.domain.PaymentExecutionResult;
@@ -12,10 +13,20 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class PaymentExecutorWebAdapter implements PaymentExecutorPort {
 
-    private final PaymentExecutor paymentExecutor;
+    private final PaymentExecutorRoutingPolicy paymentExecutorRoutingPolicy;
+    private final RateLimitPolicy rateLimitPolicy;
+
+    @Override
+    public String selectExecutor() {
+        // 새 주문은 가중 최소 지연 PSP 로 보낸다. (결제에 기록된 뒤에는 다시 고르지 않는다.)
+        return paymentExecutorRoutingPolicy.select();
+    }
 
     @Override
     public Mono<PaymentExecutionResult> execute(PaymentConfirmCommand command) {
-        return paymentExecutor.execute(command);
+        // 결제에 기록된 PSP 로만 요청한다. (그 PSP 의 서킷이 열려 있다면 PSP 에 요청하지 않고 바로 UNKNOWN 으로 처리한다.)
+        // PSP 호출량 제한은 가장 바깥에서 확인해서, 제한으로 보내지 않은 요청이 서킷 브레이커와 라우팅의 실패로 기록되지 않도록 한다.
+        return paymentExecutorRoutingPolicy.execute(command)
+            .transform(rateLimitPolicy::throttle);
     }
 }
@@ -1,9 +1,13 @@
 package com.example.paymentservice.payment.adapter.out.web.toss.config;
 
-import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import io.netty.util.AttributeKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Base64;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,21 +16,59 @@ import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.http.codec.ClientCodecConfigurer;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
 import reactor.netty.resources.ConnectionProvider;
 
 /**
  * <h4> 토스페이먼츠로 연결을 전달해줄 WebClient를 빈으로 등록 </h4>
  * - WebClient는 Spring WebFlux에서 비동기적인 Http 요청을 생성해서 보낼 수 있는 클라이언트로, 이를 통해 네트워크 통신을 할 수 있다.
+ * <p> 커넥션 풀과 타임아웃은 payment.psp.http 설정으로 조정한다. </p>
+ * <li> 커넥션 풀 지표: reactor.netty.connection.provider.* (active, idle, pending 연결 수, 연결 획득 대기 시간) </li>
+ * <li> 요청 단계별 지표: reactor.netty.http.client.* (DNS 조회, 연결, TLS 핸드셰이크 시간 등), payment.psp.http.time_to_first_byte </li>
  */
 @Configuration
 public class TossWebClientConfiguration {
 
+    // 요청을 모두 보낸 시각 (응답 헤더를 받을 때까지의 시간을 구하기 위해 커넥션 (HTTP/2 라면 스트림) 채널에 저장한다.)
+    private static final AttributeKey<Long> REQUEST_SENT_AT = AttributeKey.valueOf("tossRequestSentAt");
+
     @Value("${PSP.toss.url}") private String baseUrl;
     @Value("${PSP.toss.secretKey}") private String secretKey;
 
+    @Value("${payment.psp.http.connect-timeout:3s}") private Duration connectTimeout;
+    @Value("${payment.psp.http.response-timeout:30s}") private Duration responseTimeout;
+    @Value("${payment.psp.http.http2:false}") private boolean http2;
+
+    /**
+     * <h4> 토스페이먼츠 전용 커넥션 풀 </h4>
+     * <li> max-connections: 최대 연결 수 </li>
+     * <li> pending-acquire-max-count, pending-acquire-timeout: 연결을 기다릴 수 있는 최대 요청 수와 대기 시간 (넘으면 요청하지 않고 바로 실패한다.) </li>
+     * <li> max-idle-time, max-life-time: PSP 나 중간의 로드밸런서가 먼저 끊은 연결을 재사용하지 않도록 오래된 연결을 닫는다. </li>
+     * <li> evict-in-background: 요청이 없어도 주기적으로 오래된 연결을 정리한다. (0 이라면 연결을 꺼낼 때만 확인한다.) </li>
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider tossConnectionProvider(
+        @Value("${payment.psp.http.pool.max-connections:200}") int maxConnections,
+        @Value("${payment.psp.http.pool.pending-acquire-max-count:400}") int pendingAcquireMaxCount,
+        @Value("${payment.psp.http.pool.pending-acquire-timeout:3s}") Duration pendingAcquireTimeout,
+        @Value("${payment.psp.http.pool.max-idle-time:30s}") Duration maxIdleTime,
+        @Value("${payment.psp.http.pool.max-life-time:5m}") Duration maxLifeTime,
+        @Value("${payment.psp.http.pool.evict-in-background:30s}") Duration evictInBackground) {
+
+        return ConnectionProvider.builder("toss-payment")
+            .maxConnections(maxConnections)
+            .pendingAcquireMaxCount(pendingAcquireMaxCount)
+            .pendingAcquireTimeout(pendingAcquireTimeout)
+            .maxIdleTime(maxIdleTime)
+            .maxLifeTime(maxLifeTime)
+            .evictInBackground(evictInBackground)
+            .metrics(true)
+            .build();
+    }
+
     @Bean
-    public WebClient tosPaymentWebClient() {
+    public WebClient tosPaymentWebClient(ConnectionProvider tossConnectionProvider, MeterRegistry meterRegistry) {
 
         /*
          * 토스페이먼츠 API를 호출하기 위해서는 인증정보를 제공해줘야하는데,
@@ -40,19 +82,36 @@ public class TossWebClientConfiguration {
             .defaultHeader(HttpHeaders.AUTHORIZATION, "Basic " + encodeSecretKey)
             .defaultHeader(HttpHeaders.CONTENT_TYPE, "application/json")
             // clientConnector: webClient는 기본적으로 비동기/논블로킹이지만 커스텀 (타임아웃, 커넥션 풀 등) 하게 사용할 수 있게 해준다.
-            .clientConnector(reactorClientHttpConnector())
+            .clientConnector(reactorClientHttpConnector(tossConnectionProvider, meterRegistry))
             // codecs: webClient가 request/response 바디를 직렬화/역직렬할 때 사용할 코덱 설정
             // defaultCodecs: 기본 코덱(Jackson, ByteBuffer, String, FormData)
             .codecs(ClientCodecConfigurer::defaultCodecs)
             .build();
     }
 
-    private ClientHttpConnector reactorClientHttpConnector() {
-        ConnectionProvider provider = ConnectionProvider.builder("toss-payment").build();
+    private ClientHttpConnector reactorClientHttpConnector(ConnectionProvider provider, MeterRegistry meterRegistry) {
+
+        Timer timeToFirstByte = Timer.builder("payment.psp.http.time_to_first_byte")
+            .description("Time from the PSP request being sent to its response headers being received")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
 
         HttpClient clientBase = HttpClient.create(provider)
-            .doOnConnected(
-                connection -> connection.addHandlerLast(new ReadTimeoutHandler(30, TimeUnit.SECONDS)));
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+            // 요청을 모두 보낸 뒤 응답을 받기까지의 시간 (넘으면 ReadTimeoutException)
+            .responseTimeout(responseTimeout)
+            // HTTP/2 를 협상하지 못하면 (ALPN) HTTP/1.1 을 사용한다.
+            .protocol(http2 ? new HttpProtocol[] {HttpProtocol.H2, HttpProtocol.HTTP11} : new HttpProtocol[] {HttpProtocol.HTTP11})
+            // 토스페이먼츠 API URI 에는 경로 변수가 없으므로 그대로 태그로 사용한다.
+            .metrics(true, Function.identity())
+            .doAfterRequest((request, connection) ->
+                                connection.channel().attr(REQUEST_SENT_AT).set(System.nanoTime()))
+            .doOnResponse((response, connection) -> {
+                Long sentAt = connection.channel().attr(REQUEST_SENT_AT).getAndSet(null);
+                if (sentAt != null) {
+                    timeToFirstByte.record(Duration.ofNanos(System.nanoTime() - sentAt));
+                }
+            });
 
         return new ReactorClientHttpConnector(clientBase);
     }
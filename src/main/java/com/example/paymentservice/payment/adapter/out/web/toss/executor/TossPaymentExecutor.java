@@ -2,9 +2,12 @@ package com.example.paymentservice.payment.adapter.out.web.toss.executor;
 
 import com.example.paymentservice.payment.adapter.out.web.toss.exception.PSPConfirmationException;
 import com.example.paymentservice.payment.adapter.out.web.toss.exception.TossPaymentError;
-import com.example.paymentservice.payment.adapter.out.web.toss.response.TossPaymentConfirmationResponse;
+import com.example.paymentservice.payment.adapter.out.web.toss.policy.HedgingPolicy;
+import com.example.paymentservice.payment.adapter.out.web.toss.policy.RetryBudgetPolicy;
+import com.example.paymentservice.payment.adapter.out.web.toss.response.TossPaymentConfirmationDecoder;
 import com.example.paymentservice.payment.adapter.out.web.toss.response.TossPaymentConfirmationResponse.TossFailureResponse;
 import com.example.paymentservice.payment.application.port.in.PaymentConfirmCommand;
+import com.example.paymentservice.payment.application.port.in.PaymentDeadline;
 import com.example.paymentservice.payment.domain.PSPConfirmationStatus;
 import com.example.paymentservice.payment.domain.PaymentExecutionResult;
 import com.example.paymentservice.payment.domain.PaymentExecutionResult.PaymentExtraDetails;
@@ -15,6 +18,8 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -29,12 +34,36 @@ import reactor.util.retry.Retry;
 public class TossPaymentExecutor implements PaymentExecutor {
 
     private final WebClient tossPaymentWebClient;
+    private final HedgingPolicy hedgingPolicy;
+    private final RetryBudgetPolicy retryBudgetPolicy;
 
     private static final String uri = "/v1/payments/confirm";
 //    private static final String uri = "/v1/payments/key-in";
 
+    // 재시도 전 대기 시간 (BackOff) 설정
+    private static final int MAX_RETRIES = 2;
+    private static final Duration FIRST_BACKOFF = Duration.ofSeconds(1);
+    private static final double JITTER = 0.1;
+    // 재시도 한 번의 응답을 기다리기 위해 최소한 남아 있어야 하는 시간
+    private static final Duration MIN_ATTEMPT_BUDGET = Duration.ofMillis(500);
+
+    /**
+     * <p> Context 에 PaymentDeadline 이 있다면 남은 시간 안에 끝낼 수 없는 재시도는 하지 않고 마지막 에러를 바로 전달한다. </p>
+     * <p> 재시도는 모든 결제 승인이 공유하는 재시도 예산 (RetryBudgetPolicy) 안에서만 보낸다. </p>
+     */
     @Override
     public Mono<PaymentExecutionResult> execute(PaymentConfirmCommand command) {
+        return Mono.deferContextual(context -> {
+
+            // 재시도는 confirm(command) 만 다시 구독하므로 결제 승인 한 건에 한 번만 예산이 쌓인다.
+            retryBudgetPolicy.recordAttempt();
+
+            return confirm(command)
+                .retryWhen(retrySpec(PaymentDeadline.from(context)));
+        });
+    }
+
+    private Mono<PaymentExecutionResult> confirm(PaymentConfirmCommand command) {
         return tossPaymentWebClient.post()
             .uri(uri)
             .header("Idempotency-Key", command.getOrderId())
@@ -60,47 +89,83 @@ public class TossPaymentExecutor implements PaymentExecutor {
                                     error.isRetryableError()
                                 ));
                         }))
-            .bodyToMono(TossPaymentConfirmationResponse.class)
+            // 응답 전체를 객체로 바인딩하지 않고, 원본 바이트에서 필요한 필드만 꺼낸다. (pspRawData 에는 원본 JSON 을 저장한다.)
+            .bodyToMono(byte[].class)
+            .map(TossPaymentConfirmationDecoder::decode)
             .map(response ->
                      PaymentExecutionResult.builder()
                          .paymentKey(command.getPaymentKey())
                          .orderId(command.getOrderId())
                          .extraDetails(PaymentExtraDetails.builder()
-                                           .type(PaymentType.get(response.getType()))
-                                           .method(PaymentMethod.get(response.getMethod()))
-                                           .approveAt(LocalDateTime.parse(response.getApprovedAt(), DateTimeFormatter.ISO_OFFSET_DATE_TIME))
-                                           .pspRawData(response.toString())
-                                           .orderName(response.getOrderName())
-                                           .pspConfirmationStatus(PSPConfirmationStatus.get(response.getStatus()))
-                                           .totalAmount((long) response.getTotalAmount())
+                                           .type(PaymentType.get(response.type()))
+                                           .method(PaymentMethod.get(response.method()))
+                                           .approveAt(LocalDateTime.parse(response.approvedAt(), DateTimeFormatter.ISO_OFFSET_DATE_TIME))
+                                           .pspRawData(response.rawData())
+                                           .orderName(response.orderName())
+                                           .pspConfirmationStatus(PSPConfirmationStatus.get(response.status()))
+                                           .totalAmount(response.totalAmount())
                                            .build())
                          .isSuccess(true)
                          .isFailure(false)
                          .isUnknown(false)
                          .isRetryable(false)
                          .build())
-            // BackOff 전략 (N번째 재시도 전, 이전의 2배 시간을 기다림 - 뒤로 물러서기)
-            // 최대 재시도 횟수: 2회
-            // 최초 지연 시간: 1초 ex) 1회 - 1초, 2회 - 2초, 3회 - 4초 ...
-            // jitter: 0.1(10%) 랜덤 대기 시간 부여, (여러 요청이 동시에 실패했을 때 전부 같은 타이밍에 재시도하면 트래픽 폭주 위험)
-            // 	- 예를 들어, 1초 지연이라면 0.9초~1.1초 사이에서 랜덤하게 대기 후 재시도.
-            .retryWhen(Retry.backoff(2, Duration.ofSeconds(1)).jitter(0.1)
-                           .filter(throwable ->
-                                       // 필요한 예외에만 재시도 처리를 함으로써 불필요한 재시도를 줄일 수 있다.
-                                       (throwable instanceof PSPConfirmationException
-                                            && ((PSPConfirmationException) throwable).getIsRetryableError())
-                                       || throwable instanceof TimeoutException)
-//                           .doBeforeRetry(retrySignal -> {
+            // 응답이 늦으면 같은 Idempotency-Key 로 한 번 더 요청하고 먼저 온 응답을 사용한다. (재시도마다 다시 적용된다.)
+            .transform(hedgingPolicy::hedge);
+    }
+
+    /**
+     * 구독할 때마다 새로 만들어서 재시도 횟수를 결제 승인별로 센다.
+     */
+    private Retry retrySpec(Optional<PaymentDeadline> deadline) {
+
+        AtomicInteger retries = new AtomicInteger();
+
+        // BackOff 전략 (N번째 재시도 전, 이전의 2배 시간을 기다림 - 뒤로 물러서기)
+        // 최대 재시도 횟수: 2회
+        // 최초 지연 시간: 1초 ex) 1회 - 1초, 2회 - 2초, 3회 - 4초 ...
+        // jitter: 0.1(10%) 랜덤 대기 시간 부여, (여러 요청이 동시에 실패했을 때 전부 같은 타이밍에 재시도하면 트래픽 폭주 위험)
+        // 	- 예를 들어, 1초 지연이라면 0.9초~1.1초 사이에서 랜덤하게 대기 후 재시도.
+        return Retry.backoff(MAX_RETRIES, FIRST_BACKOFF).jitter(JITTER)
+            .filter(throwable ->
+                        // 필요한 예외에만 재시도 처리를 함으로써 불필요한 재시도를 줄일 수 있다.
+                        ((throwable instanceof PSPConfirmationException
+                             && ((PSPConfirmationException) throwable).getIsRetryableError())
+                         || throwable instanceof TimeoutException)
+                        // filter 는 maxAttempts 보다 먼저 호출되므로 재시도 횟수가 남아 있을 때만 아래 조건을 확인한다.
+                        && isRetryLeft(retries)
+                        // 남은 시간 안에 대기 시간과 재시도 응답을 기다릴 수 없다면 재시도하지 않는다.
+                        && hasTimeForRetry(deadline, retries.get() - 1)
+                        // 재시도 예산이 없다면 재시도하지 않고 UNKNOWN 으로 처리해서 복구에 맡긴다. (실제로 재시도할 때만 토큰을 사용하도록 마지막에 확인한다.)
+                        && retryBudgetPolicy.tryRetry())
+//            .doBeforeRetry(retrySignal -> {
 //
-//                               Throwable failure = retrySignal.failure();
-//                               if (failure instanceof PSPConfirmationException e) {
-//                                   System.out.printf(
-//                                       "before retry hook: retryCount: %d, errorCode: %s, isUnknown: %b, isFailure: %b %n",
-//                                       retrySignal.totalRetries(), e.getErrorCode(), e.getIsUnknown(), e.getIsFailure());
-//                               }
-//                           })
-                            // 재시도가 모두 소진되었을 경우 예외 발생
-                           .onRetryExhaustedThrow(
-                               ((retryBackoffSpec, retrySignal) -> retrySignal.failure())));
+//                Throwable failure = retrySignal.failure();
+//                if (failure instanceof PSPConfirmationException e) {
+//                    System.out.printf(
+//                        "before retry hook: retryCount: %d, errorCode: %s, isUnknown: %b, isFailure: %b %n",
+//                        retrySignal.totalRetries(), e.getErrorCode(), e.getIsUnknown(), e.getIsFailure());
+//                }
+//            })
+            // 재시도가 모두 소진되었을 경우 예외 발생
+            .onRetryExhaustedThrow(
+                ((retryBackoffSpec, retrySignal) -> retrySignal.failure()));
+    }
+
+    /**
+     * 이번 실패 뒤에 보낼 재시도가 MAX_RETRIES 안이라면 재시도 횟수를 세고 true
+     */
+    private boolean isRetryLeft(AtomicInteger retries) {
+        return retries.getAndIncrement() < MAX_RETRIES;
+    }
+
+    private boolean hasTimeForRetry(Optional<PaymentDeadline> deadline, int retryIndex) {
+
+        // jitter 를 포함한 최대 대기 시간
+        Duration maxBackoff = Duration.ofMillis((long) (FIRST_BACKOFF.toMillis() * Math.pow(2, retryIndex) * (1 + JITTER)));
+
+        return deadline
+            .map(value -> value.allows(maxBackoff.plus(MIN_ATTEMPT_BUDGET)))
+            .orElse(true);
     }
 }
@@ -0,0 +1,137 @@
+package com.example.paymentservice.payment.adapter.out.web.toss.policy;
+
+import com.example.paymentservice.common.LoggerUtil;
+import com.example.paymentservice.payment.adapter.out.web.toss.exception.PSPConfirmationException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig.SlidingWindowType;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * <h4> PSP 결제 승인 서킷 브레이커 </h4>
+ * <p> PSP 가 장애나 지연 상태라면 모든 결제 승인이 읽기 타임아웃과 재시도를 다 기다린 뒤에야 UNKNOWN 이 된다. <br>
+ *     최근 결제 승인의 실패율이나 느린 요청 비율이 기준을 넘으면 서킷을 열고, 열려 있는 동안에는 PSP 에 요청하지 않고 바로 UNKNOWN 으로 처리한다. </p>
+ * <li> 서킷은 PaymentExecutor 빈 이름별로 하나씩 만든다. 한 PSP 의 장애로 다른 PSP 의 결제 승인까지 막히지 않는다. </li>
+ * <li> 서킷이 열린 PSP 는 PaymentExecutorRoutingPolicy 가 새 주문을 보내지 않는다. (이미 그 PSP 가 기록된 결제는 UNKNOWN 으로 처리되고 복구된다.) </li>
+ * <li> UNKNOWN 으로 처리된 결제는 PaymentRecoveryService 가 나중에 다시 승인한다. </li>
+ * <li> wait-in-open-state 가 지나면 half-open 상태가 되어 permitted-calls-in-half-open 건의 요청으로 PSP 가 회복되었는지 확인한다. </li>
+ * <li> 타임아웃, 연결 실패, PSP 내부 오류 (UNKNOWN 으로 분류되는 에러) 만 실패로 기록한다. 카드 거절 같은 결제 실패는 PSP 가 정상적으로 응답한 것이므로 성공으로 기록한다. </li>
+ * <p> 서킷 상태와 요청 결과는 resilience4j.circuitbreaker.* 지표 (name 태그) 로, 상태 전환은 payment.psp.circuit_breaker.transitions 지표 (executor 태그) 로 확인할 수 있다. </p>
+ */
+@Component
+public class CircuitBreakerPolicy {
+
+    public static final String CIRCUIT_OPEN_ERROR_CODE = "CIRCUIT_OPEN";
+
+    private final boolean enabled;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    public CircuitBreakerPolicy(MeterRegistry meterRegistry,
+                                @Value("${payment.psp.circuit-breaker.enabled:true}") boolean enabled,
+                                @Value("${payment.psp.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                                @Value("${payment.psp.circuit-breaker.slow-call-rate-threshold:50}") float slowCallRateThreshold,
+                                @Value("${payment.psp.circuit-breaker.slow-call-duration:10s}") Duration slowCallDuration,
+                                @Value("${payment.psp.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+                                @Value("${payment.psp.circuit-breaker.minimum-number-of-calls:20}") int minimumNumberOfCalls,
+                                @Value("${payment.psp.circuit-breaker.wait-in-open-state:10s}") Duration waitInOpenState,
+                                @Value("${payment.psp.circuit-breaker.permitted-calls-in-half-open:5}") int permittedCallsInHalfOpen) {
+        this.enabled = enabled;
+
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+            .slidingWindowType(SlidingWindowType.COUNT_BASED)
+            .slidingWindowSize(slidingWindowSize)
+            .minimumNumberOfCalls(minimumNumberOfCalls)
+            .failureRateThreshold(failureRateThreshold)
+            .slowCallRateThreshold(slowCallRateThreshold)
+            .slowCallDurationThreshold(slowCallDuration)
+            .waitDurationInOpenState(waitInOpenState)
+            .permittedNumberOfCallsInHalfOpenState(permittedCallsInHalfOpen)
+            // half-open 확인을 요청이 들어올 때까지 미루지 않는다.
+            .automaticTransitionFromOpenToHalfOpenEnabled(true)
+            .recordException(CircuitBreakerPolicy::isInfrastructureFailure)
+            .build();
+
+        this.circuitBreakerRegistry = CircuitBreakerRegistry.of(config);
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+
+        // PaymentExecutor 별 서킷은 처음 사용할 때 만들어지므로 만들어질 때마다 상태 전환을 기록한다.
+        circuitBreakerRegistry.getEventPublisher().onEntryAdded(added ->
+            added.getAddedEntry().getEventPublisher().onStateTransition(event -> {
+
+                Counter.builder("payment.psp.circuit_breaker.transitions")
+                    .description("Number of PSP circuit breaker state transitions")
+                    .tag("executor", event.getCircuitBreakerName())
+                    .tag("from", event.getStateTransition().getFromState().name())
+                    .tag("to", event.getStateTransition().getToState().name())
+                    .register(meterRegistry)
+                    .increment();
+
+                LoggerUtil.info("CircuitBreakerPolicy", "PSP 서킷 브레이커 상태 전환", Map.of(
+                    "name", event.getCircuitBreakerName(),
+                    "from", event.getStateTransition().getFromState().name(),
+                    "to", event.getStateTransition().getToState().name()));
+            }));
+    }
+
+    /**
+     * @param executorName 요청을 보낼 PaymentExecutor 빈 이름 (서킷 이름)
+     * @param request 구독할 때마다 PSP 에 새로 요청하는 Mono
+     * @return 서킷이 열려 있다면 구독하지 않고 UNKNOWN 으로 분류되는 PSPConfirmationException 을 바로 발생시키는 Mono
+     */
+    public <T> Mono<T> protect(String executorName, Mono<T> request) {
+
+        if (!enabled) {
+            return request;
+        }
+
+        return request
+            .transformDeferred(CircuitBreakerOperator.of(circuitBreakerRegistry.circuitBreaker(executorName)))
+            .onErrorMap(CallNotPermittedException.class, error ->
+                new PSPConfirmationException(
+                    CIRCUIT_OPEN_ERROR_CODE,
+                    "PSP 장애로 결제 승인 요청을 보내지 않았습니다. 잠시 후 다시 확인해주세요.",
+                    false,
+                    false,
+                    true,
+                    false,
+                    error));
+    }
+
+    public CircuitBreaker.State state(String executorName) {
+        return circuitBreakerRegistry.circuitBreaker(executorName).getState();
+    }
+
+    /**
+     * 서킷이 열려 있어서 PSP 에 요청을 보낼 수 없다면 true (half-open 은 회복 확인 요청을 받아야 하므로 열린 것으로 보지 않는다.)
+     */
+    public boolean isOpen(String executorName) {
+
+        if (!enabled) {
+            return false;
+        }
+
+        CircuitBreaker.State state = state(executorName);
+        return state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    // PaymentExecutorRoutingPolicy 도 같은 기준으로 PSP 의 에러율을 계산한다.
+    static boolean isInfrastructureFailure(Throwable throwable) {
+
+        if (throwable instanceof PSPConfirmationException e) {
+            return e.getIsUnknown();
+        }
+
+        return true;
+    }
+}
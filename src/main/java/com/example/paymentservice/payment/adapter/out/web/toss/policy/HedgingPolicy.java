@@ -0,0 +1,144 @@
+package com.example.paymentservice.payment.adapter.out.web.toss.policy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * <h4> PSP 결제 승인 헤지 요청 (Hedged Request) </h4>
+ * <p> 결제 승인 요청이 최근 응답시간의 p95 (최소 min-delay) 안에 응답하지 않으면 같은 요청을 한 번 더 보내고, 먼저 도착한 응답을 사용한다. </p>
+ * <p> 결제 승인은 Idempotency-Key (orderId) 를 함께 보내기 때문에 PSP 에서 중복 승인되지 않는다. </p>
+ * <li> 원래 요청은 응답이나 에러 중 먼저 온 신호가 결과가 된다. </li>
+ * <li> 헤지 요청은 응답만 결과가 될 수 있다. (원래 요청이 처리 중이라서 생긴 중복 요청 에러가 결과가 되지 않도록 한다.) </li>
+ * <li> 결과가 정해지면 나머지 요청은 취소된다. </li>
+ * <p> 헤지 요청은 RequestBudget 으로 전체 요청의 budget-ratio 비율을 넘지 않도록 제한한다. </p>
+ * <li> payment.psp.hedge.sent / won / budget_exhausted: 헤지 요청 수, 헤지 요청의 응답이 사용된 수, 예산이 없어서 보내지 못한 수 </li>
+ * <li> payment.psp.confirm.latency: 헤지 기준 시간을 계산하는 결제 승인 응답시간 (헤지가 이긴 경우 헤지 응답까지의 시간) </li>
+ */
+@Component
+public class HedgingPolicy {
+
+    // 헤지 기준 시간을 다시 계산하는 주기
+    private static final long THRESHOLD_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final boolean enabled;
+    private final Duration minDelay;
+    private final RequestBudget budget;
+
+    private final Timer latency;
+    private final Counter sentCounter;
+    private final Counter wonCounter;
+    private final Counter budgetExhaustedCounter;
+
+    private volatile Duration threshold;
+    private volatile long thresholdRefreshedAt;
+
+    public HedgingPolicy(MeterRegistry meterRegistry,
+                         @Value("${payment.psp.hedge.enabled:false}") boolean enabled,
+                         @Value("${payment.psp.hedge.min-delay:300ms}") Duration minDelay,
+                         @Value("${payment.psp.hedge.budget-ratio:0.05}") double budgetRatio,
+                         @Value("${payment.psp.hedge.budget-max-tokens:10}") double budgetMaxTokens) {
+        this.enabled = enabled;
+        this.minDelay = minDelay;
+        this.threshold = minDelay;
+        this.thresholdRefreshedAt = System.nanoTime();
+        this.budget = new RequestBudget(budgetRatio, budgetMaxTokens);
+
+        this.latency = Timer.builder("payment.psp.confirm.latency")
+            .description("Observed PSP confirm latency used to decide when to hedge")
+            .publishPercentiles(0.95)
+            .register(meterRegistry);
+        this.sentCounter = Counter.builder("payment.psp.hedge.sent")
+            .description("Number of hedged PSP confirm requests sent")
+            .register(meterRegistry);
+        this.wonCounter = Counter.builder("payment.psp.hedge.won")
+            .description("Number of PSP confirms answered by the hedged request")
+            .register(meterRegistry);
+        this.budgetExhaustedCounter = Counter.builder("payment.psp.hedge.budget_exhausted")
+            .description("Number of hedges skipped because the hedge budget was exhausted")
+            .register(meterRegistry);
+
+        Gauge.builder("payment.psp.hedge.threshold", this, policy -> policy.threshold.toMillis())
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @param request 구독할 때마다 PSP 에 새로 요청하는 Mono
+     */
+    public <T> Mono<T> hedge(Mono<T> request) {
+
+        if (!enabled) {
+            return request;
+        }
+
+        return Mono.defer(() -> {
+
+            budget.deposit();
+            long startedAt = System.nanoTime();
+
+            Mono<Attempt<T>> primary = request.map(value -> new Attempt<>(value, false));
+
+            Mono<Attempt<T>> hedged = Mono.delay(currentThreshold())
+                .flatMap(tick -> {
+
+                    if (!budget.tryWithdraw()) {
+                        budgetExhaustedCounter.increment();
+                        return Mono.never();
+                    }
+
+                    sentCounter.increment();
+
+                    return request
+                        .map(value -> new Attempt<>(value, true))
+                        .onErrorResume(error -> Mono.never());
+                });
+
+            return Mono.firstWithSignal(primary, hedged)
+                .doOnNext(attempt -> {
+
+                    latency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+
+                    if (attempt.hedged()) {
+                        wonCounter.increment();
+                    }
+                })
+                .map(Attempt::value);
+        });
+    }
+
+    private Duration currentThreshold() {
+
+        long now = System.nanoTime();
+
+        if (now - thresholdRefreshedAt > THRESHOLD_REFRESH_NANOS) {
+            thresholdRefreshedAt = now;
+            threshold = computeThreshold();
+        }
+
+        return threshold;
+    }
+
+    private Duration computeThreshold() {
+
+        for (ValueAtPercentile percentile : latency.takeSnapshot().percentileValues()) {
+
+            Duration p95 = Duration.ofNanos((long) percentile.value(TimeUnit.NANOSECONDS));
+
+            if (p95.compareTo(minDelay) > 0) {
+                return p95;
+            }
+        }
+
+        return minDelay;
+    }
+
+    private record Attempt<T>(T value, boolean hedged) {}
+}
@@ -0,0 +1,275 @@
+package com.example.paymentservice.payment.adapter.out.web.toss.policy;
+
+import com.example.paymentservice.common.LoggerUtil;
+import com.example.paymentservice.payment.adapter.out.web.toss.executor.PaymentExecutor;
+import com.example.paymentservice.payment.application.port.in.PaymentConfirmCommand;
+import com.example.paymentservice.payment.domain.PaymentExecutionResult;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * <h4> PSP 결제 승인 라우팅 </h4>
+ * <p> 등록된 PaymentExecutor 별로 응답시간과 에러율의 EWMA 를 기록하고, 새 주문은 가중 최소 지연 (EWMA 응답시간 x (처리 중인 요청 수 + 1) / weight) 이 가장 작은 PSP 로 보낸다. </p>
+ * <li> 새 주문의 PSP 는 select() 로 고르고, 결제를 EXECUTING 으로 변경하는 트랜잭션에서 결제 (payment_events.psp_executor) 에 기록된다. </li>
+ * <li> execute() 는 결제에 기록된 PSP (PaymentConfirmCommand.pspExecutor) 로만 보낸다. 재시도와 복구, 재시작 이후에도 다른 PSP 로 보내지 않는다. (Idempotency-Key 는 PSP 별로만 유효하다.) </li>
+ * <li> 기록된 PSP 가 없는 결제 (psp_executor 컬럼이 추가되기 전에 시작된 결제) 는 legacy-executor 로 보낸다. </li>
+ * <li> 최근 에러율이 ejection-error-rate 를 넘었거나 서킷이 열린 PSP 는 새 주문을 받지 않는다. (모든 PSP 가 제외되었다면 서킷이 닫힌 PSP 중 가장 먼저 복귀할 PSP 로 보낸다.) </li>
+ * <li> PSP 요청은 PSP 별 서킷 (CircuitBreakerPolicy) 으로 감싸서, 한 PSP 의 장애가 다른 PSP 로 보내는 결제 승인을 막지 않는다. </li>
+ * <li> 에러율은 CircuitBreakerPolicy 와 같이 타임아웃, 연결 실패, PSP 내부 오류만 실패로 센다. </li>
+ * <li> payment.psp.routing.decisions: PSP 별, 이유 (least_latency, all_ejected, legacy) 별 라우팅 수 </li>
+ * <li> payment.psp.routing.latency, error_rate, in_flight, ejected: PSP 별 EWMA 응답시간, EWMA 에러율, 처리 중인 요청 수, 제외 여부 </li>
+ * <li> payment.psp.routing.ejections: PSP 별 제외된 횟수 </li>
+ */
+@Component
+public class PaymentExecutorRoutingPolicy {
+
+    private final Map<String, PaymentExecutor> paymentExecutors;
+    private final Map<String, ExecutorStats> executorStats = new LinkedHashMap<>();
+    private final CircuitBreakerPolicy circuitBreakerPolicy;
+    private final MeterRegistry meterRegistry;
+    private final String legacyExecutor;
+
+    private final double ewmaAlpha;
+    private final double ejectionErrorRate;
+    private final long ejectionMinSamples;
+    private final long ejectionNanos;
+
+    public PaymentExecutorRoutingPolicy(Map<String, PaymentExecutor> paymentExecutors,
+                                        CircuitBreakerPolicy circuitBreakerPolicy,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${payment.psp.routing.ewma-alpha:0.2}") double ewmaAlpha,
+                                        @Value("${payment.psp.routing.initial-latency:200ms}") Duration initialLatency,
+                                        @Value("${payment.psp.routing.weights:}") String weights,
+                                        @Value("${payment.psp.routing.ejection-error-rate:0.5}") double ejectionErrorRate,
+                                        @Value("${payment.psp.routing.ejection-min-samples:20}") long ejectionMinSamples,
+                                        @Value("${payment.psp.routing.ejection-duration:30s}") Duration ejectionDuration,
+                                        @Value("${payment.psp.routing.legacy-executor:tossPaymentExecutor}") String legacyExecutor) {
+
+        if (paymentExecutors.isEmpty()) {
+            throw new IllegalStateException("등록된 PaymentExecutor 가 없습니다.");
+        }
+
+        if (!paymentExecutors.containsKey(legacyExecutor)) {
+            throw new IllegalArgumentException(String.format("payment.psp.routing.legacy-executor (%s) 는 등록된 PaymentExecutor 가 아닙니다.", legacyExecutor));
+        }
+
+        this.paymentExecutors = paymentExecutors;
+        this.circuitBreakerPolicy = circuitBreakerPolicy;
+        this.meterRegistry = meterRegistry;
+        this.ewmaAlpha = ewmaAlpha;
+        this.ejectionErrorRate = ejectionErrorRate;
+        this.ejectionMinSamples = ejectionMinSamples;
+        this.ejectionNanos = ejectionDuration.toNanos();
+        this.legacyExecutor = legacyExecutor;
+
+        Map<String, Double> executorWeights = parseWeights(weights);
+
+        paymentExecutors.keySet().forEach(name -> {
+
+            ExecutorStats stats = new ExecutorStats(initialLatency.toNanos(), executorWeights.getOrDefault(name, 1.0));
+            executorStats.put(name, stats);
+
+            Gauge.builder("payment.psp.routing.latency", stats, value -> value.latencyNanos() / 1_000_000.0)
+                .description("EWMA of PSP confirm latency in milliseconds used for routing")
+                .tag("executor", name)
+                .register(meterRegistry);
+            Gauge.builder("payment.psp.routing.error_rate", stats, ExecutorStats::errorRate)
+                .description("EWMA of PSP confirm infrastructure error rate used for routing")
+                .tag("executor", name)
+                .register(meterRegistry);
+            Gauge.builder("payment.psp.routing.in_flight", stats, ExecutorStats::inFlight)
+                .description("Number of PSP confirms in flight")
+                .tag("executor", name)
+                .register(meterRegistry);
+            Gauge.builder("payment.psp.routing.ejected", stats, value -> isEjected(name, value, System.nanoTime()) ? 1 : 0)
+                .description("Whether the PSP is ejected from routing new orders")
+                .tag("executor", name)
+                .register(meterRegistry);
+        });
+    }
+
+    /**
+     * <p> 결제에 기록된 PSP 로 보내고 결과로 통계를 갱신한다. (기록된 PSP 가 등록되어 있지 않다면 다른 PSP 로 보내지 않고 에러로 끝난다.) </p>
+     * <p> 서킷이 열려서 보내지 않은 요청은 PSP 의 응답이 아니므로 통계에 기록하지 않는다. </p>
+     */
+    public Mono<PaymentExecutionResult> execute(PaymentConfirmCommand command) {
+        return Mono.defer(() -> {
+
+            String executorName = recordedExecutor(command);
+            ExecutorStats stats = executorStats.get(executorName);
+
+            if (stats == null) {
+                return Mono.error(new IllegalStateException(String.format(
+                    "결제 (orderId: %s) 에 기록된 PSP (%s) 가 등록되어 있지 않습니다.", command.getOrderId(), executorName)));
+            }
+
+            return circuitBreakerPolicy.protect(executorName, Mono.defer(() -> {
+
+                stats.start();
+                long startedAt = System.nanoTime();
+
+                return paymentExecutors.get(executorName).execute(command)
+                    .doOnSuccess(result -> stats.record(System.nanoTime() - startedAt, false))
+                    .doOnError(error -> {
+                        if (stats.record(System.nanoTime() - startedAt, CircuitBreakerPolicy.isInfrastructureFailure(error))) {
+                            meterRegistry.counter("payment.psp.routing.ejections", "executor", executorName).increment();
+                            LoggerUtil.info("PaymentExecutorRoutingPolicy", "에러율이 높은 PSP 를 라우팅에서 제외합니다.",
+                                            Map.of("executor", executorName, "errorRate", stats.errorRate()));
+                        }
+                    })
+                    .doFinally(signal -> stats.finish());
+            }));
+        });
+    }
+
+    /**
+     * 결제에 기록된 PSP 를 찾는다. (새로 고르지 않는다.)
+     */
+    private String recordedExecutor(PaymentConfirmCommand command) {
+
+        if (command.getPspExecutor() != null) {
+            return command.getPspExecutor();
+        }
+
+        meterRegistry.counter("payment.psp.routing.decisions", "executor", legacyExecutor, "reason", "legacy").increment();
+        return legacyExecutor;
+    }
+
+    /**
+     * 새 주문을 보낼 PSP 를 고른다. (고른 PSP 는 결제에 기록된 뒤에 execute() 로 전달된다.)
+     */
+    public String select() {
+
+        long now = System.nanoTime();
+
+        Map.Entry<String, ExecutorStats> selected = executorStats.entrySet().stream()
+            .filter(entry -> !isEjected(entry.getKey(), entry.getValue(), now))
+            .min(Comparator.comparingDouble(entry -> entry.getValue().score()))
+            .orElse(null);
+
+        String reason = "least_latency";
+
+        if (selected == null) {
+            // 모든 PSP 가 제외되었다면 결제 승인을 거절하지 않고 서킷이 닫힌 PSP 중 가장 먼저 복귀할 PSP 로 보낸다.
+            selected = executorStats.entrySet().stream()
+                .min(Comparator.<Map.Entry<String, ExecutorStats>, Boolean>comparing(entry -> circuitBreakerPolicy.isOpen(entry.getKey()))
+                         .thenComparingLong(entry -> entry.getValue().ejectedUntil()))
+                .orElseThrow();
+            reason = "all_ejected";
+        }
+
+        meterRegistry.counter("payment.psp.routing.decisions", "executor", selected.getKey(), "reason", reason).increment();
+
+        return selected.getKey();
+    }
+
+    /**
+     * 에러율로 제외되었거나 서킷이 열린 PSP 라면 true
+     */
+    private boolean isEjected(String executorName, ExecutorStats stats, long now) {
+        return stats.isEjected(now) || circuitBreakerPolicy.isOpen(executorName);
+    }
+
+    /**
+     * "tossPaymentExecutor:1,otherPaymentExecutor:0.5" 형식의 PaymentExecutor 빈 이름별 가중치를 읽는다. (없으면 1)
+     */
+    static Map<String, Double> parseWeights(String weights) {
+
+        Map<String, Double> parsed = new LinkedHashMap<>();
+
+        Arrays.stream(weights.split(","))
+            .map(String::trim)
+            .filter(entry -> !entry.isEmpty())
+            .forEach(entry -> {
+                String[] nameAndWeight = entry.split(":");
+                if (nameAndWeight.length != 2 || Double.parseDouble(nameAndWeight[1].trim()) <= 0) {
+                    throw new IllegalArgumentException(String.format("PSP 라우팅 가중치 (%s) 는 NAME:WEIGHT (WEIGHT > 0) 형식이어야 합니다.", entry));
+                }
+                parsed.put(nameAndWeight[0].trim(), Double.parseDouble(nameAndWeight[1].trim()));
+            });
+
+        return parsed;
+    }
+
+    /**
+     * <h4> PSP 한 곳의 라우팅 통계 </h4>
+     * <p> 여러 스레드에서 결제 승인이 끝날 때마다 갱신하므로 모든 접근을 동기화한다. </p>
+     */
+    private class ExecutorStats {
+
+        private final double weight;
+
+        private double latencyNanos;
+        private double errorRate;
+        private long samples;
+        private long ejectedUntil;
+        private int inFlight;
+
+        ExecutorStats(long initialLatencyNanos, double weight) {
+            this.latencyNanos = initialLatencyNanos;
+            this.weight = weight;
+        }
+
+        synchronized void start() {
+            inFlight++;
+        }
+
+        synchronized void finish() {
+            inFlight--;
+        }
+
+        /**
+         * @return 이번 결과로 제외되었다면 true
+         */
+        synchronized boolean record(long elapsedNanos, boolean failure) {
+
+            latencyNanos += ewmaAlpha * (elapsedNanos - latencyNanos);
+            errorRate += ewmaAlpha * ((failure ? 1.0 : 0.0) - errorRate);
+            samples++;
+
+            long now = System.nanoTime();
+
+            if (!isEjected(now) && samples >= ejectionMinSamples && errorRate > ejectionErrorRate) {
+                ejectedUntil = now + ejectionNanos;
+                // 복귀한 뒤에는 새로 모은 결과로만 다시 판단한다.
+                errorRate = 0.0;
+                samples = 0;
+                return true;
+            }
+
+            return false;
+        }
+
+        synchronized double score() {
+            return latencyNanos * (inFlight + 1) / weight;
+        }
+
+        synchronized boolean isEjected(long now) {
+            return ejectedUntil != 0 && now - ejectedUntil < 0;
+        }
+
+        synchronized long ejectedUntil() {
+            return ejectedUntil;
+        }
+
+        synchronized double latencyNanos() {
+            return latencyNanos;
+        }
+
+        synchronized double errorRate() {
+            return errorRate;
+        }
+
+        synchronized int inFlight() {
+            return inFlight;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.paymentservice.payment.adapter.out.web.toss.policy;
+
+import com.example.paymentservice.payment.adapter.out.web.toss.exception.PSPConfirmationException;
+import com.example.paymentservice.payment.application.port.in.PaymentDeadline;
+import com.example.paymentservice.payment.application.port.out.PaymentTrafficClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * <h4> PSP 호출 속도 제한 (Client-side Rate Limiter) </h4>
+ * <p> PSP 는 가맹점별로 호출량을 제한하기 때문에, 복구가 쌓인 결제를 실시간 결제 승인과 함께 보내면 제한에 걸려 실시간 결제까지 UNKNOWN 이 된다. <br>
+ *     permits-per-second 를 실시간 (LIVE) 과 복구 (RECOVERY) 몫으로 나눈 두 개의 토큰 버킷으로 PSP 호출 속도를 제한한다. </p>
+ * <li> 실시간 결제 승인은 자기 몫의 토큰이 없으면 복구 몫에서 바로 쓸 수 있는 토큰을 빌려 쓴다. (복구는 실시간 몫을 빌리지 않는다.) </li>
+ * <li> 바로 쓸 수 있는 토큰이 없으면 다음 토큰 시각까지 기다린다. (pacing) 기다리는 요청은 traffic 별 max-queue 건, max-wait 시간까지만 허용한다. </li>
+ * <li> Context 에 PaymentDeadline 이 있다면 남은 시간보다 오래 기다리지 않는다. </li>
+ * <li> 허용하지 않은 요청은 PSP 에 보내지 않고 RATE_LIMITED (UNKNOWN) 로 끝나서 복구 대상이 된다. </li>
+ * <p> 재시도와 헤지 요청은 각각의 예산 (RetryBudgetPolicy, HedgingPolicy) 으로 제한하므로 결제 승인 한 건을 토큰 하나로 센다. </p>
+ * <li> payment.psp.rate_limit.wait: traffic 별 토큰을 기다린 시간 </li>
+ * <li> payment.psp.rate_limit.rejected: traffic, reason (queue_full, wait_too_long) 별 거절 수 </li>
+ * <li> payment.psp.rate_limit.borrowed: 실시간 결제 승인이 복구 몫을 빌려 쓴 수 </li>
+ * <li> payment.psp.rate_limit.queued: traffic 별 토큰을 기다리는 요청 수 </li>
+ */
+@Component
+public class RateLimitPolicy {
+
+    public static final String RATE_LIMITED_ERROR_CODE = "RATE_LIMITED";
+
+    private final boolean enabled;
+    private final Map<PaymentTrafficClass, PacingBucket> buckets = new EnumMap<>(PaymentTrafficClass.class);
+    private final Map<PaymentTrafficClass, Timer> waitTimers = new EnumMap<>(PaymentTrafficClass.class);
+    private final Counter borrowedCounter;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitPolicy(MeterRegistry meterRegistry,
+                           @Value("${payment.psp.rate-limit.enabled:false}") boolean enabled,
+                           @Value("${payment.psp.rate-limit.permits-per-second:100}") double permitsPerSecond,
+                           @Value("${payment.psp.rate-limit.recovery-share:0.2}") double recoveryShare,
+                           @Value("${payment.psp.rate-limit.burst:1s}") Duration burst,
+                           @Value("${payment.psp.rate-limit.live.max-queue:1000}") int liveMaxQueue,
+                           @Value("${payment.psp.rate-limit.live.max-wait:2s}") Duration liveMaxWait,
+                           @Value("${payment.psp.rate-limit.recovery.max-queue:100}") int recoveryMaxQueue,
+                           @Value("${payment.psp.rate-limit.recovery.max-wait:30s}") Duration recoveryMaxWait) {
+
+        if (recoveryShare <= 0 || recoveryShare >= 1) {
+            throw new IllegalArgumentException("payment.psp.rate-limit.recovery-share 는 0 과 1 사이여야 합니다.");
+        }
+
+        this.enabled = enabled;
+        this.meterRegistry = meterRegistry;
+
+        buckets.put(PaymentTrafficClass.LIVE,
+                    new PacingBucket(permitsPerSecond * (1 - recoveryShare), burst, liveMaxQueue, liveMaxWait));
+        buckets.put(PaymentTrafficClass.RECOVERY,
+                    new PacingBucket(permitsPerSecond * recoveryShare, burst, recoveryMaxQueue, recoveryMaxWait));
+
+        buckets.forEach((trafficClass, bucket) -> {
+
+            String traffic = trafficClass.name().toLowerCase();
+
+            waitTimers.put(trafficClass, Timer.builder("payment.psp.rate_limit.wait")
+                .description("Time PSP confirms waited for a rate limit token")
+                .tag("traffic", traffic)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry));
+
+            Gauge.builder("payment.psp.rate_limit.queued", bucket, PacingBucket::queued)
+                .description("Number of PSP confirms waiting for a rate limit token")
+                .tag("traffic", traffic)
+                .register(meterRegistry);
+        });
+
+        this.borrowedCounter = Counter.builder("payment.psp.rate_limit.borrowed")
+            .description("Number of live PSP confirms sent with a token borrowed from the recovery share")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @param request 구독할 때마다 PSP 에 새로 요청하는 Mono
+     * @return 토큰을 받을 때까지 기다렸다가 구독하는 Mono (허용하지 않으면 구독하지 않고 RATE_LIMITED 에러)
+     */
+    public <T> Mono<T> throttle(Mono<T> request) {
+
+        if (!enabled) {
+            return request;
+        }
+
+        return Mono.deferContextual(context -> {
+
+            PaymentTrafficClass trafficClass = PaymentTrafficClass.from(context);
+            long deadlineNanos = PaymentDeadline.from(context)
+                .map(deadline -> deadline.remaining().toNanos())
+                .orElse(Long.MAX_VALUE);
+
+            Reservation reservation = reserve(trafficClass, deadlineNanos);
+
+            if (reservation.rejectReason() != null) {
+                meterRegistry.counter("payment.psp.rate_limit.rejected",
+                                      "traffic", trafficClass.name().toLowerCase(), "reason", reservation.rejectReason())
+                    .increment();
+                return Mono.error(rateLimited(trafficClass));
+            }
+
+            waitTimers.get(trafficClass).record(reservation.waitNanos(), TimeUnit.NANOSECONDS);
+
+            if (reservation.waitNanos() == 0) {
+                return request;
+            }
+
+            PacingBucket bucket = buckets.get(trafficClass);
+
+            return Mono.delay(Duration.ofNanos(reservation.waitNanos()))
+                .doFinally(signal -> bucket.dequeue())
+                .then(request);
+        });
+    }
+
+    private Reservation reserve(PaymentTrafficClass trafficClass, long deadlineNanos) {
+
+        long now = System.nanoTime();
+        PacingBucket bucket = buckets.get(trafficClass);
+
+        if (trafficClass == PaymentTrafficClass.LIVE) {
+
+            if (bucket.tryAcquireNow(now)) {
+                return new Reservation(0, null);
+            }
+
+            // 복구 몫에서 바로 쓸 수 있는 토큰이 있다면 기다리지 않고 빌려 쓴다.
+            if (buckets.get(PaymentTrafficClass.RECOVERY).tryAcquireNow(now)) {
+                borrowedCounter.increment();
+                return new Reservation(0, null);
+            }
+        }
+
+        return bucket.reserve(now, deadlineNanos);
+    }
+
+    private PSPConfirmationException rateLimited(PaymentTrafficClass trafficClass) {
+        return new PSPConfirmationException(
+            RATE_LIMITED_ERROR_CODE,
+            String.format("PSP 호출량 제한으로 결제 승인 요청을 보내지 않았습니다. (traffic: %s) 잠시 후 다시 확인해주세요.", trafficClass),
+            false,
+            false,
+            true,
+            false);
+    }
+
+    /**
+     * @param waitNanos    토큰을 받을 때까지 기다릴 시간
+     * @param rejectReason 허용하지 않았다면 이유 (queue_full, wait_too_long)
+     */
+    private record Reservation(long waitNanos, String rejectReason) {}
+
+    /**
+     * <h4> 대기열이 있는 토큰 버킷 </h4>
+     * <p> 토큰은 1 / permitsPerSecond 간격으로 생기고 burst 시간만큼 쌓아둘 수 있다. <br>
+     *     쌓인 토큰이 없으면 다음 토큰이 생기는 시각을 예약해서 그 시각까지 기다리게 하고, nextFreeNanos 를 예약한 시각으로 옮긴다. </p>
+     */
+    private static class PacingBucket {
+
+        private final double intervalNanos;
+        private final double maxStored;
+        private final int maxQueue;
+        private final long maxWaitNanos;
+
+        private double stored;
+        private long nextFreeNanos;
+        private int queued;
+
+        PacingBucket(double permitsPerSecond, Duration burst, int maxQueue, Duration maxWait) {
+            this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+            this.maxStored = Math.max(1.0, permitsPerSecond * burst.toNanos() / TimeUnit.SECONDS.toNanos(1));
+            this.maxQueue = maxQueue;
+            this.maxWaitNanos = maxWait.toNanos();
+            this.stored = maxStored;
+            this.nextFreeNanos = System.nanoTime();
+        }
+
+        /**
+         * @return 기다리지 않고 쓸 수 있는 토큰이 있다면 사용하고 true
+         */
+        synchronized boolean tryAcquireNow(long now) {
+
+            refill(now);
+
+            if (stored >= 1) {
+                stored -= 1;
+                return true;
+            }
+
+            return false;
+        }
+
+        synchronized Reservation reserve(long now, long deadlineNanos) {
+
+            if (tryAcquireNow(now)) {
+                return new Reservation(0, null);
+            }
+
+            if (queued >= maxQueue) {
+                return new Reservation(0, "queue_full");
+            }
+
+            // 쌓인 토큰 (1 미만) 을 포함해서 토큰 하나가 다 생기는 시각까지 기다린다. (이미 예약된 요청이 있다면 그 뒤로 밀린다.)
+            long readyAt = nextFreeNanos + (long) ((1 - stored) * intervalNanos);
+            long waitNanos = Math.max(1, readyAt - now);
+
+            if (waitNanos > Math.min(maxWaitNanos, deadlineNanos)) {
+                return new Reservation(0, "wait_too_long");
+            }
+
+            stored = 0;
+            nextFreeNanos = readyAt;
+            queued++;
+
+            return new Reservation(waitNanos, null);
+        }
+
+        synchronized void dequeue() {
+            queued--;
+        }
+
+        synchronized int queued() {
+            return queued;
+        }
+
+        /**
+         * 마지막으로 확인한 뒤 생긴 토큰을 쌓는다. (예약된 시각이 지나지 않았다면 예약된 요청이 먼저 토큰을 사용한다.)
+         */
+        private void refill(long now) {
+
+            if (now - nextFreeNanos <= 0) {
+                return;
+            }
+
+            stored = Math.min(maxStored, stored + (now - nextFreeNanos) / intervalNanos);
+            nextFreeNanos = now;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.paymentservice.payment.adapter.out.web.toss.policy;
+
+/**
+ * <h4> 요청 비율 기반 예산 (Token Bucket) </h4>
+ * <p> 원래 요청이 하나 나갈 때마다 ratio 만큼 토큰이 쌓이고, 추가 요청 (헤지, 재시도) 을 보낼 때마다 토큰 하나를 사용한다. </p>
+ * <p> 따라서 추가 요청은 장기적으로 전체 요청의 ratio 비율을 넘지 못하고, 쌓아둘 수 있는 토큰 (maxTokens) 만큼만 몰아서 보낼 수 있다. </p>
+ * <p> PSP 가 느려지거나 장애가 났을 때 추가 요청이 부하를 더 키우지 않도록 막는 용도로 사용한다. </p>
+ */
+public class RequestBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+
+    private double tokens;
+
+    /**
+     * @param ratio      원래 요청 대비 허용할 추가 요청 비율 (ex. 0.1 = 10%)
+     * @param maxTokens  쌓아둘 수 있는 최대 토큰 수 (처음에는 가득 찬 상태로 시작한다.)
+     */
+    public RequestBudget(double ratio, double maxTokens) {
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    /**
+     * 원래 요청이 나갈 때 호출한다.
+     */
+    public synchronized void deposit() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+     * @return 추가 요청을 보낼 수 있다면 토큰 하나를 사용하고 true
+     */
+    public synchronized boolean tryWithdraw() {
+
+        if (tokens < 1) {
+            return false;
+        }
+
+        tokens -= 1;
+        return true;
+    }
+
+    public synchronized double available() {
+        return tokens;
+    }
+}
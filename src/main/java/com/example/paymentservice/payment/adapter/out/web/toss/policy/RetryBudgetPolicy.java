@@ -0,0 +1,69 @@
+package com.example.paymentservice.payment.adapter.out.web.toss.policy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * <h4> PSP 결제 승인 재시도 예산 </h4>
+ * <p> PSP 가 느려지거나 장애가 나면 처리 중인 결제 승인과 복구 결제 승인이 한꺼번에 재시도하면서 PSP 부하가 몇 배로 늘어난다. <br>
+ *     결제 승인 요청 (재시도 제외) 전체가 하나의 RequestBudget 을 공유해서, 재시도는 장기적으로 결제 승인 요청의 budget-ratio 비율을 넘지 못하게 한다. </p>
+ * <li> 예산이 없으면 재시도하지 않고 마지막 에러를 바로 전달한다. (재시도 대상 에러는 UNKNOWN 으로 처리되어 복구 대상이 된다.) </li>
+ * <li> payment.psp.retry.allowed / budget_exhausted: 예산 안에서 보낸 재시도 수, 예산이 없어서 보내지 못한 재시도 수 </li>
+ * <li> payment.psp.retry.budget.available: 남아 있는 재시도 토큰 수 </li>
+ */
+@Component
+public class RetryBudgetPolicy {
+
+    private final boolean enabled;
+    private final RequestBudget budget;
+
+    private final Counter allowedCounter;
+    private final Counter budgetExhaustedCounter;
+
+    public RetryBudgetPolicy(MeterRegistry meterRegistry,
+                             @Value("${payment.psp.retry.budget.enabled:true}") boolean enabled,
+                             @Value("${payment.psp.retry.budget.ratio:0.1}") double ratio,
+                             @Value("${payment.psp.retry.budget.max-tokens:10}") double maxTokens) {
+        this.enabled = enabled;
+        this.budget = new RequestBudget(ratio, maxTokens);
+
+        this.allowedCounter = Counter.builder("payment.psp.retry.allowed")
+            .description("Number of PSP confirm retries allowed by the retry budget")
+            .register(meterRegistry);
+        this.budgetExhaustedCounter = Counter.builder("payment.psp.retry.budget_exhausted")
+            .description("Number of PSP confirm retries skipped because the retry budget was exhausted")
+            .register(meterRegistry);
+
+        Gauge.builder("payment.psp.retry.budget.available", budget, RequestBudget::available)
+            .description("Retry tokens currently available in the PSP retry budget")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 결제 승인의 첫 번째 요청을 보낼 때 호출한다.
+     */
+    public void recordAttempt() {
+        budget.deposit();
+    }
+
+    /**
+     * @return 재시도를 보낼 수 있다면 토큰 하나를 사용하고 true
+     */
+    public boolean tryRetry() {
+
+        if (!enabled) {
+            return true;
+        }
+
+        if (!budget.tryWithdraw()) {
+            budgetExhaustedCounter.increment();
+            return false;
+        }
+
+        allowedCounter.increment();
+        return true;
+    }
+}
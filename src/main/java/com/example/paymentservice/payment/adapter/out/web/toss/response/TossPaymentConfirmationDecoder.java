@@ -0,0 +1,75 @@
+package com.example.paymentservice.payment.adapter.out.web.toss.response;
+
+import com.example.paymentservice.common.ObjectMapperUtil;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import lombok.experimental.UtilityClass;
+import org.springframework.core.codec.DecodingException;
+
+/**
+ * <h4> 토스페이먼츠 결제 승인 응답 디코더 </h4>
+ * <p> 응답 바이트를 한 번만 읽으면서 결제 승인 결과에 필요한 필드만 꺼내고, 나머지 객체와 배열 (card, easyPay, cancels ...) 은 만들지 않고 건너뛴다. </p>
+ * <p> 감사 (audit) 를 위해 PSP 가 보낸 원본 JSON 을 그대로 rawData 로 함께 전달한다. </p>
+ */
+@UtilityClass
+public class TossPaymentConfirmationDecoder {
+
+    private static final JsonFactory jsonFactory = ObjectMapperUtil.getObjectMapper().getFactory();
+
+    public TossPaymentConfirmation decode(byte[] body) {
+
+        String type = null;
+        String method = null;
+        String approvedAt = null;
+        String orderName = null;
+        String status = null;
+        long totalAmount = 0L;
+
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new DecodingException("Toss payment confirmation response is not a JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+
+                String fieldName = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                switch (fieldName) {
+                    case "type" -> type = parser.getValueAsString();
+                    case "method" -> method = parser.getValueAsString();
+                    case "approvedAt" -> approvedAt = parser.getValueAsString();
+                    case "orderName" -> orderName = parser.getValueAsString();
+                    case "status" -> status = parser.getValueAsString();
+                    case "totalAmount" -> totalAmount = parser.getValueAsLong();
+                    // 사용하지 않는 필드는 객체나 배열이라면 통째로 건너뛴다.
+                    default -> {
+                        if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new DecodingException("Failed to decode Toss payment confirmation response", e);
+        }
+
+        return new TossPaymentConfirmation(
+            type, method, approvedAt, orderName, status, totalAmount, new String(body, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * <h4> 결제 승인 응답 중 결제 승인 결과에 사용하는 필드와 원본 JSON </h4>
+     */
+    public record TossPaymentConfirmation(String type,
+                                          String method,
+                                          String approvedAt,
+                                          String orderName,
+                                          String status,
+                                          long totalAmount,
+                                          String rawData) {}
+}
@@ -0,0 +1,239 @@
+package com.example.paymentservice.payment.adapter.out.web.toss.simulator;
+
+import com.example.paymentservice.common.LoggerUtil;
+import com.example.paymentservice.common.ObjectMapperUtil;
+import com.example.paymentservice.payment.adapter.out.web.toss.exception.TossPaymentError;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+/**
+ * <h4> 토스페이먼츠 결제 승인 시뮬레이터 (psp-simulator 프로파일) </h4>
+ * <p> 실제 PSP 없이 결제 승인 경로 전체의 처리량과 꼬리 지연시간을 반복해서 측정할 수 있도록 같은 프로세스 안에서 Reactor Netty 로 /v1/payments/confirm 을 제공한다. </p>
+ * <li> 응답 지연시간은 latency.median, latency.p99 를 따르는 로그 정규 분포에서 뽑고 latency.max 를 넘지 않는다. </li>
+ * <li> error-rates 에 적은 TossPaymentError 코드별 비율만큼 해당 에러 (상태 코드, code, message) 로 응답한다. </li>
+ * <li> timeout-rate 비율의 요청은 결제를 처리한 뒤 응답하지 않는다. (클라이언트의 응답 타임아웃과 재시도 검증) </li>
+ * <li> 같은 Idempotency-Key 의 요청에는 처음 결정한 결과를 그대로 응답하고, 동시에 들어온 요청도 같은 결과를 기다린다. </li>
+ * <p> application-psp-simulator.yaml 이 PSP.toss.url 을 시뮬레이터 주소로 바꾸므로 TossWebClientConfiguration 은 그대로 사용한다. </p>
+ */
+@Component
+@Profile("psp-simulator")
+public class TossPaymentSimulator {
+
+    private static final String CONFIRM_URI = "/v1/payments/confirm";
+    // 로그 정규 분포에서 p99 에 해당하는 표준 정규 분포 값
+    private static final double Z_99 = 2.326;
+
+    private final String host;
+    private final int port;
+    private final Duration latencyMedian;
+    private final Duration latencyMax;
+    private final double latencySigma;
+    private final Map<TossPaymentError, Double> errorRates;
+    private final double timeoutRate;
+    private final Cache<String, Mono<SimulatedResponse>> idempotentResponses;
+    private final MeterRegistry meterRegistry;
+
+    private DisposableServer server;
+
+    public TossPaymentSimulator(MeterRegistry meterRegistry,
+                                @Value("${payment.psp.simulator.host:localhost}") String host,
+                                @Value("${payment.psp.simulator.port:18080}") int port,
+                                @Value("${payment.psp.simulator.latency.median:50ms}") Duration latencyMedian,
+                                @Value("${payment.psp.simulator.latency.p99:300ms}") Duration latencyP99,
+                                @Value("${payment.psp.simulator.latency.max:5s}") Duration latencyMax,
+                                @Value("${payment.psp.simulator.error-rates:}") String errorRates,
+                                @Value("${payment.psp.simulator.timeout-rate:0}") double timeoutRate,
+                                @Value("${payment.psp.simulator.idempotency-ttl:10m}") Duration idempotencyTtl,
+                                @Value("${payment.psp.simulator.idempotency-max-keys:1000000}") long idempotencyMaxKeys) {
+
+        this.meterRegistry = meterRegistry;
+        this.host = host;
+        this.port = port;
+        this.latencyMedian = latencyMedian;
+        this.latencyMax = latencyMax;
+        this.latencySigma = latencyP99.compareTo(latencyMedian) > 0 && !latencyMedian.isZero()
+            ? Math.log((double) latencyP99.toNanos() / latencyMedian.toNanos()) / Z_99
+            : 0.0;
+        this.errorRates = parseErrorRates(errorRates);
+        this.timeoutRate = timeoutRate;
+        this.idempotentResponses = Caffeine.newBuilder()
+            .maximumSize(idempotencyMaxKeys)
+            .expireAfterWrite(idempotencyTtl)
+            .build();
+    }
+
+    @PostConstruct
+    void start() {
+        server = HttpServer.create()
+            .host(host)
+            .port(port)
+            .route(routes -> routes.post(CONFIRM_URI, this::confirm))
+            .bindNow();
+
+        LoggerUtil.info("TossPaymentSimulator", "PSP 시뮬레이터를 시작했습니다.",
+                        Map.of("address", host + ":" + server.port(), "errorRates", errorRates, "timeoutRate", timeoutRate));
+    }
+
+    @PreDestroy
+    void stop() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    public int port() {
+        return server.port();
+    }
+
+    private Mono<Void> confirm(HttpServerRequest request, HttpServerResponse response) {
+
+        String idempotencyKey = request.requestHeaders().get("Idempotency-Key");
+
+        return request.receive().aggregate().asByteArray()
+            .flatMap(body -> idempotencyKey == null
+                ? process(body)
+                // 같은 키의 요청은 처음 결정한 결과를 공유한다. (동시에 들어온 헤지 요청이나 재시도 포함)
+                : idempotentResponses.get(idempotencyKey, key -> process(body).cache()))
+            .flatMap(simulated -> {
+
+                if (ThreadLocalRandom.current().nextDouble() < timeoutRate) {
+                    // 결제는 처리했지만 응답을 보내지 않는다. (클라이언트가 연결을 끊으면 구독이 취소된다.)
+                    meterRegistry.counter("payment.psp.simulator.responses", "outcome", "timeout").increment();
+                    return Mono.never();
+                }
+
+                meterRegistry.counter("payment.psp.simulator.responses", "outcome", simulated.outcome()).increment();
+
+                return Mono.delay(sampleLatency())
+                    .then(response
+                              .status(simulated.status())
+                              .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                              .sendByteArray(Mono.just(simulated.body()))
+                              .then());
+            });
+    }
+
+    private Mono<SimulatedResponse> process(byte[] body) {
+        return Mono.fromCallable(() -> {
+
+            JsonNode request;
+            try {
+                request = ObjectMapperUtil.getObjectMapper().readTree(body);
+            } catch (Exception e) {
+                return failure(TossPaymentError.INVALID_REQUEST);
+            }
+
+            if (request == null || !request.hasNonNull("paymentKey") || !request.hasNonNull("orderId") || !request.hasNonNull("amount")) {
+                return failure(TossPaymentError.INVALID_REQUEST);
+            }
+
+            TossPaymentError error = sampleError();
+
+            return error != null ? failure(error) : success(request);
+        });
+    }
+
+    /**
+     * error-rates 의 누적 비율로 에러를 고른다. (고르지 못하면 결제 승인 성공)
+     */
+    private TossPaymentError sampleError() {
+
+        double random = ThreadLocalRandom.current().nextDouble();
+        double cumulative = 0.0;
+
+        for (Map.Entry<TossPaymentError, Double> errorRate : errorRates.entrySet()) {
+            cumulative += errorRate.getValue();
+            if (random < cumulative) {
+                return errorRate.getKey();
+            }
+        }
+
+        return null;
+    }
+
+    private Duration sampleLatency() {
+
+        double latencyNanos = latencyMedian.toNanos() * Math.exp(latencySigma * ThreadLocalRandom.current().nextGaussian());
+
+        return Duration.ofNanos(Math.min((long) latencyNanos, latencyMax.toNanos()));
+    }
+
+    private SimulatedResponse success(JsonNode request) throws JsonProcessingException {
+
+        String now = OffsetDateTime.now().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("version", "2022-11-16");
+        body.put("paymentKey", request.get("paymentKey").asText());
+        body.put("orderId", request.get("orderId").asText());
+        body.put("orderName", "simulated order");
+        body.put("type", "NORMAL");
+        body.put("method", "간편결제");
+        body.put("status", "DONE");
+        body.put("currency", "KRW");
+        body.put("totalAmount", request.get("amount").asLong());
+        body.put("balanceAmount", request.get("amount").asLong());
+        body.put("requestedAt", now);
+        body.put("approvedAt", now);
+        body.put("easyPay", Map.of("provider", "토스페이", "amount", request.get("amount").asLong(), "discountAmount", 0));
+
+        return new SimulatedResponse(HttpResponseStatus.OK, "success", ObjectMapperUtil.getObjectMapper().writeValueAsBytes(body));
+    }
+
+    private SimulatedResponse failure(TossPaymentError error) throws JsonProcessingException {
+        return new SimulatedResponse(
+            HttpResponseStatus.valueOf(error.getStatusCode()),
+            error.name(),
+            ObjectMapperUtil.getObjectMapper().writeValueAsBytes(Map.of("code", error.name(), "message", error.getDescription())));
+    }
+
+    /**
+     * "PROVIDER_ERROR:0.01,REJECT_CARD_COMPANY:0.02" 형식의 에러 코드별 비율을 읽는다.
+     */
+    static Map<TossPaymentError, Double> parseErrorRates(String errorRates) {
+
+        Map<TossPaymentError, Double> parsed = new LinkedHashMap<>();
+
+        Arrays.stream(errorRates.split(","))
+            .map(String::trim)
+            .filter(entry -> !entry.isEmpty())
+            .forEach(entry -> {
+                String[] codeAndRate = entry.split(":");
+                if (codeAndRate.length != 2) {
+                    throw new IllegalArgumentException(String.format("PSP 시뮬레이터 에러 비율 (%s) 은 CODE:RATE 형식이어야 합니다.", entry));
+                }
+                parsed.put(TossPaymentError.valueOf(codeAndRate[0].trim()), Double.parseDouble(codeAndRate[1].trim()));
+            });
+
+        if (parsed.values().stream().mapToDouble(Double::doubleValue).sum() > 1.0) {
+            throw new IllegalArgumentException("PSP 시뮬레이터 에러 비율의 합은 1 을 넘을 수 없습니다.");
+        }
+
+        return parsed;
+    }
+
+    private record SimulatedResponse(HttpResponseStatus status, String outcome, byte[] body) {}
+}
@@ -5,7 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-@Data @Builder
+@Data @Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class PaymentConfirmCommand {
@@ -13,4 +13,6 @@ public class PaymentConfirmCommand {
     private String paymentKey;
     private String orderId;
     private Long amount;
+    // 결제 승인을 보낼 PSP (결제를 EXECUTING 으로 변경할 때 결제에 기록된 PSP 이며, 재시도와 복구도 이 PSP 로만 보낸다.)
+    private String pspExecutor;
 }
@@ -0,0 +1,70 @@
+package com.example.paymentservice.payment.application.port.in;
+
+import java.time.Duration;
+import java.util.Optional;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * <h4> 결제 승인 전체에 주어진 시간 (Deadline) </h4>
+ * <p> 결제 승인 API 가 요청을 받을 때 정하고 Reactor Context 로 전달한다. <br>
+ *     각 단계 (상태 변경, 금액 검증, PSP 호출) 는 남은 시간만큼만 기다리고, 남은 시간이 없다면 PaymentDeadlineExceededException 으로 끝난다. </p>
+ * <p> Context 에 없다면 (복구, 테스트 등) 시간 제한 없이 실행된다. </p>
+ */
+public final class PaymentDeadline {
+
+    private static final Class<PaymentDeadline> CONTEXT_KEY = PaymentDeadline.class;
+
+    private final long expiresAtNanos;
+
+    private PaymentDeadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static PaymentDeadline after(Duration timeout) {
+        return new PaymentDeadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public static Optional<PaymentDeadline> from(ContextView context) {
+        return context.getOrEmpty(CONTEXT_KEY);
+    }
+
+    /**
+     * 하위 단계에서 deadline 을 사용하지 않도록 Context 에서 제거한다. (deadline 을 넘긴 결제를 UNKNOWN 으로 기록할 때 사용)
+     */
+    public static Context clear(Context context) {
+        return context.delete(CONTEXT_KEY);
+    }
+
+    /**
+     * <h4> 남은 시간 안에서만 실행 </h4>
+     * @param step 시간을 넘겼을 때 에러 메세지에 남길 단계 이름
+     */
+    public static <T> Mono<T> bound(Mono<T> source, String step) {
+        return Mono.deferContextual(context -> from(context)
+            .map(deadline -> deadline.isExpired()
+                ? Mono.<T>error(new PaymentDeadlineExceededException(step))
+                : source.timeout(deadline.remaining(), Mono.error(() -> new PaymentDeadlineExceededException(step))))
+            .orElse(source));
+    }
+
+    public Context writeTo(Context context) {
+        return context.put(CONTEXT_KEY, this);
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * @return 남은 시간이 duration 보다 길다면 true
+     */
+    public boolean allows(Duration duration) {
+        return remaining().compareTo(duration) > 0;
+    }
+}
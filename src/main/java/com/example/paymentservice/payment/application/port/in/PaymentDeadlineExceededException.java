@@ -0,0 +1,18 @@
+package com.example.paymentservice.payment.application.port.in;
+
+import lombok.Getter;
+
+/**
+ * <h4> 결제 승인에 주어진 시간 (PaymentDeadline) 을 넘긴 경우 </h4>
+ * <p> PSP 에서 결제가 승인되었는지 알 수 없으므로 결제는 UNKNOWN 으로 기록되고 복구 대상이 된다. </p>
+ */
+@Getter
+public class PaymentDeadlineExceededException extends RuntimeException {
+
+    private final String step;
+
+    public PaymentDeadlineExceededException(String step) {
+        super(String.format("결제 승인 시간이 초과되었습니다. (단계: %s)", step));
+        this.step = step;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.paymentservice.payment.application.port.in;
+
+/**
+ * <h4> 카프카 토픽으로 전송이 완료된 지 오래된 이벤트 메세지들을 삭제 (또는 보관) 한다. </h4>
+ */
+public interface PaymentEventMessageRetentionUsecase {
+
+    void purge();
+}
@@ -6,5 +6,14 @@ import reactor.core.publisher.Mono;
 
 public interface PaymentExecutorPort {
 
+    /**
+     * <h4> 새로 결제 승인을 시작할 PSP 를 고른다. </h4>
+     * <li> 고른 PSP 는 결제를 EXECUTING 으로 변경할 때 기록되고, 이미 다른 PSP 가 기록된 결제라면 사용되지 않는다. </li>
+     */
+    String selectExecutor();
+
+    /**
+     * @param command 결제에 기록된 PSP (pspExecutor) 를 포함한 결제 승인 요청
+     */
     Mono<PaymentExecutionResult> execute(PaymentConfirmCommand command);
 }
@@ -1,5 +1,6 @@
 package com.example.paymentservice.payment.application.port.out;
 
+import java.util.function.Supplier;
 import reactor.core.publisher.Mono;
 
 /**
@@ -10,11 +11,14 @@ public interface PaymentStatusUpdatePort {
     /**
      * <h4> NOT_STARTED -> EXECUTING 으로 변경 </h4>
      * <li> EXECUTING으로 변경함으로써 추후 복구가 가능해진다. </li>
+     * <li> 주문을 잠근 뒤 결제에 PSP 가 기록되어 있지 않을 때만 pspExecutorSelector 로 PSP 를 골라서 같은 트랜잭션에서 기록한다. </li>
+     * <li> 이미 PSP 가 기록된 결제 (UNKNOWN, EXECUTING 결제의 재시도) 는 PSP 를 고르지도, 바꾸지도 않는다. </li>
      * @param paymentKey
      * @param orderId
-     * @return
+     * @param pspExecutorSelector 결제에 기록된 PSP 가 없을 때만 호출되는 새 PSP 선택
+     * @return 결제에 기록된 PSP (이 PSP 로만 결제 승인을 보내야 한다.)
      */
-    Mono<Boolean> updatePaymentStatusToExecuting(String paymentKey, String orderId);
+    Mono<String> updatePaymentStatusToExecuting(String paymentKey, String orderId, Supplier<String> pspExecutorSelector);
 
     /**
      * 결제 상태 업데이트
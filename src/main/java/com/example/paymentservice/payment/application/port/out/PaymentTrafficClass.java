@@ -0,0 +1,25 @@
+package com.example.paymentservice.payment.application.port.out;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * <h4> PSP 호출의 트래픽 종류 </h4>
+ * <p> PaymentExecutorPort 구현체가 실시간 결제 승인과 복구 결제 승인을 구분할 수 있도록 Reactor Context 로 전달한다. </p>
+ * <p> Context 에 없다면 실시간 결제 승인 (LIVE) 으로 본다. </p>
+ */
+public enum PaymentTrafficClass {
+
+    LIVE,
+    RECOVERY;
+
+    private static final Class<PaymentTrafficClass> CONTEXT_KEY = PaymentTrafficClass.class;
+
+    public static PaymentTrafficClass from(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, LIVE);
+    }
+
+    public Context writeTo(Context context) {
+        return context.put(CONTEXT_KEY, this);
+    }
+}
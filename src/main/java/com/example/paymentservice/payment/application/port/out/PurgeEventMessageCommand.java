@@ -0,0 +1,23 @@
+package com.example.paymentservice.payment.application.port.out;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class PurgeEventMessageCommand {
+
+    // 이 시각 이전에 생성된 전송 완료 메세지만 삭제한다.
+    private LocalDateTime createdBefore;
+
+    // 한 번에 삭제할 최대 메세지 수
+    private int chunkSize;
+
+    // 청크 사이의 대기 시간
+    private Duration chunkInterval;
+
+    // 삭제하기 전에 보관 테이블로 옮길지 여부
+    private boolean archive;
+}
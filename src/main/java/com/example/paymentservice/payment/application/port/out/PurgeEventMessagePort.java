@@ -0,0 +1,18 @@
+package com.example.paymentservice.payment.application.port.out;
+
+import java.time.LocalDateTime;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface PurgeEventMessagePort {
+
+    /*
+     * <h4> 전송 완료된 메세지를 청크 단위로 삭제하고, 청크마다 삭제된 메세지 수를 발행한다. </h4>
+     */
+    Flux<Long> purgeSentEventMessages(PurgeEventMessageCommand command);
+
+    /*
+     * <h4> 아직 삭제되지 않은 가장 오래된 전송 완료 메세지의 생성 시각 </h4>
+     */
+    Mono<LocalDateTime> getOldestSentEventMessageCreatedAt();
+}
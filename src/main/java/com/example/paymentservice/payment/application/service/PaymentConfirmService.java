@@ -3,11 +3,19 @@ package com.example.paymentservice.payment.application.service;
 import com.example.paymentservice.common.Usecase;
 import com.example.paymentservice.payment.application.port.in.PaymentConfirmCommand;
 import com.example.paymentservice.payment.application.port.in.PaymentConfirmUsecase;
+import com.example.paymentservice.payment.application.port.in.PaymentDeadline;
+import com.example.paymentservice.payment.application.port.in.PaymentDeadlineExceededException;
 import com.example.paymentservice.payment.application.port.out.PaymentExecutorPort;
 import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdateCommand;
 import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdatePort;
 import com.example.paymentservice.payment.application.port.out.PaymentValidationPort;
 import com.example.paymentservice.payment.domain.PaymentConfirmationResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Mono;
 
@@ -20,28 +28,94 @@ public class PaymentConfirmService implements PaymentConfirmUsecase {
     private final PaymentExecutorPort paymentExecutorPort;
 
     private final PaymentErrorHandler paymentErrorHandler;
+    private final PaymentOrderLanes paymentOrderLanes;
+    private final MeterRegistry meterRegistry;
 
+    // orderId 별로 진행 중인 결제 승인
+    private final Map<String, InFlightConfirm> inFlightConfirms = new ConcurrentHashMap<>();
+
+    private Counter collapsedCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        collapsedCounter = Counter.builder("payment.confirm.single_flight.collapsed")
+            .description("Number of duplicate confirms that joined an in-flight confirm for the same order")
+            .register(meterRegistry);
+
+        Gauge.builder("payment.confirm.single_flight.in_flight", inFlightConfirms, Map::size)
+            .description("Number of orders with a confirm in flight")
+            .register(meterRegistry);
+    }
+
+    /**
+     * <h4> 결제 승인 (Single-Flight) </h4>
+     * <p> 더블 클릭이나 리다이렉트 재시도로 같은 주문의 결제 승인이 동시에 들어오면, 먼저 들어온 결제 승인의 결과를 함께 기다린다. <br>
+     *     따라서 중복 요청은 상태 변경 트랜잭션을 열거나 PSP 를 다시 호출하지 않는다. </p>
+     * <li> paymentKey, 금액까지 같은 요청만 합친다. 다른 요청은 그대로 실행해서 상태 변경 (Compare-And-Set) 과 금액 검증에서 걸러지도록 한다. </li>
+     * <li> 결제 승인이 끝나면 바로 제거되기 때문에 이후 요청은 새로 실행되고, 이미 처리된 결제로 응답한다. </li>
+     * <p> 실제 결제 승인은 주문별 레인 (PaymentOrderLanes) 에서 같은 주문의 복구 작업과 순서대로 실행된다. </p>
+     */
     @Override
     public Mono<PaymentConfirmationResult> confirm(PaymentConfirmCommand command) {
-         return paymentStatusUpdatePort.updatePaymentStatusToExecuting(command.getPaymentKey(), command.getOrderId())
-             .filterWhen(result -> paymentValidationPort.isValid(command.getOrderId(), command.getAmount()))
-             .then(paymentExecutorPort.execute(command))
+        return Mono.defer(() -> {
+
+            // 진행 중인 결제 승인을 꺼낸 뒤 결제 승인이 끝나고 나서 구독하더라도 다시 실행하지 않고 같은 결과를 받도록 cache() 를 사용한다.
+            InFlightConfirm candidate = new InFlightConfirm(
+                command,
+                paymentOrderLanes.execute(command.getOrderId(), () -> executeConfirm(command))
+                    .doFinally(signal -> inFlightConfirms.computeIfPresent(
+                        command.getOrderId(), (orderId, inFlight) -> inFlight.command() == command ? null : inFlight))
+                    .cache());
+
+            InFlightConfirm inFlight = inFlightConfirms.putIfAbsent(command.getOrderId(), candidate);
+
+            if (inFlight == null) {
+                return candidate.result();
+            }
+
+            if (inFlight.command().equals(command)) {
+                collapsedCounter.increment();
+                return inFlight.result();
+            }
+
+            return paymentOrderLanes.execute(command.getOrderId(), () -> executeConfirm(command));
+        });
+    }
+
+    /**
+     * <p> 결제 승인 API 가 Context 에 PaymentDeadline 을 넣었다면 각 단계는 남은 시간만큼만 기다린다. <br>
+     *     시간을 넘기면 결제를 UNKNOWN 으로 기록하는데, 이 기록은 deadline 과 상관없이 끝까지 실행한다. </p>
+     * <p> PSP 는 EXECUTING 으로 변경할 때 결제에 기록된 PSP 로만 보낸다. (PSP 가 기록되지 않은 결제일 때만 새로 고른다.) </p>
+     */
+    private Mono<PaymentConfirmationResult> executeConfirm(PaymentConfirmCommand command) {
+         return PaymentDeadline.bound(
+                 paymentStatusUpdatePort.updatePaymentStatusToExecuting(command.getPaymentKey(), command.getOrderId(), paymentExecutorPort::selectExecutor),
+                 "executing")
+             .filterWhen(pspExecutor -> PaymentDeadline.bound(paymentValidationPort.isValid(command.getOrderId(), command.getAmount()), "validation"))
+             .flatMap(pspExecutor -> PaymentDeadline.bound(paymentExecutorPort.execute(command.toBuilder().pspExecutor(pspExecutor).build()), "psp"))
              .flatMap(result ->
-                 paymentStatusUpdatePort.updatePaymentStatus(
-                     PaymentStatusUpdateCommand.builder()
-                         .paymentKey(result.getPaymentKey())
-                         .orderId(result.getOrderId())
-                         .status(result.paymentStatus())
-                         .extraDetails(result.getExtraDetails())
-                         .failure(result.getFailure())
-                         .build())
+                 PaymentDeadline.bound(
+                     paymentStatusUpdatePort.updatePaymentStatus(
+                         PaymentStatusUpdateCommand.builder()
+                             .paymentKey(result.getPaymentKey())
+                             .orderId(result.getOrderId())
+                             .status(result.paymentStatus())
+                             .extraDetails(result.getExtraDetails())
+                             .failure(result.getFailure())
+                             .build()),
+                     "status-update")
                      .thenReturn(result))
              .map(result ->
                       PaymentConfirmationResult.builder()
                           .status(result.paymentStatus())
                           .failure(result.getFailure())
                           .build())
+             .doOnError(PaymentDeadlineExceededException.class, error ->
+                 meterRegistry.counter("payment.confirm.deadline.exceeded", "step", error.getStep()).increment())
              // 에러 핸들링
-             .onErrorResume(error -> paymentErrorHandler.handlePaymentError(command, error));
+             .onErrorResume(error -> paymentErrorHandler.handlePaymentError(command, error)
+                 .contextWrite(PaymentDeadline::clear));
     }
+
+    private record InFlightConfirm(PaymentConfirmCommand command, Mono<PaymentConfirmationResult> result) {}
 }
@@ -4,6 +4,7 @@ import com.example.paymentservice.payment.adapter.out.persistent.exception.Payme
 import com.example.paymentservice.payment.adapter.out.persistent.exception.PaymentValidationException;
 import com.example.paymentservice.payment.adapter.out.web.toss.exception.PSPConfirmationException;
 import com.example.paymentservice.payment.application.port.in.PaymentConfirmCommand;
+import com.example.paymentservice.payment.application.port.in.PaymentDeadlineExceededException;
 import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdateCommand;
 import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdatePort;
 import com.example.paymentservice.payment.domain.PaymentConfirmationResult;
@@ -39,6 +40,10 @@ public class PaymentErrorHandler {
         } else if (error instanceof PaymentValidationException e) {
             status = PaymentStatus.FAILURE;
             failure = new PaymentFailure(e.getClass().getSimpleName(), Optional.ofNullable(e.getMessage()).orElse(""));
+        } else if (error instanceof PaymentDeadlineExceededException e) {
+            // 주어진 시간 안에 PSP 의 결과를 받지 못했으므로 복구 대상으로 남긴다.
+            status = PaymentStatus.UNKNOWN;
+            failure = new PaymentFailure(e.getClass().getSimpleName(), Optional.ofNullable(e.getMessage()).orElse(""));
         } else if (error instanceof TimeoutException e) {
             status = PaymentStatus.UNKNOWN;
             failure = new PaymentFailure(e.getClass().getSimpleName(), Optional.ofNullable(e.getMessage()).orElse(""));
@@ -0,0 +1,100 @@
+package com.example.paymentservice.payment.application.service;
+
+import com.example.paymentservice.common.LoggerUtil;
+import com.example.paymentservice.common.Usecase;
+import com.example.paymentservice.payment.application.port.in.PaymentEventMessageRetentionUsecase;
+import com.example.paymentservice.payment.application.port.out.PurgeEventMessageCommand;
+import com.example.paymentservice.payment.application.port.out.PurgeEventMessagePort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * <h4> 아웃박스 보관 주기 관리 </h4>
+ * <p> 전송 완료 (SUCCESS) 된 메세지는 더 이상 릴레이 대상이 아니지만 계속 쌓이면 미전송 메세지 조회가 점점 느려진다. </p>
+ * <p> 보관 기간이 지난 메세지를 작은 청크 단위로 나눠서 삭제하고, 청크 사이에 쉬어서 실시간 요청과 락 경합이 길어지지 않도록 한다. </p>
+ * <li> payment.outbox.retention.purged: 삭제된 메세지 수 </li>
+ * <li> payment.outbox.retention.lag: 보관 기간이 지났는데도 아직 삭제되지 않은 가장 오래된 메세지의 지연 시간 (초) </li>
+ */
+@Usecase
+@RequiredArgsConstructor
+public class PaymentEventMessageRetentionService implements PaymentEventMessageRetentionUsecase {
+
+    private final PurgeEventMessagePort purgeEventMessagePort;
+    private final MeterRegistry meterRegistry;
+
+    private static final Scheduler scheduler = Schedulers.newSingle("message-retention");
+
+    // 재진입 방지 플래그
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final AtomicLong lagSeconds = new AtomicLong(0);
+
+    @Value("${payment.outbox.retention.enabled:true}") private boolean enabled;
+    @Value("${payment.outbox.retention.retention-period:7d}") private Duration retentionPeriod;
+    @Value("${payment.outbox.retention.chunk-size:500}") private int chunkSize;
+    @Value("${payment.outbox.retention.chunk-interval:100ms}") private Duration chunkInterval;
+    @Value("${payment.outbox.retention.archive:false}") private boolean archive;
+
+    private Counter purgedCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        purgedCounter = Counter.builder("payment.outbox.retention.purged")
+            .description("Number of sent outbox messages purged")
+            .register(meterRegistry);
+
+        Gauge.builder("payment.outbox.retention.lag", lagSeconds, AtomicLong::get)
+            .description("Age beyond the retention period of the oldest sent outbox message")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelay = 600, initialDelay = 100, timeUnit = TimeUnit.SECONDS)
+    @Override
+    public void purge() {
+
+        if (!enabled || running.getAndSet(true)) {
+            return;
+        }
+
+        LocalDateTime createdBefore = LocalDateTime.now().minus(retentionPeriod);
+
+        PurgeEventMessageCommand command = PurgeEventMessageCommand.builder()
+            .createdBefore(createdBefore)
+            .chunkSize(chunkSize)
+            .chunkInterval(chunkInterval)
+            .archive(archive)
+            .build();
+
+        purgeEventMessagePort.purgeSentEventMessages(command)
+            .doOnNext(purged -> purgedCounter.increment(purged))
+            .then(updateLag(createdBefore))
+            .onErrorResume(error -> {
+                LoggerUtil.error("messageRetention", "failed to purge sent event messages", error);
+                return Mono.empty();
+            })
+            .doFinally(signal -> running.set(false))
+            .subscribeOn(scheduler)
+            .subscribe();
+    }
+
+    private Mono<Long> updateLag(LocalDateTime createdBefore) {
+        return purgeEventMessagePort.getOldestSentEventMessageCreatedAt()
+            .map(oldest -> Math.max(0, Duration.between(oldest, createdBefore).toSeconds()))
+            .defaultIfEmpty(0L)
+            .doOnNext(lagSeconds::set);
+    }
+}
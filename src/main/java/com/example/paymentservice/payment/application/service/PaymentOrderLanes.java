@@ -0,0 +1,160 @@
+package com.example.paymentservice.payment.application.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * <h4> 주문별 직렬 실행 레인 </h4>
+ * <p> 같은 주문의 결제 승인과 복구가 동시에 상태를 변경하면 같은 payment_orders 행의 락을 두고 경합하거나 데드락이 발생한다. </p>
+ * <p> orderId 의 해시로 N 개 (기본값: 코어 수) 의 단일 스레드 레인 중 하나를 고르고, 레인 안에서 같은 주문의 작업은 앞선 작업이 끝난 뒤에 시작한다. </p>
+ * <li> 같은 주문: 들어온 순서대로 하나씩 실행되므로 데이터베이스 락 대기 없이 애플리케이션에서 순서가 정해진다. </li>
+ * <li> 다른 주문: 같은 레인이더라도 서로 기다리지 않고 동시에 실행된다. (레인 스레드는 작업 순서만 관리하고 I/O 를 기다리지 않는다.) </li>
+ * <p> 이미 시작된 작업은 구독이 취소되더라도 끝까지 실행해서 다음 작업이 중간 상태를 보지 않도록 하고, 시작 전에 취소된 작업은 건너뛴다. </p>
+ * <li> payment.lanes.queue.depth: 레인별로 순서를 기다리는 작업 수 </li>
+ * <li> payment.lanes.wait: 작업이 레인에 들어와서 시작되기까지 기다린 시간 </li>
+ * <p> payment.lanes.enabled 가 false 라면 작업을 바로 실행한다. </p>
+ */
+@Component
+public class PaymentOrderLanes {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int laneCount;
+
+    private final List<Lane> lanes = new ArrayList<>();
+
+    public PaymentOrderLanes(MeterRegistry meterRegistry,
+                             @Value("${payment.lanes.enabled:false}") boolean enabled,
+                             @Value("${payment.lanes.count:0}") int laneCount) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.laneCount = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+    }
+
+    @PostConstruct
+    void start() {
+
+        if (!enabled) {
+            return;
+        }
+
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new Lane(i));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        lanes.forEach(lane -> lane.scheduler.dispose());
+    }
+
+    /**
+     * orderId 에 해당하는 레인에서 같은 주문의 앞선 작업이 모두 끝난 뒤에 작업을 실행한다.
+     */
+    public <T> Mono<T> execute(String orderId, Supplier<Mono<T>> operation) {
+
+        if (!enabled) {
+            return Mono.defer(operation);
+        }
+
+        return lanes.get(Math.floorMod(orderId.hashCode(), lanes.size())).submit(orderId, operation);
+    }
+
+    private class Lane {
+
+        private final Scheduler scheduler;
+        private final Timer waitTimer;
+        private final AtomicInteger depth = new AtomicInteger();
+
+        // 실행 중인 작업이 있는 주문과 그 뒤에서 기다리는 작업들 (레인 스레드에서만 접근한다.)
+        private final Map<String, Deque<Runnable>> waitingTasks = new HashMap<>();
+
+        Lane(int index) {
+            this.scheduler = Schedulers.newSingle("payment-lane-" + index);
+            this.waitTimer = Timer.builder("payment.lanes.wait")
+                .description("Time an operation waited in its lane before starting")
+                .tag("lane", String.valueOf(index))
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+            Gauge.builder("payment.lanes.queue.depth", depth, AtomicInteger::get)
+                .description("Number of operations waiting in the lane")
+                .tag("lane", String.valueOf(index))
+                .register(meterRegistry);
+        }
+
+        <T> Mono<T> submit(String orderId, Supplier<Mono<T>> operation) {
+            return Mono.create(sink -> {
+
+                long enqueuedAt = System.nanoTime();
+                AtomicBoolean cancelled = new AtomicBoolean(false);
+                sink.onCancel(() -> cancelled.set(true));
+
+                depth.incrementAndGet();
+
+                Runnable task = () -> {
+
+                    depth.decrementAndGet();
+                    waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+
+                    if (cancelled.get()) {
+                        next(orderId);
+                        return;
+                    }
+
+                    Mono.defer(operation)
+                        .doFinally(signal -> scheduler.schedule(() -> next(orderId)))
+                        // 구독자의 Context (ex. PaymentDeadline) 를 레인에서 실행하는 작업에도 전달한다.
+                        .contextWrite(sink.contextView())
+                        .subscribe(sink::success, sink::error, sink::success);
+                };
+
+                scheduler.schedule(() -> enqueue(orderId, task));
+            });
+        }
+
+        private void enqueue(String orderId, Runnable task) {
+
+            Deque<Runnable> tasks = waitingTasks.get(orderId);
+
+            if (tasks == null) {
+                waitingTasks.put(orderId, new ArrayDeque<>());
+                task.run();
+                return;
+            }
+
+            tasks.add(task);
+        }
+
+        private void next(String orderId) {
+
+            Deque<Runnable> tasks = waitingTasks.get(orderId);
+            Runnable task = tasks.poll();
+
+            if (task == null) {
+                waitingTasks.remove(orderId);
+                return;
+            }
+
+            task.run();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.paymentservice.payment.application.service;
 
+import com.example.paymentservice.common.LoggerUtil;
 import com.example.paymentservice.common.Usecase;
 import com.example.paymentservice.payment.application.port.in.PaymentConfirmCommand;
 import com.example.paymentservice.payment.application.port.in.PaymentRecoveryUsecase;
@@ -7,10 +8,18 @@ import com.example.paymentservice.payment.application.port.out.LoadPendingPaymen
 import com.example.paymentservice.payment.application.port.out.PaymentExecutorPort;
 import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdateCommand;
 import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdatePort;
+import com.example.paymentservice.payment.application.port.out.PaymentTrafficClass;
 import com.example.paymentservice.payment.application.port.out.PaymentValidationPort;
+import com.example.paymentservice.payment.domain.PaymentStatus;
+import com.example.paymentservice.payment.domain.PendingPaymentEvent;
+import java.time.Duration;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
@@ -25,34 +34,65 @@ public class PaymentRecoveryService implements PaymentRecoveryUsecase {
     private final PaymentStatusUpdatePort paymentStatusUpdatePort;
 
     private final PaymentErrorHandler paymentErrorHandler;
+    private final PaymentOrderLanes paymentOrderLanes;
 
     private static final Scheduler scheduler = Schedulers.newSingle("recovery");
 
+    // 재진입 방지 플래그 (이전 복구 스캔이 끝나지 않았다면 다음 스케줄은 건너뛴다.)
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // 동시에 복구를 진행할 결제 수
+    @Value("${payment.recovery.concurrency:2}")
+    private int concurrency;
+
+    // 초당 복구를 시도할 최대 결제 수 (0 이하라면 제한하지 않는다.)
+    @Value("${payment.recovery.max-payments-per-second:50}")
+    private int maxPaymentsPerSecond;
+
     @Scheduled(fixedDelay = 180, initialDelay = 100, timeUnit = TimeUnit.SECONDS)
     @Override
     public void recovery() {
+
+        if (running.getAndSet(true)) {
+            return;
+        }
+
         loadPendingPaymentPort.getPendingPayments()
-        .map(it ->
+            .transform(this::throttle)
+            .map(it ->
                  PaymentConfirmCommand.builder()
                      .paymentKey(it.getPaymentKey())
                      .orderId(it.getOrderId())
                      .amount(it.totalAmount())
+                     // 결제 승인을 시작할 때 기록된 PSP 로만 다시 보낸다.
+                     .pspExecutor(it.getPspExecutor())
                      .build()
             )
-            .parallel(2)
-            .runOn(Schedulers.parallel())
-            .flatMap(command ->
+            // 레일마다 한 건씩만 요청하고 처리해서 동시에 진행되는 복구 건수를 concurrency 로 제한하고,
+            // 처리 중인 건수 이상으로 미처리 결제를 미리 당겨오지 않는다.
+            .parallel(concurrency, 1)
+            .runOn(Schedulers.parallel(), 1)
+            // 같은 주문의 실시간 결제 승인과 동시에 상태를 변경하지 않도록 주문별 레인에서 순서대로 실행한다.
+            .flatMap(command -> paymentOrderLanes.execute(command.getOrderId(), () ->
                  paymentValidationPort.isValid(command.getOrderId(), command.getAmount()).thenReturn(command)
-                     .flatMap(paymentExecutorPort::execute)
-                     .flatMap(it -> paymentStatusUpdatePort.updatePaymentStatus(PaymentStatusUpdateCommand.ofExecutionResult(it)).thenReturn(it))
-                     .onErrorResume(error -> paymentErrorHandler.handlePaymentError(command, error).then(Mono.error(error)))
+                     // 실시간 결제 승인이 PSP 호출량 (RateLimitPolicy) 을 먼저 사용할 수 있도록 복구 결제 승인임을 알린다.
+                     .flatMap(it -> paymentExecutorPort.execute(it).contextWrite(PaymentTrafficClass.RECOVERY::writeTo))
+                     .flatMap(it -> paymentStatusUpdatePort.updatePaymentStatus(PaymentStatusUpdateCommand.ofExecutionResult(it))
+                         .thenReturn(RecoveryResult.recovered(command.getOrderId(), it.paymentStatus())))
+                     // 한 건의 실패로 전체 복구 스캔이 중단되지 않도록 실패를 결과로 바꾸고 다음 결제를 계속 처리한다.
+                     .onErrorResume(error -> paymentErrorHandler.handlePaymentError(command, error)
+                         .map(result -> RecoveryResult.failed(command.getOrderId(), result.getStatus(), error))
+                         // 실패한 상태를 기록하지 못했다면 상태 없이 실패로 남긴다.
+                         .onErrorResume(handlerError -> Mono.just(RecoveryResult.failed(command.getOrderId(), null, handlerError))))),
+                 false, 1, 1
             )
             .sequential()   // 병렬로 처리된 데이터를 하나의 Flux 로 합친다.
-            .doOnEach(it -> {
-                if (it.hasError() && !it.isOnComplete()) {
-                    System.out.println("recovery failure, orderId: " + (it.get() != null ? it.get().getOrderId() : null));
+            .doOnNext(result -> {
+                if (result.error() == null) {
+                    LoggerUtil.info("recovery", "recovery success, orderId: " + result.orderId() + ", status: " + result.status(),
+                                    Map.of("orderId", result.orderId(), "status", String.valueOf(result.status())));
                 } else {
-                    System.out.println("recovery success, orderId: " + (it.get() != null ? it.get().getOrderId() : null));
+                    LoggerUtil.error("recovery", "recovery failure, orderId: " + result.orderId() + ", status: " + result.status(), result.error());
                 }
             })
             // 중요한 처리 작업을 시스템에 다른 부분에 영향을 주지않도록 격리하는 방법을 bulk-head 패턴이라고 한다.
@@ -60,7 +100,36 @@ public class PaymentRecoveryService implements PaymentRecoveryUsecase {
             // 만약 스케줄러를 공용으로 사용한다면, 리소스에 대한 경합이 발생해서 충분한 CPU를 얻지못하는 문제가 발생하거나
             // 하나의 작업 처리중에 발생한 예외로 인해서 스케줄러의 다른 작업으로 전파되서 해당 작업에 영향을 미칠 수 있다.
             // 따라서 시스템의 안정성을 위해서 각 작업마다 격리하는게 중요하다.
+            .doFinally(signal -> running.set(false))
             .subscribeOn(scheduler)
             .subscribe();    // 병렬 데이터 스트림을 끝내고 이 스트림을 처리할 수 있도록 구독 한다.
     }
+
+    /**
+     * <h4> 복구 속도 제한 </h4>
+     * <p> 장애 이후 쌓인 대량의 미처리 결제를 한꺼번에 PSP 로 보내지 않도록 일정한 간격으로 흘려보낸다. </p>
+     */
+    private Flux<PendingPaymentEvent> throttle(Flux<PendingPaymentEvent> pendingPayments) {
+
+        if (maxPaymentsPerSecond <= 0) {
+            return pendingPayments;
+        }
+
+        return pendingPayments.delayElements(Duration.ofSeconds(1).dividedBy(maxPaymentsPerSecond), scheduler);
+    }
+
+    /**
+     * @param status 복구 후 결제 상태 (실패한 상태를 기록하지 못했다면 null)
+     * @param error  복구에 실패했다면 원인
+     */
+    private record RecoveryResult(String orderId, PaymentStatus status, Throwable error) {
+
+        static RecoveryResult recovered(String orderId, PaymentStatus status) {
+            return new RecoveryResult(orderId, status, null);
+        }
+
+        static RecoveryResult failed(String orderId, PaymentStatus status, Throwable error) {
+            return new RecoveryResult(orderId, status, error);
+        }
+    }
 }
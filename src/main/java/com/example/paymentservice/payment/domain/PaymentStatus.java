@@ -1,6 +1,8 @@
 package com.example.paymentservice.payment.domain;
 
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
@@ -23,4 +25,17 @@ public enum PaymentStatus {
             .orElseThrow(
                 () -> new IllegalArgumentException(String.format("PaymentStatus: %s 는 올바르지 않은 결제 타입입니다.", status)));
     }
+
+    /**
+     * <h4> 해당 상태로 변경될 수 있는 이전 결제 상태 목록 </h4>
+     * <li> 결제 상태 변경 시 WHERE 조건으로 사용되기 때문에 이 목록에 없는 상태의 결제는 변경되지 않는다. </li>
+     */
+    public Set<PaymentStatus> allowedPreviousStatuses() {
+        return switch (this) {
+            case NOT_STARTED -> EnumSet.noneOf(PaymentStatus.class);
+            case EXECUTING -> EnumSet.of(NOT_STARTED, UNKNOWN, EXECUTING);
+            case SUCCESS -> EnumSet.of(EXECUTING, UNKNOWN);
+            case FAILURE, UNKNOWN -> EnumSet.of(NOT_STARTED, EXECUTING, UNKNOWN);
+        };
+    }
 }
@@ -14,6 +14,8 @@ public class PendingPaymentEvent {
     private Long paymentEventId;
     private String paymentKey;
     private String orderId;
+    // 결제 승인을 시작할 때 기록된 PSP (기록되기 전에 생성된 결제라면 null)
+    private String pspExecutor;
     private List<PendingPaymentOrder> pendingPaymentOrders;
 
     public Long totalAmount() {
@@ -0,0 +1,57 @@
+package com.example.paymentservice.payment.adapter.in.web.async;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.paymentservice.payment.adapter.in.web.async.PaymentConfirmTracker.TrackedConfirmation;
+import com.example.paymentservice.payment.domain.PaymentConfirmationResult;
+import com.example.paymentservice.payment.domain.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class PaymentConfirmTrackerTest {
+
+    private final PaymentConfirmTracker paymentConfirmTracker =
+        new PaymentConfirmTracker(new SimpleMeterRegistry(), Duration.ofMinutes(10), 1000);
+
+    @Test
+    void should_track_confirmation_until_it_completes() {
+        String orderId = UUID.randomUUID().toString();
+        Sinks.One<PaymentConfirmationResult> confirmation = Sinks.one();
+
+        assertThat(paymentConfirmTracker.start(orderId, confirmation.asMono())).isTrue();
+        // 진행 중인 결제 승인이 있다면 새로 시작하지 않는다.
+        assertThat(paymentConfirmTracker.start(orderId, Mono.error(new IllegalStateException("duplicate")))).isFalse();
+
+        TrackedConfirmation tracked = paymentConfirmTracker.get(orderId).orElseThrow();
+        assertThat(tracked.result()).isEmpty();
+
+        Mono<PaymentConfirmationResult> awaited = tracked.awaitResult();
+        confirmation.tryEmitValue(PaymentConfirmationResult.builder().status(PaymentStatus.SUCCESS).build());
+
+        assertThat(awaited.block(Duration.ofSeconds(1)).getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(tracked.result()).get().extracting(PaymentConfirmationResult::getStatus).isEqualTo(PaymentStatus.SUCCESS);
+        // 끝난 결제 승인이라도 결과를 다시 구독할 수 있다.
+        assertThat(tracked.awaitResult().block(Duration.ofSeconds(1)).getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+    }
+
+    @Test
+    void should_record_unexpected_error_as_UNKNOWN() {
+        String orderId = UUID.randomUUID().toString();
+
+        paymentConfirmTracker.start(orderId, Mono.error(new IllegalStateException("unexpected")));
+
+        PaymentConfirmationResult result = paymentConfirmTracker.get(orderId).orElseThrow().result().orElseThrow();
+
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.UNKNOWN);
+        assertThat(result.getFailure().getErrorCode()).isEqualTo(IllegalStateException.class.getSimpleName());
+    }
+
+    @Test
+    void should_return_empty_for_untracked_order() {
+        assertThat(paymentConfirmTracker.get(UUID.randomUUID().toString())).isEmpty();
+    }
+}
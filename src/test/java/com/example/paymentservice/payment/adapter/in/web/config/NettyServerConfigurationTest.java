@@ -0,0 +1,16 @@
+package com.example.paymentservice.payment.adapter.in.web.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class NettyServerConfigurationTest {
+
+    @Test
+    void should_group_order_id_paths_in_uri_tag() {
+        assertThat(NettyServerConfiguration.uriTag("/v1/toss/payments/order-1")).isEqualTo("/v1/toss/payments/{orderId}");
+        assertThat(NettyServerConfiguration.uriTag("/v1/toss/payments/order-1/events")).isEqualTo("/v1/toss/payments/{orderId}/events");
+        assertThat(NettyServerConfiguration.uriTag("/?cartId=1&seed=abc")).isEqualTo("/");
+        assertThat(NettyServerConfiguration.uriTag("/v1/toss/confirm")).isEqualTo("/v1/toss/confirm");
+    }
+}
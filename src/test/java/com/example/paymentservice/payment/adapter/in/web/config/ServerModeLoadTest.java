@@ -0,0 +1,104 @@
+package com.example.paymentservice.payment.adapter.in.web.config;
+
+import com.example.paymentservice.PaymentServiceApplication;
+import com.example.paymentservice.payment.test.BenchmarkRunner;
+import com.example.paymentservice.payment.test.BenchmarkRunner.BenchmarkResult;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * <h4> 서버 모드 부하 테스트 </h4>
+ * <p> 같은 애플리케이션을 Reactor Netty (reactive) 와 Tomcat (servlet) 모드로 각각 띄우고, 동시 연결 수를 늘려가며 TPS, p50/p99, 연결당 메모리, 스레드 수를 비교한다. </p>
+ * <p> 요청은 데이터베이스를 거치지 않는 결제 승인 상태 조회 API (404) 를 사용해서 서버 스택의 차이만 측정한다. </p>
+ * <p> 클라이언트도 같은 JVM 에서 실행되므로 연결당 메모리에는 클라이언트 연결도 포함되지만, 두 모드에서 같은 클라이언트를 사용하기 때문에 차이는 서버에서 생긴다. </p>
+ */
+@Tag("TooLongTime")
+class ServerModeLoadTest {
+
+    private static final int[] CONNECTIONS = {100, 1000, 4000};
+    private static final int REQUESTS_PER_CONNECTION = 10;
+
+    @Test
+    void compare_reactive_and_servlet_server_modes() {
+
+        List<LoadResult> results = new ArrayList<>();
+
+        for (int connections : CONNECTIONS) {
+            results.add(run("reactive", connections));
+            results.add(run("servlet", connections));
+        }
+
+        results.forEach(System.out::println);
+    }
+
+    private LoadResult run(String webApplicationType, int connections) {
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PaymentServiceApplication.class)
+            .properties(
+                "spring.main.web-application-type=" + webApplicationType,
+                "server.port=0",
+                "server.tomcat.max-connections=" + (connections * 2))
+            .run()) {
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            ConnectionProvider connectionProvider = ConnectionProvider.builder("server-mode-load-test")
+                .maxConnections(connections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+
+            HttpClient httpClient = HttpClient.create(connectionProvider).baseUrl("http://localhost:" + port);
+
+            try {
+                MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+                long heapBefore = usedHeapAfterGc(memoryMXBean);
+
+                // 워밍업에서 연결 수만큼 동시에 요청해서 모든 연결을 열고, 측정하는 동안 keep-alive 로 재사용한다.
+                BenchmarkResult result = BenchmarkRunner.run(
+                    webApplicationType + "-" + connections, connections, connections * REQUESTS_PER_CONNECTION, connections,
+                    i -> getConfirmation(httpClient));
+
+                // 연결이 열려 있는 상태에서 측정한다.
+                long heapAfter = usedHeapAfterGc(memoryMXBean);
+
+                return new LoadResult(
+                    result,
+                    Math.max(0, heapAfter - heapBefore) / connections,
+                    ManagementFactory.getThreadMXBean().getThreadCount());
+            } finally {
+                connectionProvider.disposeLater().block();
+            }
+        }
+    }
+
+    private Mono<Integer> getConfirmation(HttpClient httpClient) {
+        return httpClient.get()
+            .uri("/v1/toss/payments/" + UUID.randomUUID())
+            .responseSingle((response, body) -> body.then(Mono.just(response.status().code())));
+    }
+
+    private long usedHeapAfterGc(MemoryMXBean memoryMXBean) {
+        System.gc();
+        return memoryMXBean.getHeapMemoryUsage().getUsed();
+    }
+
+    private record LoadResult(BenchmarkResult result, long heapBytesPerConnection, int threadCount) {
+
+        @Override
+        public String toString() {
+            return String.format("%s, heap: %dKB/connection, threads: %d",
+                                 result, heapBytesPerConnection / 1024, threadCount);
+        }
+    }
+}
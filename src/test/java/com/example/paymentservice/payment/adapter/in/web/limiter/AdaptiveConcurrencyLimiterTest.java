@@ -0,0 +1,57 @@
+package com.example.paymentservice.payment.adapter.in.web.limiter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.paymentservice.payment.adapter.in.web.limiter.AdaptiveConcurrencyLimiter.Permit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void should_reject_requests_above_the_limit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(meterRegistry, true, 5, 5, 100, 1.5);
+
+        List<Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            permits.add(limiter.tryAcquire().orElseThrow());
+        }
+
+        Optional<Permit> rejected = limiter.tryAcquire();
+
+        assertThat(rejected).isEmpty();
+        assertThat(meterRegistry.get("payment.confirm.limiter.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("payment.confirm.limiter.in_flight").gauge().value()).isEqualTo(5);
+
+        permits.get(0).success();
+        // 두 번 반납해도 한 번만 반영된다.
+        permits.get(0).dropped();
+
+        assertThat(limiter.tryAcquire()).isPresent();
+    }
+
+    @Test
+    void should_decrease_the_limit_when_requests_are_dropped() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(meterRegistry, true, 50, 5, 100, 1.5);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire().orElseThrow().dropped();
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(50).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    void should_not_limit_requests_when_disabled() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(meterRegistry, false, 5, 5, 100, 1.5);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire()).isPresent();
+        }
+    }
+}
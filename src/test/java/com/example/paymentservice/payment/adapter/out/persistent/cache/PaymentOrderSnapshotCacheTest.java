@@ -0,0 +1,74 @@
+package com.example.paymentservice.payment.adapter.out.persistent.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.paymentservice.payment.domain.PaymentEvent;
+import com.example.paymentservice.payment.domain.PaymentOrder;
+import com.example.paymentservice.payment.domain.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+class PaymentOrderSnapshotCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final PaymentOrderSnapshotCache paymentOrderSnapshotCache =
+        new PaymentOrderSnapshotCache(meterRegistry, true, DataSize.ofMegabytes(1), Duration.ofMinutes(30));
+
+    @Test
+    void should_cache_total_amount_and_status_of_saved_order() {
+        PaymentEvent paymentEvent = createPaymentEvent();
+
+        paymentOrderSnapshotCache.put(paymentEvent);
+        PaymentOrderSnapshot snapshot = paymentOrderSnapshotCache.get(paymentEvent.getOrderId());
+
+        assertThat(snapshot).isNotNull();
+        assertThat(snapshot.totalAmount()).isEqualTo(paymentEvent.totalAmount());
+        assertThat(snapshot.status()).isEqualTo(PaymentStatus.NOT_STARTED);
+        assertThat(snapshot.isDone()).isFalse();
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "payment.order.snapshot").tag("result", "hit").functionCounter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void should_not_overwrite_done_status() {
+        PaymentEvent paymentEvent = createPaymentEvent();
+        paymentOrderSnapshotCache.put(paymentEvent);
+
+        paymentOrderSnapshotCache.updateStatus(paymentEvent.getOrderId(), PaymentStatus.EXECUTING);
+        paymentOrderSnapshotCache.updateStatus(paymentEvent.getOrderId(), PaymentStatus.SUCCESS);
+        paymentOrderSnapshotCache.updateStatus(paymentEvent.getOrderId(), PaymentStatus.EXECUTING);
+
+        PaymentOrderSnapshot snapshot = paymentOrderSnapshotCache.get(paymentEvent.getOrderId());
+
+        assertThat(snapshot.status()).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(snapshot.isDone()).isTrue();
+    }
+
+    @Test
+    void should_not_add_unknown_order_on_status_update() {
+        String orderId = UUID.randomUUID().toString();
+
+        paymentOrderSnapshotCache.updateStatus(orderId, PaymentStatus.FAILURE);
+
+        assertThat(paymentOrderSnapshotCache.get(orderId)).isNull();
+    }
+
+    private PaymentEvent createPaymentEvent() {
+        String orderId = UUID.randomUUID().toString();
+
+        return PaymentEvent.builder()
+            .buyerId(1L)
+            .orderId(orderId)
+            .orderName("test_order_name")
+            .paymentOrders(List.of(
+                PaymentOrder.builder().sellerId(1L).productId(1L).orderId(orderId).amount(BigDecimal.valueOf(10000)).paymentStatus(PaymentStatus.NOT_STARTED).build(),
+                PaymentOrder.builder().sellerId(1L).productId(2L).orderId(orderId).amount(BigDecimal.valueOf(20000)).paymentStatus(PaymentStatus.NOT_STARTED).build()))
+            .build();
+    }
+}
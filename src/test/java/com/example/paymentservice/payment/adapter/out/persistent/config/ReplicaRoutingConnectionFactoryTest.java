@@ -0,0 +1,76 @@
+package com.example.paymentservice.payment.adapter.out.persistent.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+/**
+ * 복제본 대신 같은 MySQL 의 별도 스키마 (test_replica) 를 사용한다.
+ */
+@Tag("ExternalIntegration")
+@SpringBootTest(properties = {
+    "payment.persistence.replica.enabled=true",
+    "payment.persistence.replica.url=r2dbc:mysql://localhost:3306/test_replica"
+})
+class ReplicaRoutingConnectionFactoryTest {
+
+    private static final String SELECT_DATABASE_QUERY = "SELECT DATABASE() AS db";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        // 첫 번째 복제 지연 확인이 끝날 때까지 기다린다.
+        for (int i = 0; i < 50 && !replicaLagMonitor.isAvailable(); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(replicaLagMonitor.isAvailable()).isTrue();
+    }
+
+    @Test
+    void should_route_replica_eligible_queries_to_replica() {
+
+        String database = selectDatabase()
+            .contextWrite(QueryRoute.REPLICA.context())
+            .block();
+
+        assertThat(database).isEqualTo("test_replica");
+    }
+
+    @Test
+    void should_route_unmarked_queries_to_primary() {
+
+        String database = selectDatabase().block();
+
+        assertThat(database).isEqualTo("test");
+    }
+
+    @Test
+    void should_route_queries_in_transaction_to_primary() {
+
+        String database = selectDatabase()
+            .contextWrite(QueryRoute.REPLICA.context())
+            .as(transactionalOperator::transactional)
+            .block();
+
+        assertThat(database).isEqualTo("test");
+    }
+
+    private Mono<String> selectDatabase() {
+        return databaseClient.sql(SELECT_DATABASE_QUERY)
+            .map(row -> row.get("db", String.class))
+            .one();
+    }
+}
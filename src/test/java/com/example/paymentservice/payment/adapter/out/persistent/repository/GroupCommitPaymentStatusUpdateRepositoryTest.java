@@ -0,0 +1,323 @@
+package com.example.paymentservice.payment.adapter.out.persistent.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.paymentservice.payment.adapter.out.persistent.exception.PaymentAlreadyProcessedException;
+import com.example.paymentservice.payment.application.port.in.CheckoutCommand;
+import com.example.paymentservice.payment.application.port.in.CheckoutUsecase;
+import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdateCommand;
+import com.example.paymentservice.payment.domain.CheckoutResult;
+import com.example.paymentservice.payment.domain.PSPConfirmationStatus;
+import com.example.paymentservice.payment.domain.PaymentEvent;
+import com.example.paymentservice.payment.domain.PaymentEventMessage;
+import com.example.paymentservice.payment.domain.PaymentEventMessagePublisher;
+import com.example.paymentservice.payment.domain.PaymentExecutionResult.PaymentExtraDetails;
+import com.example.paymentservice.payment.domain.PaymentExecutionResult.PaymentFailure;
+import com.example.paymentservice.payment.domain.PaymentMethod;
+import com.example.paymentservice.payment.domain.PaymentStatus;
+import com.example.paymentservice.payment.domain.PaymentType;
+import com.example.paymentservice.payment.test.PaymentDatabaseHelper;
+import com.example.paymentservice.payment.test.PaymentTestConfiguration;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.MethodMode;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+
+/**
+ * 한 배치에 여러 상태 변경이 모이도록 max-wait 를 길게 두고, 동시에 상태 변경을 요청한다.
+ */
+@SpringBootTest(properties = {
+    "payment.persistence.group-commit.enabled=true",
+    "payment.persistence.group-commit.max-wait=200ms"
+})
+@Import(PaymentTestConfiguration.class)
+class GroupCommitPaymentStatusUpdateRepositoryTest {
+
+    @Autowired
+    CheckoutUsecase checkoutUsecase;
+    @Autowired
+    PaymentDatabaseHelper paymentDatabaseHelper;
+    @Autowired
+    GroupCommitPaymentStatusUpdateRepository groupCommitPaymentStatusUpdateRepository;
+    @Autowired
+    DatabaseClient databaseClient;
+
+    @MockitoSpyBean
+    PaymentEventMessagePublisher paymentEventMessagePublisher;
+
+    private static final String SELECT_FAILED_COUNT_QUERY = """
+                                                            SELECT failed_count FROM payment_orders
+                                                            WHERE order_id = :orderId
+                                                            """;
+
+    private static final String SELECT_PAYMENT_HISTORY_QUERY = """
+                                                               SELECT poh.previous_status, poh.new_status, poh.reason
+                                                               FROM payment_order_histories poh
+                                                               INNER JOIN payment_orders po ON po.id = poh.payment_order_id
+                                                               WHERE po.order_id = :orderId
+                                                               AND poh.new_status != 'EXECUTING'
+                                                               ORDER BY poh.id
+                                                               """;
+
+    private static final String COUNT_OUTBOX_QUERY = """
+                                                     SELECT COUNT(*) FROM outboxes
+                                                     WHERE idempotency_key = :orderId
+                                                     """;
+
+    @BeforeEach
+    void setUp() {
+        paymentDatabaseHelper.clean().block();
+    }
+
+    @Test
+    void should_commit_SUCCESS_FAILURE_and_UNKNOWN_transitions_in_one_batch() {
+
+        String successOrderId = executingOrder();
+        String failureOrderId = executingOrder();
+        String unknownOrderId = executingOrder();
+
+        PaymentStatusUpdateCommand successCommand = successCommand(successOrderId);
+
+        List<Signal<Boolean>> results = updateTogether(
+            successCommand,
+            failureCommand(failureOrderId),
+            unknownCommand(unknownOrderId));
+
+        assertThat(results).allMatch(signal -> Boolean.TRUE.equals(signal.get()));
+
+        PaymentEvent successEvent = paymentDatabaseHelper.getPaymentEvent(successOrderId);
+        assertThat(successEvent.isSuccess()).isTrue();
+        assertThat(successEvent.getOrderName()).isEqualTo(successCommand.getExtraDetails().getOrderName());
+        assertThat(successEvent.getPaymentMethod()).isEqualTo(successCommand.getExtraDetails().getMethod());
+        assertThat(successEvent.getPaymentType()).isEqualTo(successCommand.getExtraDetails().getType());
+        assertThat(successEvent.getApprovedAt()).isEqualTo(successCommand.getExtraDetails().getApproveAt().truncatedTo(ChronoUnit.SECONDS));
+
+        assertThat(paymentDatabaseHelper.getPaymentEvent(failureOrderId).isFailure()).isTrue();
+        assertThat(paymentDatabaseHelper.getPaymentEvent(unknownOrderId).isUnknown()).isTrue();
+
+        // UNKNOWN 으로 변경된 주문만 실패 횟수가 증가한다.
+        assertThat(failedCounts(successOrderId)).containsOnly(0);
+        assertThat(failedCounts(failureOrderId)).containsOnly(0);
+        assertThat(failedCounts(unknownOrderId)).containsOnly(1);
+
+        // 주문 (상품) 마다 히스토리가 남는다.
+        assertThat(histories(successOrderId)).hasSize(3).containsOnly("EXECUTING -> SUCCESS (PAYMENT_CONFIRMATION_DONE)");
+        assertThat(histories(failureOrderId)).hasSize(3).allMatch(history -> history.startsWith("EXECUTING -> FAILURE"));
+        assertThat(histories(unknownOrderId)).hasSize(3).allMatch(history -> history.startsWith("EXECUTING -> UNKNOWN"));
+
+        // 아웃박스는 SUCCESS 인 결제만 저장한다.
+        assertThat(outboxCount(successOrderId)).isEqualTo(1);
+        assertThat(outboxCount(failureOrderId)).isZero();
+        assertThat(outboxCount(unknownOrderId)).isZero();
+    }
+
+    @Test
+    void should_fail_only_the_rejected_transition_in_a_batch() {
+
+        String alreadySucceededOrderId = executingOrder();
+        String failureOrderId = executingOrder();
+
+        groupCommitPaymentStatusUpdateRepository.updatePaymentStatus(successCommand(alreadySucceededOrderId)).block();
+
+        List<Signal<Boolean>> results = updateTogether(
+            successCommand(alreadySucceededOrderId),
+            failureCommand(failureOrderId));
+
+        assertThat(results.get(0).getThrowable())
+            .isInstanceOfSatisfying(PaymentAlreadyProcessedException.class,
+                                    exception -> assertThat(exception.getStatus()).isEqualTo(PaymentStatus.SUCCESS));
+        assertThat(results.get(1).get()).isTrue();
+
+        assertThat(histories(alreadySucceededOrderId)).hasSize(3);
+        assertThat(outboxCount(alreadySucceededOrderId)).isEqualTo(1);
+        assertThat(paymentDatabaseHelper.getPaymentEvent(failureOrderId).isFailure()).isTrue();
+    }
+
+    @Test
+    void should_defer_the_same_order_in_a_batch_and_apply_in_order() {
+
+        String orderId = executingOrder();
+
+        // UNKNOWN -> SUCCESS 순서로만 둘 다 변경될 수 있다. (SUCCESS 이후에는 UNKNOWN 으로 변경할 수 없다.)
+        List<Signal<Boolean>> results = updateTogether(
+            unknownCommand(orderId),
+            successCommand(orderId));
+
+        assertThat(results).allMatch(signal -> Boolean.TRUE.equals(signal.get()));
+
+        assertThat(paymentDatabaseHelper.getPaymentEvent(orderId).isSuccess()).isTrue();
+        assertThat(failedCounts(orderId)).containsOnly(1);
+        assertThat(histories(orderId))
+            .hasSize(6)
+            .extracting(history -> history.substring(0, history.indexOf(" (")))
+            .containsExactly(
+                "EXECUTING -> UNKNOWN", "EXECUTING -> UNKNOWN", "EXECUTING -> UNKNOWN",
+                "UNKNOWN -> SUCCESS", "UNKNOWN -> SUCCESS", "UNKNOWN -> SUCCESS");
+    }
+
+    @Test
+    void should_fail_only_the_caller_whose_outbox_publish_fails() {
+
+        String publishFailingOrderId = executingOrder();
+        String successOrderId = executingOrder();
+        String failureOrderId = executingOrder();
+
+        Mockito.doAnswer(invocation -> {
+            PaymentEventMessage paymentEventMessage = invocation.getArgument(0);
+            if (publishFailingOrderId.equals(paymentEventMessage.getPayload().get("orderId"))) {
+                return Mono.error(new IllegalStateException("이벤트 발행에 실패했습니다."));
+            }
+            return invocation.callRealMethod();
+        }).when(paymentEventMessagePublisher).publishEvent(Mockito.any());
+
+        List<Signal<Boolean>> results = updateTogether(
+            successCommand(publishFailingOrderId),
+            successCommand(successOrderId),
+            failureCommand(failureOrderId));
+
+        // 배치는 롤백되고, 한 건씩 다시 처리해서 발행에 실패한 결제만 에러를 받는다.
+        assertThat(results.get(0).getThrowable()).isInstanceOf(IllegalStateException.class);
+        assertThat(results.get(1).get()).isTrue();
+        assertThat(results.get(2).get()).isTrue();
+
+        // 실패한 결제는 상태 변경과 아웃박스가 함께 롤백되어 복구 대상으로 남는다.
+        assertThat(paymentDatabaseHelper.getPaymentEvent(publishFailingOrderId).getPaymentOrders())
+            .allMatch(paymentOrder -> paymentOrder.getPaymentStatus() == PaymentStatus.EXECUTING);
+        assertThat(histories(publishFailingOrderId)).isEmpty();
+        assertThat(outboxCount(publishFailingOrderId)).isZero();
+
+        assertThat(paymentDatabaseHelper.getPaymentEvent(successOrderId).isSuccess()).isTrue();
+        assertThat(histories(successOrderId)).hasSize(3);
+        assertThat(outboxCount(successOrderId)).isEqualTo(1);
+        assertThat(paymentDatabaseHelper.getPaymentEvent(failureOrderId).isFailure()).isTrue();
+    }
+
+    @Test
+    @DirtiesContext(methodMode = MethodMode.AFTER_METHOD)
+    void should_flush_pending_transitions_before_stopping() {
+
+        String orderId = executingOrder();
+
+        // max-wait 가 지나기 전에 종료한다.
+        CompletableFuture<Boolean> result = groupCommitPaymentStatusUpdateRepository.updatePaymentStatus(failureCommand(orderId)).toFuture();
+        groupCommitPaymentStatusUpdateRepository.stop();
+
+        assertThat(result).isCompletedWithValue(true);
+        assertThat(paymentDatabaseHelper.getPaymentEvent(orderId).isFailure()).isTrue();
+
+        // 종료된 뒤의 상태 변경은 기다리지 않고 바로 에러를 받는다.
+        assertThatThrownBy(() -> groupCommitPaymentStatusUpdateRepository.updatePaymentStatus(unknownCommand(executingOrder())).block(Duration.ofSeconds(1)))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * 요청한 순서대로 구독해서 같은 배치에 모이게 하고, 호출자별 결과를 요청 순서대로 돌려준다.
+     */
+    private List<Signal<Boolean>> updateTogether(PaymentStatusUpdateCommand... commands) {
+        return Flux.fromArray(commands)
+            .flatMapSequential(command -> groupCommitPaymentStatusUpdateRepository.updatePaymentStatus(command).materialize())
+            .collectList()
+            .block(Duration.ofSeconds(10));
+    }
+
+    private String executingOrder() {
+
+        String orderId = UUID.randomUUID().toString();
+
+        CheckoutResult checkoutResult = checkoutUsecase.checkout(
+            CheckoutCommand.builder()
+                .cartId(1L)
+                .buyerId(1L)
+                .productIds(List.of(1L, 2L, 3L))
+                .idempotencyKey(orderId)
+                .build()).block();
+        assertThat(checkoutResult).isNotNull();
+
+        groupCommitPaymentStatusUpdateRepository.updatePaymentStatusToExecuting(UUID.randomUUID().toString(), orderId, () -> "tossPaymentExecutor").block();
+
+        return orderId;
+    }
+
+    private PaymentStatusUpdateCommand successCommand(String orderId) {
+        return PaymentStatusUpdateCommand.builder()
+            .paymentKey(UUID.randomUUID().toString())
+            .orderId(orderId)
+            .status(PaymentStatus.SUCCESS)
+            .extraDetails(PaymentExtraDetails.builder()
+                              .type(PaymentType.NORMAL)
+                              .method(PaymentMethod.EASY_PAY)
+                              .totalAmount(10000L)
+                              .orderName("test_order_name")
+                              .pspConfirmationStatus(PSPConfirmationStatus.DONE)
+                              .approveAt(LocalDateTime.now())
+                              .pspRawData("{}")
+                              .build())
+            .build();
+    }
+
+    private PaymentStatusUpdateCommand failureCommand(String orderId) {
+        return PaymentStatusUpdateCommand.builder()
+            .paymentKey(UUID.randomUUID().toString())
+            .orderId(orderId)
+            .status(PaymentStatus.FAILURE)
+            .failure(PaymentFailure.builder()
+                         .errorCode("ERROR")
+                         .message("Test Error")
+                         .build())
+            .build();
+    }
+
+    private PaymentStatusUpdateCommand unknownCommand(String orderId) {
+        return PaymentStatusUpdateCommand.builder()
+            .paymentKey(UUID.randomUUID().toString())
+            .orderId(orderId)
+            .status(PaymentStatus.UNKNOWN)
+            .failure(PaymentFailure.builder()
+                         .errorCode("UNKNOWN_ERROR")
+                         .message("Test Unknown Error")
+                         .build())
+            .build();
+    }
+
+    private List<Integer> failedCounts(String orderId) {
+        return databaseClient.sql(SELECT_FAILED_COUNT_QUERY)
+            .bind("orderId", orderId)
+            .map((row, metadata) -> row.get(0, Integer.class))
+            .all()
+            .collectList()
+            .block();
+    }
+
+    private List<String> histories(String orderId) {
+        return databaseClient.sql(SELECT_PAYMENT_HISTORY_QUERY)
+            .bind("orderId", orderId)
+            .map((row, metadata) -> String.format("%s -> %s (%s)", row.get(0, String.class), row.get(1, String.class), row.get(2, String.class)))
+            .all()
+            .collectList()
+            .block();
+    }
+
+    private long outboxCount(String orderId) {
+        return databaseClient.sql(COUNT_OUTBOX_QUERY)
+            .bind("orderId", orderId)
+            .map((row, metadata) -> row.get(0, Long.class))
+            .one()
+            .block();
+    }
+}
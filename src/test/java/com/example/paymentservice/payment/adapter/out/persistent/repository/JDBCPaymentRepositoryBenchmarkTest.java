@@ -0,0 +1,140 @@
+package com.example.paymentservice.payment.adapter.out.persistent.repository;
+
+import com.example.paymentservice.payment.domain.PaymentEvent;
+import com.example.paymentservice.payment.domain.PaymentOrder;
+import com.example.paymentservice.payment.domain.PaymentStatus;
+import com.example.paymentservice.payment.test.BenchmarkRunner;
+import com.example.paymentservice.payment.test.BenchmarkRunner.BenchmarkResult;
+import com.example.paymentservice.payment.test.PaymentDatabaseHelper;
+import com.example.paymentservice.payment.test.PaymentTestConfiguration;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.IntFunction;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+
+/**
+ * <h4> R2DBC 저장소와 JDBC 저장소 벤치마크 </h4>
+ * <p> 체크아웃 저장 -> EXECUTING 상태 변경 -> 금액 검증을 하나의 요청으로 보고 두 저장소의 TPS, p50/p99, 할당량, 최대 스레드 수를 비교한다. </p>
+ * <p> jdbc 프로파일에서도 R2DBC 저장소는 빈으로 등록되기 때문에 같은 데이터베이스에서 두 저장소를 번갈아 실행한다. </p>
+ */
+@SpringBootTest
+@ActiveProfiles("jdbc")
+@Import(PaymentTestConfiguration.class)
+@Tag("TooLongTime")
+class JDBCPaymentRepositoryBenchmarkTest {
+
+    private static final int WARMUP = 200;
+    private static final int REQUESTS = 2000;
+    private static final int CONCURRENCY = 64;
+    private static final int ORDER_COUNT = 3;
+
+    @Autowired
+    private R2DBCPaymentRepository r2dbcPaymentRepository;
+    @Autowired
+    private R2DBCPaymentStatusUpdateRepository r2dbcPaymentStatusUpdateRepository;
+    @Autowired
+    private R2DBCPaymentValidationRepository r2dbcPaymentValidationRepository;
+    @Autowired
+    private JDBCPaymentRepository jdbcPaymentRepository;
+    @Autowired
+    private JDBCPaymentStatusUpdateRepository jdbcPaymentStatusUpdateRepository;
+    @Autowired
+    private JDBCPaymentValidationRepository jdbcPaymentValidationRepository;
+    @Autowired
+    private PaymentDatabaseHelper paymentDatabaseHelper;
+
+    @BeforeEach
+    void setUp() {
+        paymentDatabaseHelper.clean().block();
+    }
+
+    @Test
+    void compare_r2dbc_and_jdbc_repositories() {
+
+        Measurement r2dbc = measure("r2dbc", i -> confirmFlow(
+            r2dbcPaymentRepository, r2dbcPaymentStatusUpdateRepository, r2dbcPaymentValidationRepository));
+
+        paymentDatabaseHelper.clean().block();
+
+        Measurement jdbc = measure("jdbc", i -> confirmFlow(
+            jdbcPaymentRepository, jdbcPaymentStatusUpdateRepository, jdbcPaymentValidationRepository));
+
+        System.out.println(r2dbc);
+        System.out.println(jdbc);
+    }
+
+    private Mono<Boolean> confirmFlow(PaymentRepository paymentRepository,
+                                      PaymentStatusUpdateRepository paymentStatusUpdateRepository,
+                                      PaymentValidationRepository paymentValidationRepository) {
+
+        PaymentEvent paymentEvent = createPaymentEvent();
+        long amount = paymentEvent.getPaymentOrders().stream().mapToLong(order -> order.getAmount().longValue()).sum();
+
+        return paymentRepository.save(paymentEvent)
+            .then(paymentStatusUpdateRepository.updatePaymentStatusToExecuting(UUID.randomUUID().toString(), paymentEvent.getOrderId(), () -> "tossPaymentExecutor"))
+            .then(paymentValidationRepository.isValid(paymentEvent.getOrderId(), amount));
+    }
+
+    /**
+     * 측정하는 동안 모든 스레드가 할당한 메모리와 최대 스레드 수를 함께 기록한다.
+     */
+    private Measurement measure(String name, IntFunction<Mono<?>> task) {
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threadMXBean.resetPeakThreadCount();
+
+        long allocatedBefore = totalAllocatedBytes(threadMXBean);
+        BenchmarkResult result = BenchmarkRunner.run(name, WARMUP, REQUESTS, CONCURRENCY, task);
+        long allocatedAfter = totalAllocatedBytes(threadMXBean);
+
+        return new Measurement(
+            result,
+            (allocatedAfter - allocatedBefore) / (WARMUP + REQUESTS),
+            threadMXBean.getPeakThreadCount());
+    }
+
+    private long totalAllocatedBytes(com.sun.management.ThreadMXBean threadMXBean) {
+        return Arrays.stream(threadMXBean.getThreadAllocatedBytes(threadMXBean.getAllThreadIds()))
+            .filter(bytes -> bytes > 0)
+            .sum();
+    }
+
+    private PaymentEvent createPaymentEvent() {
+        String orderId = UUID.randomUUID().toString();
+
+        return PaymentEvent.builder()
+            .buyerId(1L)
+            .orderId(orderId)
+            .orderName("benchmark_order")
+            .paymentOrders(LongStream.rangeClosed(1, ORDER_COUNT)
+                               .mapToObj(productId ->
+                                             PaymentOrder.builder()
+                                                 .sellerId(1L)
+                                                 .orderId(orderId)
+                                                 .productId(productId)
+                                                 .amount(BigDecimal.valueOf(productId * 10000))
+                                                 .paymentStatus(PaymentStatus.NOT_STARTED)
+                                                 .build())
+                               .toList())
+            .build();
+    }
+
+    private record Measurement(BenchmarkResult result, long allocatedBytesPerRequest, int peakThreadCount) {
+
+        @Override
+        public String toString() {
+            return String.format("%s, allocated: %dKB/request, peak threads: %d",
+                                 result, allocatedBytesPerRequest / 1024, peakThreadCount);
+        }
+    }
+}
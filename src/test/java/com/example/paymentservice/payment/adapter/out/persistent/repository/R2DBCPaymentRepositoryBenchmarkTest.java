@@ -0,0 +1,124 @@
+package com.example.paymentservice.payment.adapter.out.persistent.repository;
+
+import com.example.paymentservice.payment.domain.PaymentEvent;
+import com.example.paymentservice.payment.domain.PaymentOrder;
+import com.example.paymentservice.payment.domain.PaymentStatus;
+import com.example.paymentservice.payment.test.BenchmarkRunner;
+import com.example.paymentservice.payment.test.BenchmarkRunner.BenchmarkResult;
+import com.example.paymentservice.payment.test.PaymentDatabaseHelper;
+import com.example.paymentservice.payment.test.PaymentTestConfiguration;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+/**
+ * <h4> 체크아웃 저장 경로 벤치마크 </h4>
+ * <p> 기존 3회 왕복 (INSERT -> SELECT LAST_INSERT_ID() -> String.format 으로 만든 INSERT) 방식과 <br>
+ *     생성 키 반환 + 파라미터 배치 방식의 TPS, p99 를 비교한다. </p>
+ */
+@SpringBootTest
+@Import(PaymentTestConfiguration.class)
+@Tag("TooLongTime")
+class R2DBCPaymentRepositoryBenchmarkTest {
+
+    private static final int WARMUP = 200;
+    private static final int REQUESTS = 2000;
+    private static final int CONCURRENCY = 32;
+    private static final int ORDER_COUNT = 3;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private DatabaseClient databaseClient;
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+    @Autowired
+    private PaymentDatabaseHelper paymentDatabaseHelper;
+
+    @BeforeEach
+    void setUp() {
+        paymentDatabaseHelper.clean().block();
+    }
+
+    @Test
+    void compare_checkout_save_throughput_and_latency() {
+
+        LegacyPaymentSaver legacyPaymentSaver = new LegacyPaymentSaver(databaseClient, transactionalOperator);
+
+        BenchmarkResult legacy = BenchmarkRunner.run(
+            "legacy-three-round-trips", WARMUP, REQUESTS, CONCURRENCY, i -> legacyPaymentSaver.save(createPaymentEvent()));
+
+        paymentDatabaseHelper.clean().block();
+
+        BenchmarkResult current = BenchmarkRunner.run(
+            "generated-key-and-batch", WARMUP, REQUESTS, CONCURRENCY, i -> paymentRepository.save(createPaymentEvent()));
+
+        System.out.println(legacy);
+        System.out.println(current);
+    }
+
+    private PaymentEvent createPaymentEvent() {
+        String orderId = UUID.randomUUID().toString();
+
+        return PaymentEvent.builder()
+            .buyerId(1L)
+            .orderId(orderId)
+            .orderName("benchmark_order")
+            .paymentOrders(LongStream.rangeClosed(1, ORDER_COUNT)
+                               .mapToObj(productId ->
+                                             PaymentOrder.builder()
+                                                 .sellerId(1L)
+                                                 .orderId(orderId)
+                                                 .productId(productId)
+                                                 .amount(BigDecimal.valueOf(productId * 10000))
+                                                 .paymentStatus(PaymentStatus.NOT_STARTED)
+                                                 .build())
+                               .toList())
+            .build();
+    }
+
+    /**
+     * 비교 대상인 기존 저장 방식
+     */
+    private record LegacyPaymentSaver(DatabaseClient databaseClient, TransactionalOperator transactionalOperator) {
+
+        Mono<Void> save(PaymentEvent paymentEvent) {
+            return databaseClient.sql("INSERT INTO payment_events (buyer_id, order_name, order_id) VALUES(:buyerId, :orderName, :orderId)")
+                .bind("buyerId", paymentEvent.getBuyerId())
+                .bind("orderName", paymentEvent.getOrderName())
+                .bind("orderId", paymentEvent.getOrderId())
+                .fetch()
+                .rowsUpdated()
+                .flatMap(it -> databaseClient.sql("SELECT LAST_INSERT_ID()")
+                    .fetch()
+                    .first()
+                    .map(row -> ((BigInteger) row.get("LAST_INSERT_ID()")).longValue()))
+                .flatMap(paymentEventId -> {
+
+                    List<String> valueClauses = paymentEvent.getPaymentOrders().stream()
+                        .map(o -> String.format("(%d, %d, '%s', %d, %s, '%s')",
+                                                paymentEventId, o.getSellerId(), o.getOrderId(), o.getProductId(), o.getAmount(), o.getPaymentStatus().name()))
+                        .toList();
+
+                    return databaseClient.sql(
+                            "INSERT INTO payment_orders (payment_event_id, seller_id, order_id, product_id, amount, payment_order_status) VALUES "
+                            + String.join(", ", valueClauses))
+                        .fetch()
+                        .rowsUpdated();
+                })
+                .as(transactionalOperator::transactional)
+                .then();
+        }
+    }
+}
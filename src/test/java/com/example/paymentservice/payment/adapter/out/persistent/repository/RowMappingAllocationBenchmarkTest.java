@@ -0,0 +1,165 @@
+package com.example.paymentservice.payment.adapter.out.persistent.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.paymentservice.payment.adapter.out.persistent.repository.R2DBCPaymentRepository.PendingPaymentRow;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.R2dbcType;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Type;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.ColumnMapRowMapper;
+
+/**
+ * <h4> 행 매핑 할당량 벤치마크 </h4>
+ * <p> 기존 fetch() 방식 (행마다 컬럼 이름을 키로 하는 Map 생성 후 캐스팅) 과 <br>
+ *     컬럼 순서대로 타입을 지정해서 읽는 방식의 행당 할당 바이트와 처리 시간을 비교한다. </p>
+ * <p> 데이터베이스 드라이버의 디코딩 비용을 빼고 매핑 비용만 비교하기 위해 미리 디코딩된 값을 가진 Row 를 사용한다. </p>
+ */
+@Tag("TooLongTime")
+class RowMappingAllocationBenchmarkTest {
+
+    private static final int WARMUP = 200_000;
+    private static final int ROWS = 1_000_000;
+
+    private static final List<String> PENDING_PAYMENT_COLUMNS = List.of(
+        "payment_event_id", "payment_key", "order_id", "payment_order_id",
+        "payment_order_status", "amount", "failed_count", "threshold", "psp_executor");
+
+    @Test
+    void compare_row_mapping_allocation() {
+
+        StubRow row = new StubRow(PENDING_PAYMENT_COLUMNS, new Object[] {
+            1L, "payment_key", "order_id", 10L, "UNKNOWN", new BigDecimal("10000.00"), (byte) 1, (byte) 5, "tossPaymentExecutor"
+        });
+
+        MappingResult columnMap = measure("column-map", row, r -> {
+            Map<String, Object> values = ColumnMapRowMapper.INSTANCE.apply(r, r.getMetadata());
+            return ((Long) values.get("payment_event_id"))
+                + ((String) values.get("payment_key")).length()
+                + ((String) values.get("order_id")).length()
+                + ((Long) values.get("payment_order_id"))
+                + ((String) values.get("payment_order_status")).length()
+                + ((BigDecimal) values.get("amount")).longValue()
+                + ((Byte) values.get("failed_count"))
+                + ((Byte) values.get("threshold"))
+                + ((String) values.get("psp_executor")).length();
+        });
+
+        MappingResult typed = measure("typed-index", row, r -> {
+            PendingPaymentRow pendingPaymentRow = R2DBCPaymentRepository.toPendingPaymentRow(r, r.getMetadata());
+            return pendingPaymentRow.paymentEventId()
+                + pendingPaymentRow.paymentKey().length()
+                + pendingPaymentRow.orderId().length()
+                + pendingPaymentRow.paymentOrderId()
+                + pendingPaymentRow.paymentOrderStatus().length()
+                + pendingPaymentRow.amount().longValue()
+                + pendingPaymentRow.failedCount()
+                + pendingPaymentRow.threshold()
+                + pendingPaymentRow.pspExecutor().length();
+        });
+
+        System.out.println(columnMap);
+        System.out.println(typed);
+
+        assertThat(typed.checksum()).isEqualTo(columnMap.checksum());
+        assertThat(typed.bytesPerRow()).isLessThan(columnMap.bytesPerRow());
+    }
+
+    private MappingResult measure(String name, Row row, ToLongFunction<Row> mapper) {
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long checksum = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            checksum += mapper.applyAsLong(row);
+        }
+
+        checksum = 0;
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long startedAt = System.nanoTime();
+
+        for (int i = 0; i < ROWS; i++) {
+            checksum += mapper.applyAsLong(row);
+        }
+
+        long elapsed = System.nanoTime() - startedAt;
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        return new MappingResult(name, (double) allocated / ROWS, (double) elapsed / ROWS, checksum / ROWS);
+    }
+
+    private record MappingResult(String name, double bytesPerRow, double nanosPerRow, long checksum) {
+
+        @Override
+        public String toString() {
+            return String.format("[%s] rows: %d, allocated: %.1f bytes/row, elapsed: %.1f ns/row", name, ROWS, bytesPerRow, nanosPerRow);
+        }
+    }
+
+    /**
+     * 이미 디코딩된 값을 돌려주는 Row (드라이버처럼 컬럼 메타데이터는 한 번만 만든다.)
+     */
+    private record StubRow(List<String> columns, List<StubColumnMetadata> columnMetadatas, Object[] values) implements Row, RowMetadata {
+
+        StubRow(List<String> columns, Object[] values) {
+            this(columns, columns.stream().map(StubColumnMetadata::new).toList(), values);
+        }
+
+        @Override
+        public RowMetadata getMetadata() {
+            return this;
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            return type.cast(values[index]);
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            return get(columns.indexOf(name), type);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return columnMetadatas.get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return getColumnMetadata(columns.indexOf(name));
+        }
+
+        @Override
+        public List<? extends ColumnMetadata> getColumnMetadatas() {
+            return columnMetadatas;
+        }
+
+        @Override
+        public boolean contains(String columnName) {
+            return columns.contains(columnName);
+        }
+    }
+
+    private record StubColumnMetadata(String name) implements ColumnMetadata {
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Type getType() {
+            return R2dbcType.VARCHAR;
+        }
+    }
+}
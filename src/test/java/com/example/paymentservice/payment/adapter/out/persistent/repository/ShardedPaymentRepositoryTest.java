@@ -0,0 +1,73 @@
+package com.example.paymentservice.payment.adapter.out.persistent.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.paymentservice.payment.application.port.in.CheckoutCommand;
+import com.example.paymentservice.payment.application.port.in.CheckoutUsecase;
+import com.example.paymentservice.payment.domain.CheckoutResult;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.test.StepVerifier;
+
+/**
+ * 같은 MySQL 의 별도 스키마 (test_shard1) 를 1번 샤드로 사용한다.
+ */
+@Tag("ExternalIntegration")
+@SpringBootTest(properties = {
+    "payment.persistence.sharding.enabled=true",
+    "payment.persistence.sharding.urls=r2dbc:mysql://localhost:3306/test_shard1"
+})
+class ShardedPaymentRepositoryTest {
+
+    @Autowired
+    private CheckoutUsecase checkoutUsecase;
+    @Autowired
+    private PaymentShardRouter paymentShardRouter;
+    @Autowired
+    private PaymentValidationRepository paymentValidationRepository;
+
+    @Test
+    void should_route_the_same_order_to_the_same_shard() {
+
+        List<String> orderIds = IntStream.range(0, 100)
+            .mapToObj(i -> UUID.randomUUID().toString())
+            .toList();
+
+        Set<Integer> shardIndexes = orderIds.stream()
+            .map(orderId -> {
+                int index = paymentShardRouter.route(orderId).index();
+                assertThat(paymentShardRouter.route(orderId).index()).isEqualTo(index);
+                return index;
+            })
+            .collect(Collectors.toSet());
+
+        assertThat(shardIndexes).containsExactlyInAnyOrder(0, 1);
+    }
+
+    @Test
+    void should_save_and_validate_payments_on_every_shard() {
+
+        List<CheckoutResult> checkoutResults = IntStream.range(0, 10)
+            .mapToObj(i -> checkoutUsecase.checkout(
+                CheckoutCommand.builder()
+                    .cartId(1L)
+                    .buyerId(1L)
+                    .productIds(List.of(1L, 2L, 3L))
+                    .idempotencyKey(UUID.randomUUID().toString())
+                    .build()).block())
+            .toList();
+
+        for (CheckoutResult checkoutResult : checkoutResults) {
+            StepVerifier.create(paymentValidationRepository.isValid(checkoutResult.getOrderId(), checkoutResult.getAmount()))
+                .expectNext(true)
+                .verifyComplete();
+        }
+    }
+}
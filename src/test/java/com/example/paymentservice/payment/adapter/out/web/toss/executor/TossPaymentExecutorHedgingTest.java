@@ -0,0 +1,128 @@
+package com.example.paymentservice.payment.adapter.out.web.toss.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.paymentservice.payment.adapter.out.web.toss.policy.HedgingPolicy;
+import com.example.paymentservice.payment.adapter.out.web.toss.policy.RetryBudgetPolicy;
+import com.example.paymentservice.payment.application.port.in.PaymentConfirmCommand;
+import com.example.paymentservice.payment.domain.PaymentExecutionResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * <h4> 로컬 PSP 스텁으로 헤지 요청 검증 </h4>
+ * <p> 첫 번째 결제 승인 요청만 늦게 응답하는 스텁을 띄우고, 헤지 요청의 응답이 사용되는지 확인한다. </p>
+ */
+class TossPaymentExecutorHedgingTest {
+
+    private static final Duration SLOW_RESPONSE = Duration.ofSeconds(3);
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final List<String> idempotencyKeys = new CopyOnWriteArrayList<>();
+
+    private DisposableServer pspStub;
+
+    @BeforeEach
+    void setUp() {
+        pspStub = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.post("/v1/payments/confirm", (request, response) -> {
+
+                idempotencyKeys.add(request.requestHeaders().get("Idempotency-Key"));
+                Duration delay = requestCount.getAndIncrement() == 0 ? SLOW_RESPONSE : Duration.ZERO;
+
+                return request.receive().aggregate().asString()
+                    .then(Mono.delay(delay))
+                    .then(response
+                              .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                              .sendString(Mono.just(confirmationResponse(request.requestHeaders().get("Idempotency-Key"))), StandardCharsets.UTF_8)
+                              .then());
+            }))
+            .bindNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pspStub.disposeNow();
+    }
+
+    @Test
+    void should_use_the_hedged_response_when_the_first_response_is_slow() {
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        HedgingPolicy hedgingPolicy = new HedgingPolicy(meterRegistry, true, Duration.ofMillis(200), 0.1, 10);
+
+        TossPaymentExecutor paymentExecutor = new TossPaymentExecutor(
+            WebClient.builder().baseUrl("http://localhost:" + pspStub.port()).build(), hedgingPolicy,
+            new RetryBudgetPolicy(meterRegistry, true, 0.1, 10));
+
+        PaymentConfirmCommand command = PaymentConfirmCommand.builder()
+            .paymentKey(UUID.randomUUID().toString())
+            .orderId(UUID.randomUUID().toString())
+            .amount(10000L)
+            .build();
+
+        long startedAt = System.nanoTime();
+        PaymentExecutionResult result = paymentExecutor.execute(command).block(Duration.ofSeconds(10));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+
+        assertThat(result).isNotNull();
+        assertThat(result.getIsSuccess()).isTrue();
+        assertThat(elapsed).isLessThan(SLOW_RESPONSE);
+        assertThat(idempotencyKeys).hasSize(2).containsOnly(command.getOrderId());
+        assertThat(meterRegistry.get("payment.psp.hedge.sent").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("payment.psp.hedge.won").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_not_hedge_when_the_budget_is_exhausted() {
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        HedgingPolicy hedgingPolicy = new HedgingPolicy(meterRegistry, true, Duration.ofMillis(200), 0.1, 0);
+
+        TossPaymentExecutor paymentExecutor = new TossPaymentExecutor(
+            WebClient.builder().baseUrl("http://localhost:" + pspStub.port()).build(), hedgingPolicy,
+            new RetryBudgetPolicy(meterRegistry, true, 0.1, 10));
+
+        PaymentConfirmCommand command = PaymentConfirmCommand.builder()
+            .paymentKey(UUID.randomUUID().toString())
+            .orderId(UUID.randomUUID().toString())
+            .amount(10000L)
+            .build();
+
+        PaymentExecutionResult result = paymentExecutor.execute(command).block(Duration.ofSeconds(10));
+
+        assertThat(result).isNotNull();
+        assertThat(idempotencyKeys).hasSize(1);
+        assertThat(meterRegistry.get("payment.psp.hedge.budget_exhausted").counter().count()).isEqualTo(1);
+    }
+
+    private String confirmationResponse(String orderId) {
+        return """
+               {
+                 "paymentKey": "test_payment_key",
+                 "type": "NORMAL",
+                 "orderId": "%s",
+                 "orderName": "test_order_name",
+                 "method": "간편결제",
+                 "totalAmount": 10000,
+                 "status": "DONE",
+                 "approvedAt": "2024-01-01T00:00:00+09:00"
+               }
+               """.formatted(orderId);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.paymentservice.payment.adapter.out.web.toss.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.paymentservice.payment.adapter.out.web.toss.exception.PSPConfirmationException;
+import com.example.paymentservice.payment.adapter.out.web.toss.policy.HedgingPolicy;
+import com.example.paymentservice.payment.adapter.out.web.toss.policy.RetryBudgetPolicy;
+import com.example.paymentservice.payment.application.port.in.PaymentConfirmCommand;
+import com.example.paymentservice.payment.domain.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+/**
+ * <h4> 로컬 PSP 스텁으로 재시도 예산 검증 </h4>
+ * <p> 항상 재시도 대상 에러 (PROVIDER_ERROR) 로 응답하는 스텁을 띄우고, 예산이 없으면 재시도하지 않고 UNKNOWN 에러를 바로 전달하는지 확인한다. </p>
+ */
+class TossPaymentExecutorRetryBudgetTest {
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    private DisposableServer pspStub;
+
+    @BeforeEach
+    void setUp() {
+        pspStub = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.post("/v1/payments/confirm", (request, response) -> {
+
+                requestCount.incrementAndGet();
+
+                return request.receive().aggregate().asString()
+                    .then(response
+                              .status(400)
+                              .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                              .sendString(Mono.just("""
+                                                    {"code": "PROVIDER_ERROR", "message": "일시적인 오류가 발생했습니다."}
+                                                    """), StandardCharsets.UTF_8)
+                              .then());
+            }))
+            .bindNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pspStub.disposeNow();
+    }
+
+    @Test
+    void should_surface_retryable_error_at_once_when_the_retry_budget_is_exhausted() {
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // 토큰 하나로 시작하고 결제 승인 요청으로는 토큰이 쌓이지 않는다.
+        RetryBudgetPolicy retryBudgetPolicy = new RetryBudgetPolicy(meterRegistry, true, 0.0, 1);
+
+        TossPaymentExecutor paymentExecutor = new TossPaymentExecutor(
+            WebClient.builder().baseUrl("http://localhost:" + pspStub.port()).build(),
+            new HedgingPolicy(meterRegistry, false, Duration.ofMillis(300), 0.05, 10),
+            retryBudgetPolicy);
+
+        // 첫 번째 결제 승인은 토큰 하나로 한 번만 재시도한다.
+        StepVerifier.create(paymentExecutor.execute(command()))
+            .expectErrorSatisfies(error -> assertThat(((PSPConfirmationException) error).paymentStatus()).isEqualTo(PaymentStatus.UNKNOWN))
+            .verify(Duration.ofSeconds(10));
+
+        assertThat(requestCount.get()).isEqualTo(2);
+
+        // 두 번째 결제 승인은 예산이 없으므로 재시도하지 않는다.
+        StepVerifier.create(paymentExecutor.execute(command()))
+            .expectErrorSatisfies(error -> assertThat(((PSPConfirmationException) error).getErrorCode()).isEqualTo("PROVIDER_ERROR"))
+            .verify(Duration.ofSeconds(1));
+
+        assertThat(requestCount.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("payment.psp.retry.allowed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("payment.psp.retry.budget_exhausted").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void should_spend_budget_only_for_retries_actually_sent() {
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // 예산은 충분하고 재시도 횟수 (2회) 가 먼저 소진된다.
+        RetryBudgetPolicy retryBudgetPolicy = new RetryBudgetPolicy(meterRegistry, true, 0.0, 10);
+
+        TossPaymentExecutor paymentExecutor = new TossPaymentExecutor(
+            WebClient.builder().baseUrl("http://localhost:" + pspStub.port()).build(),
+            new HedgingPolicy(meterRegistry, false, Duration.ofMillis(300), 0.05, 10),
+            retryBudgetPolicy);
+
+        StepVerifier.create(paymentExecutor.execute(command()))
+            .expectErrorSatisfies(error -> assertThat(((PSPConfirmationException) error).paymentStatus()).isEqualTo(PaymentStatus.UNKNOWN))
+            .verify(Duration.ofSeconds(10));
+
+        // 마지막 실패 뒤에는 재시도를 보내지 않으므로 토큰도 사용하지 않는다.
+        assertThat(requestCount.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("payment.psp.retry.allowed").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("payment.psp.retry.budget_exhausted").counter().count()).isZero();
+    }
+
+    private PaymentConfirmCommand command() {
+        return PaymentConfirmCommand.builder()
+            .paymentKey(UUID.randomUUID().toString())
+            .orderId(UUID.randomUUID().toString())
+            .amount(10000L)
+            .build();
+    }
+}
@@ -4,6 +4,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.example.paymentservice.payment.adapter.out.web.toss.exception.PSPConfirmationException;
 import com.example.paymentservice.payment.adapter.out.web.toss.exception.TossPaymentError;
+import com.example.paymentservice.payment.adapter.out.web.toss.policy.HedgingPolicy;
+import com.example.paymentservice.payment.adapter.out.web.toss.policy.RetryBudgetPolicy;
 import com.example.paymentservice.payment.application.port.in.PaymentConfirmCommand;
 import com.example.paymentservice.payment.test.PSPTestWebClientConfiguration;
 import java.util.Arrays;
@@ -28,6 +30,10 @@ class TossPaymentExecutorTest {
 
     @Autowired
     PSPTestWebClientConfiguration pspTestWebClientConfiguration;
+    @Autowired
+    HedgingPolicy hedgingPolicy;
+    @Autowired
+    RetryBudgetPolicy retryBudgetPolicy;
 
     @Test
     void should_handle_correctly_various_TossPaymentError_scenarios() {
@@ -43,7 +49,9 @@ class TossPaymentExecutorTest {
                 TossPaymentExecutor paymentExecutor =
                     new TossPaymentExecutor(
                         pspTestWebClientConfiguration.createTestTossWebClient(
-                            Collections.singletonList(Pair.of("TossPayments-Test-Code", errorScenario.errorCode))));
+                            Collections.singletonList(Pair.of("TossPayments-Test-Code", errorScenario.errorCode))),
+                        hedgingPolicy,
+                        retryBudgetPolicy);
 
                 try {
                     paymentExecutor.execute(command).block();
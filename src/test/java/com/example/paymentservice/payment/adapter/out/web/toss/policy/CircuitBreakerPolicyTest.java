@@ -0,0 +1,107 @@
+package com.example.paymentservice.payment.adapter.out.web.toss.policy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.paymentservice.payment.adapter.out.web.toss.exception.PSPConfirmationException;
+import com.example.paymentservice.payment.domain.PaymentStatus;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.timeout.ReadTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class CircuitBreakerPolicyTest {
+
+    private static final String EXECUTOR = "tossPaymentExecutor";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CircuitBreakerPolicy circuitBreakerPolicy = new CircuitBreakerPolicy(
+        meterRegistry, true, 50, 50, Duration.ofSeconds(10), 4, 4, Duration.ofMillis(200), 1);
+
+    @Test
+    void should_fail_fast_as_UNKNOWN_without_calling_PSP_when_circuit_is_open() {
+        AtomicInteger requestCount = new AtomicInteger();
+        Mono<String> failingRequest = Mono.defer(() -> {
+            requestCount.incrementAndGet();
+            return Mono.error(ReadTimeoutException.INSTANCE);
+        });
+
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(circuitBreakerPolicy.protect(EXECUTOR, failingRequest))
+                .expectError(ReadTimeoutException.class)
+                .verify();
+        }
+
+        assertThat(circuitBreakerPolicy.state(EXECUTOR)).isEqualTo(CircuitBreaker.State.OPEN);
+
+        StepVerifier.create(circuitBreakerPolicy.protect(EXECUTOR, failingRequest))
+            .expectErrorSatisfies(error -> {
+                assertThat(error).isInstanceOf(PSPConfirmationException.class);
+                assertThat(((PSPConfirmationException) error).getErrorCode()).isEqualTo(CircuitBreakerPolicy.CIRCUIT_OPEN_ERROR_CODE);
+                assertThat(((PSPConfirmationException) error).paymentStatus()).isEqualTo(PaymentStatus.UNKNOWN);
+            })
+            .verify();
+
+        // 서킷이 열린 뒤에는 PSP 로 요청을 보내지 않는다.
+        assertThat(requestCount.get()).isEqualTo(4);
+        assertThat(meterRegistry.get("payment.psp.circuit_breaker.transitions")
+                       .tag("executor", EXECUTOR).tag("from", "CLOSED").tag("to", "OPEN").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_keep_other_executors_closed_when_one_circuit_opens() {
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(circuitBreakerPolicy.protect(EXECUTOR, Mono.error(ReadTimeoutException.INSTANCE)))
+                .expectError()
+                .verify();
+        }
+
+        assertThat(circuitBreakerPolicy.isOpen(EXECUTOR)).isTrue();
+        assertThat(circuitBreakerPolicy.isOpen("otherPaymentExecutor")).isFalse();
+
+        // 다른 PSP 로 보내는 결제 승인은 막지 않는다.
+        StepVerifier.create(circuitBreakerPolicy.protect("otherPaymentExecutor", Mono.just("confirmed")))
+            .expectNext("confirmed")
+            .verifyComplete();
+    }
+
+    @Test
+    void should_not_open_circuit_on_payment_failures_answered_by_PSP() {
+        Mono<String> rejectedRequest = Mono.error(
+            new PSPConfirmationException("INVALID_REJECT_CARD", "카드 사용이 거절되었습니다.", false, true, false, false));
+
+        for (int i = 0; i < 8; i++) {
+            StepVerifier.create(circuitBreakerPolicy.protect(EXECUTOR, rejectedRequest))
+                .expectErrorSatisfies(error ->
+                    assertThat(((PSPConfirmationException) error).getErrorCode()).isEqualTo("INVALID_REJECT_CARD"))
+                .verify();
+        }
+
+        assertThat(circuitBreakerPolicy.state(EXECUTOR)).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void should_close_circuit_when_half_open_probe_succeeds() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(circuitBreakerPolicy.protect(EXECUTOR, Mono.error(ReadTimeoutException.INSTANCE)))
+                .expectError()
+                .verify();
+        }
+
+        assertThat(circuitBreakerPolicy.state(EXECUTOR)).isEqualTo(CircuitBreaker.State.OPEN);
+
+        Thread.sleep(500);
+
+        assertThat(circuitBreakerPolicy.state(EXECUTOR)).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        StepVerifier.create(circuitBreakerPolicy.protect(EXECUTOR, Mono.just("confirmed")))
+            .expectNext("confirmed")
+            .verifyComplete();
+
+        assertThat(circuitBreakerPolicy.state(EXECUTOR)).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.paymentservice.payment.adapter.out.web.toss.policy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.paymentservice.payment.adapter.out.web.toss.exception.PSPConfirmationException;
+import com.example.paymentservice.payment.adapter.out.web.toss.executor.PaymentExecutor;
+import com.example.paymentservice.payment.application.port.in.PaymentConfirmCommand;
+import com.example.paymentservice.payment.domain.PaymentExecutionResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.timeout.ReadTimeoutException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+class PaymentExecutorRoutingPolicyTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CircuitBreakerPolicy circuitBreakerPolicy = new CircuitBreakerPolicy(
+        meterRegistry, true, 50, 50, Duration.ofSeconds(10), 4, 4, Duration.ofMinutes(1), 1);
+
+    @Test
+    void should_route_new_orders_to_the_faster_executor() {
+
+        StubExecutor fast = new StubExecutor(() -> Mono.delay(Duration.ofMillis(5)).map(tick -> success()));
+        StubExecutor slow = new StubExecutor(() -> Mono.delay(Duration.ofMillis(100)).map(tick -> success()));
+
+        PaymentExecutorRoutingPolicy routingPolicy = routingPolicy(Map.of("fast", fast, "slow", slow));
+
+        // 두 PSP 의 응답시간을 한 번씩 기록한다.
+        for (int i = 0; i < 10; i++) {
+            routingPolicy.execute(newOrder(routingPolicy)).block();
+        }
+
+        int fastBefore = fast.orderIds.size();
+        for (int i = 0; i < 20; i++) {
+            routingPolicy.execute(newOrder(routingPolicy)).block();
+        }
+
+        assertThat(fast.orderIds.size() - fastBefore).isEqualTo(20);
+    }
+
+    @Test
+    void should_keep_an_order_on_its_executor_even_after_ejection() {
+
+        StubExecutor failing = new StubExecutor(() -> Mono.error(ReadTimeoutException.INSTANCE));
+        StubExecutor healthy = new StubExecutor(() -> Mono.delay(Duration.ofMillis(50)).map(tick -> success()));
+
+        Map<String, PaymentExecutor> executors = new LinkedHashMap<>();
+        executors.put("failing", failing);
+        executors.put("healthy", healthy);
+        // 서킷이 먼저 열리지 않도록 서킷 브레이커를 끄고 에러율로만 제외되는지 확인한다.
+        PaymentExecutorRoutingPolicy routingPolicy = routingPolicy(executors, new CircuitBreakerPolicy(
+            meterRegistry, false, 50, 50, Duration.ofSeconds(10), 4, 4, Duration.ofMinutes(1), 1));
+
+        // 초기 응답시간이 같으므로 먼저 등록된 failing 이 결제에 기록된다.
+        PaymentConfirmCommand pinned = newOrder(routingPolicy);
+        assertThat(pinned.getPspExecutor()).isEqualTo("failing");
+
+        for (int i = 0; i < 11; i++) {
+            routingPolicy.execute(pinned).onErrorResume(error -> Mono.empty()).block();
+        }
+
+        assertThat(failing.orderIds).hasSize(11).containsOnly(pinned.getOrderId());
+        assertThat(meterRegistry.counter("payment.psp.routing.ejections", "executor", "failing").count()).isEqualTo(1.0);
+
+        // 제외된 PSP 로는 새 주문을 보내지 않는다.
+        routingPolicy.execute(newOrder(routingPolicy)).block();
+
+        assertThat(healthy.orderIds).hasSize(1);
+        assertThat(failing.orderIds).hasSize(11);
+    }
+
+    @Test
+    void should_not_count_business_failures_as_executor_errors() {
+
+        StubExecutor rejecting = new StubExecutor(() -> Mono.error(
+            new PSPConfirmationException("REJECT_CARD_COMPANY", "결제 승인이 거절되었습니다.", false, true, false, false)));
+
+        PaymentExecutorRoutingPolicy routingPolicy = routingPolicy(Map.of("rejecting", rejecting));
+
+        for (int i = 0; i < 10; i++) {
+            routingPolicy.execute(newOrder(routingPolicy)).onErrorResume(error -> Mono.empty()).block();
+        }
+
+        assertThat(meterRegistry.get("payment.psp.routing.error_rate").tag("executor", "rejecting").gauge().value()).isZero();
+        assertThat(meterRegistry.find("payment.psp.routing.ejections").counter()).isNull();
+    }
+
+    @Test
+    void should_route_only_to_the_recorded_executor() {
+
+        StubExecutor legacy = new StubExecutor(() -> Mono.delay(Duration.ofMillis(100)).map(tick -> success()));
+        StubExecutor fast = new StubExecutor(() -> Mono.just(success()));
+
+        Map<String, PaymentExecutor> executors = new LinkedHashMap<>();
+        executors.put("legacy", legacy);
+        executors.put("fast", fast);
+        PaymentExecutorRoutingPolicy routingPolicy = routingPolicy(executors);
+
+        // 기록된 PSP 가 없는 결제는 응답시간과 상관없이 legacy-executor 로 보낸다.
+        routingPolicy.execute(command(UUID.randomUUID().toString(), null)).block();
+
+        assertThat(legacy.orderIds).hasSize(1);
+        assertThat(meterRegistry.counter("payment.psp.routing.decisions", "executor", "legacy", "reason", "legacy").count()).isEqualTo(1.0);
+
+        // 등록되지 않은 PSP 가 기록된 결제는 다른 PSP 로 보내지 않는다.
+        assertThatThrownBy(() -> routingPolicy.execute(command(UUID.randomUUID().toString(), "removed")).block())
+            .isInstanceOf(IllegalStateException.class);
+
+        assertThat(legacy.orderIds).hasSize(1);
+        assertThat(fast.orderIds).isEmpty();
+    }
+
+    @Test
+    void should_not_route_new_orders_to_an_executor_with_an_open_circuit() {
+
+        StubExecutor failing = new StubExecutor(() -> Mono.error(ReadTimeoutException.INSTANCE));
+        StubExecutor healthy = new StubExecutor(() -> Mono.delay(Duration.ofMillis(50)).map(tick -> success()));
+
+        Map<String, PaymentExecutor> executors = new LinkedHashMap<>();
+        executors.put("failing", failing);
+        executors.put("healthy", healthy);
+        PaymentExecutorRoutingPolicy routingPolicy = routingPolicy(executors);
+
+        // 에러율로 제외되기 전에 (ejection-min-samples 5건) failing 의 서킷만 열린다. (minimum-number-of-calls 4건)
+        PaymentConfirmCommand pinned = newOrder(routingPolicy);
+        for (int i = 0; i < 4; i++) {
+            routingPolicy.execute(pinned).onErrorResume(error -> Mono.empty()).block();
+        }
+
+        assertThat(circuitBreakerPolicy.isOpen("failing")).isTrue();
+        assertThat(circuitBreakerPolicy.isOpen("healthy")).isFalse();
+        assertThat(meterRegistry.find("payment.psp.routing.ejections").counter()).isNull();
+
+        // 서킷이 열린 PSP 로 기록된 결제는 다른 PSP 로 보내지 않고 PSP 에 요청하지 않은 채 UNKNOWN 으로 끝난다.
+        assertThatThrownBy(() -> routingPolicy.execute(pinned).block())
+            .isInstanceOfSatisfying(PSPConfirmationException.class, error ->
+                assertThat(error.getErrorCode()).isEqualTo(CircuitBreakerPolicy.CIRCUIT_OPEN_ERROR_CODE));
+
+        assertThat(failing.orderIds).hasSize(4);
+        assertThat(healthy.orderIds).isEmpty();
+
+        // 새 주문은 서킷이 닫힌 PSP 로 보낸다.
+        assertThat(routingPolicy.select()).isEqualTo("healthy");
+        assertThat(meterRegistry.get("payment.psp.routing.ejected").tag("executor", "failing").gauge().value()).isEqualTo(1.0);
+    }
+
+    private PaymentExecutorRoutingPolicy routingPolicy(Map<String, PaymentExecutor> executors) {
+        return routingPolicy(executors, circuitBreakerPolicy);
+    }
+
+    private PaymentExecutorRoutingPolicy routingPolicy(Map<String, PaymentExecutor> executors, CircuitBreakerPolicy circuitBreakerPolicy) {
+        return new PaymentExecutorRoutingPolicy(
+            executors, circuitBreakerPolicy, meterRegistry, 0.5, Duration.ofMillis(20), "", 0.5, 5, Duration.ofMinutes(1), executors.keySet().iterator().next());
+    }
+
+    /**
+     * 결제 승인 서비스와 같이 새 주문의 PSP 를 골라서 결제에 기록된 것처럼 명령에 담는다.
+     */
+    private PaymentConfirmCommand newOrder(PaymentExecutorRoutingPolicy routingPolicy) {
+        return command(UUID.randomUUID().toString(), routingPolicy.select());
+    }
+
+    private PaymentConfirmCommand command(String orderId, String pspExecutor) {
+        return PaymentConfirmCommand.builder()
+            .paymentKey(UUID.randomUUID().toString())
+            .orderId(orderId)
+            .amount(10000L)
+            .pspExecutor(pspExecutor)
+            .build();
+    }
+
+    private PaymentExecutionResult success() {
+        return PaymentExecutionResult.builder()
+            .isSuccess(true)
+            .isFailure(false)
+            .isUnknown(false)
+            .isRetryable(false)
+            .build();
+    }
+
+    private static class StubExecutor implements PaymentExecutor {
+
+        private final Supplier<Mono<PaymentExecutionResult>> response;
+        private final List<String> orderIds = new CopyOnWriteArrayList<>();
+
+        StubExecutor(Supplier<Mono<PaymentExecutionResult>> response) {
+            this.response = response;
+        }
+
+        @Override
+        public Mono<PaymentExecutionResult> execute(PaymentConfirmCommand command) {
+            orderIds.add(command.getOrderId());
+            return response.get();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.paymentservice.payment.adapter.out.web.toss.policy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.paymentservice.payment.adapter.out.web.toss.exception.PSPConfirmationException;
+import com.example.paymentservice.payment.application.port.out.PaymentTrafficClass;
+import com.example.paymentservice.payment.domain.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class RateLimitPolicyTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void should_let_live_traffic_borrow_unused_recovery_tokens() {
+
+        // 초당 2건 중 실시간 1건, 복구 1건 (5초만큼 쌓아둔 상태로 시작한다.)
+        RateLimitPolicy rateLimitPolicy = rateLimitPolicy(0, 0);
+
+        for (int i = 0; i < 10; i++) {
+            StepVerifier.create(rateLimitPolicy.throttle(Mono.just("confirmed")))
+                .expectNext("confirmed")
+                .verifyComplete();
+        }
+
+        assertThat(meterRegistry.get("payment.psp.rate_limit.borrowed").counter().count()).isEqualTo(5);
+
+        // 복구 몫까지 모두 사용했고 기다릴 수 없으므로 PSP 에 보내지 않고 UNKNOWN 으로 끝난다.
+        StepVerifier.create(rateLimitPolicy.throttle(Mono.just("confirmed")))
+            .expectErrorSatisfies(error -> {
+                assertThat(((PSPConfirmationException) error).getErrorCode()).isEqualTo(RateLimitPolicy.RATE_LIMITED_ERROR_CODE);
+                assertThat(((PSPConfirmationException) error).paymentStatus()).isEqualTo(PaymentStatus.UNKNOWN);
+            })
+            .verify();
+
+        assertThat(meterRegistry.get("payment.psp.rate_limit.rejected").tags("traffic", "live", "reason", "queue_full").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void should_pace_recovery_traffic_without_borrowing_live_tokens() {
+
+        RateLimitPolicy rateLimitPolicy = rateLimitPolicy(0, 10);
+
+        for (int i = 0; i < 5; i++) {
+            StepVerifier.create(recovery(rateLimitPolicy))
+                .expectNext("recovered")
+                .verifyComplete();
+        }
+
+        // 실시간 몫이 남아 있어도 빌리지 않고 다음 복구 토큰 (1초 간격) 까지 기다린다.
+        StepVerifier.create(recovery(rateLimitPolicy))
+            .expectSubscription()
+            .expectNoEvent(Duration.ofMillis(500))
+            .expectNext("recovered")
+            .expectComplete()
+            .verify(Duration.ofSeconds(2));
+
+        assertThat(meterRegistry.get("payment.psp.rate_limit.wait").tag("traffic", "recovery").timer().max(TimeUnit.MILLISECONDS))
+            .isGreaterThan(500);
+        assertThat(meterRegistry.find("payment.psp.rate_limit.borrowed").counter().count()).isZero();
+    }
+
+    private Mono<String> recovery(RateLimitPolicy rateLimitPolicy) {
+        return rateLimitPolicy.throttle(Mono.just("recovered"))
+            .contextWrite(PaymentTrafficClass.RECOVERY::writeTo);
+    }
+
+    private RateLimitPolicy rateLimitPolicy(int liveMaxQueue, int recoveryMaxQueue) {
+        return new RateLimitPolicy(
+            meterRegistry, true, 2, 0.5, Duration.ofSeconds(5),
+            liveMaxQueue, Duration.ofSeconds(2), recoveryMaxQueue, Duration.ofSeconds(2));
+    }
+}
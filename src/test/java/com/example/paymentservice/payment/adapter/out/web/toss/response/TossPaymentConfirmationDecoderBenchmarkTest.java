@@ -0,0 +1,76 @@
+package com.example.paymentservice.payment.adapter.out.web.toss.response;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.management.ManagementFactory;
+import java.util.function.Function;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * <h4> 결제 승인 응답 디코딩 벤치마크 </h4>
+ * <p> 기존 방식 (WebClient 와 같은 설정의 ObjectMapper 로 TossPaymentConfirmationResponse 전체를 바인딩하고 toString() 으로 pspRawData 생성) 과
+ * 스트리밍 디코더의 응답 한 건당 처리 시간과 할당량을 비교한다. </p>
+ */
+@Tag("TooLongTime")
+class TossPaymentConfirmationDecoderBenchmarkTest {
+
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 200_000;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void compare_object_binding_and_streaming_decoder() throws Exception {
+
+        byte[] body = TossPaymentConfirmationDecoderTest.readSampleResponse();
+
+        Measurement binding = measure("object-binding", body, bytes -> {
+            try {
+                return objectMapper.readValue(bytes, TossPaymentConfirmationResponse.class).toString();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        Measurement streaming = measure("streaming", body, bytes -> TossPaymentConfirmationDecoder.decode(bytes).rawData());
+
+        System.out.println(binding);
+        System.out.println(streaming);
+    }
+
+    /**
+     * 측정은 현재 스레드에서만 하므로 스레드 할당량으로 한 건당 할당량을 구한다.
+     */
+    private Measurement measure(String name, byte[] body, Function<byte[], String> decoder) {
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long blackhole = 0;
+
+        for (int i = 0; i < WARMUP; i++) {
+            blackhole += decoder.apply(body).length();
+        }
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long startedAt = System.nanoTime();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            blackhole += decoder.apply(body).length();
+        }
+
+        long elapsed = System.nanoTime() - startedAt;
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        return new Measurement(name, elapsed / ITERATIONS, allocated / ITERATIONS, blackhole);
+    }
+
+    private record Measurement(String name, long nanosPerDecode, long bytesPerDecode, long blackhole) {
+
+        @Override
+        public String toString() {
+            return String.format("%s: %dns/decode, allocated: %dB/decode", name, nanosPerDecode, bytesPerDecode);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.paymentservice.payment.adapter.out.web.toss.response;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.paymentservice.payment.adapter.out.web.toss.response.TossPaymentConfirmationDecoder.TossPaymentConfirmation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+
+class TossPaymentConfirmationDecoderTest {
+
+    @Test
+    void should_decode_only_used_fields_and_keep_raw_response() throws IOException {
+
+        byte[] body = readSampleResponse();
+
+        TossPaymentConfirmation confirmation = TossPaymentConfirmationDecoder.decode(body);
+
+        assertThat(confirmation.type()).isEqualTo("NORMAL");
+        assertThat(confirmation.method()).isEqualTo("카드");
+        assertThat(confirmation.approvedAt()).isEqualTo("2024-02-13T12:18:14+09:00");
+        assertThat(confirmation.orderName()).isEqualTo("토스 티셔츠 외 2건");
+        assertThat(confirmation.status()).isEqualTo("DONE");
+        assertThat(confirmation.totalAmount()).isEqualTo(50000L);
+        assertThat(confirmation.rawData()).isEqualTo(new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void should_fail_to_decode_non_object_response() {
+        assertThatThrownBy(() -> TossPaymentConfirmationDecoder.decode("[]".getBytes(StandardCharsets.UTF_8)))
+            .isInstanceOf(DecodingException.class);
+    }
+
+    static byte[] readSampleResponse() throws IOException {
+        try (InputStream inputStream = TossPaymentConfirmationDecoderTest.class.getResourceAsStream("/toss/payment-confirmation-response.json")) {
+            return inputStream.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.paymentservice.payment.adapter.out.web.toss.simulator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+class TossPaymentSimulatorTest {
+
+    private TossPaymentSimulator simulator;
+
+    @AfterEach
+    void tearDown() {
+        simulator.stop();
+    }
+
+    @Test
+    void should_return_the_same_response_for_the_same_idempotency_key() {
+
+        simulator = start("", 0.0);
+        String orderId = UUID.randomUUID().toString();
+
+        ResponseEntity<String> first = confirm(orderId).block();
+        ResponseEntity<String> second = confirm(orderId).block();
+
+        assertThat(first.getStatusCode().value()).isEqualTo(200);
+        assertThat(first.getBody()).contains("\"orderId\":\"" + orderId + "\"", "\"status\":\"DONE\"");
+        assertThat(second.getBody()).isEqualTo(first.getBody());
+    }
+
+    @Test
+    void should_respond_with_configured_toss_payment_error() {
+
+        simulator = start("REJECT_CARD_COMPANY:1.0", 0.0);
+
+        ResponseEntity<String> response = confirm(UUID.randomUUID().toString()).block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatusCode.valueOf(403));
+        assertThat(response.getBody()).contains("\"code\":\"REJECT_CARD_COMPANY\"");
+    }
+
+    @Test
+    void should_not_respond_when_timeout_is_injected() {
+
+        simulator = start("", 1.0);
+
+        assertThat(confirm(UUID.randomUUID().toString())
+                       .map(response -> true)
+                       .timeout(Duration.ofMillis(500), Mono.just(false))
+                       .block())
+            .isFalse();
+    }
+
+    @Test
+    void should_reject_error_rates_over_one() {
+        assertThatThrownBy(() -> TossPaymentSimulator.parseErrorRates("PROVIDER_ERROR:0.6,REJECT_CARD_COMPANY:0.5"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private TossPaymentSimulator start(String errorRates, double timeoutRate) {
+
+        TossPaymentSimulator simulator = new TossPaymentSimulator(
+            new SimpleMeterRegistry(), "localhost", 0,
+            Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10),
+            errorRates, timeoutRate, Duration.ofMinutes(1), 1000);
+
+        simulator.start();
+
+        return simulator;
+    }
+
+    private Mono<ResponseEntity<String>> confirm(String orderId) {
+        return WebClient.create("http://localhost:" + simulator.port())
+            .post()
+            .uri("/v1/payments/confirm")
+            .header("Idempotency-Key", orderId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("paymentKey", UUID.randomUUID().toString(), "orderId", orderId, "amount", 10000))
+            .exchangeToMono(response -> response.toEntity(String.class));
+    }
+}
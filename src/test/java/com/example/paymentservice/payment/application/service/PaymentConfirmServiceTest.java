@@ -9,6 +9,8 @@ import com.example.paymentservice.payment.adapter.out.web.toss.exception.TossPay
 import com.example.paymentservice.payment.application.port.in.CheckoutCommand;
 import com.example.paymentservice.payment.application.port.in.CheckoutUsecase;
 import com.example.paymentservice.payment.application.port.in.PaymentConfirmCommand;
+import com.example.paymentservice.payment.application.port.in.PaymentDeadline;
+import com.example.paymentservice.payment.application.port.in.PaymentDeadlineExceededException;
 import com.example.paymentservice.payment.application.port.out.PaymentExecutorPort;
 import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdatePort;
 import com.example.paymentservice.payment.application.port.out.PaymentValidationPort;
@@ -24,6 +26,7 @@ import com.example.paymentservice.payment.domain.PaymentStatus;
 import com.example.paymentservice.payment.domain.PaymentType;
 import com.example.paymentservice.payment.test.PaymentDatabaseHelper;
 import com.example.paymentservice.payment.test.PaymentTestConfiguration;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
@@ -38,6 +41,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @SpringBootTest
@@ -105,7 +109,7 @@ class PaymentConfirmServiceTest {
             .isFailure(false)
             .build();
 
-        Mockito.when(paymentExecutorPort.execute(paymentConfirmCommand))
+        Mockito.when(paymentExecutorPort.execute(recorded(paymentConfirmCommand)))
             .thenReturn(Mono.just(paymentExecutionResult));
 
         PaymentConfirmationResult paymentConfirmationResult =
@@ -165,7 +169,7 @@ class PaymentConfirmServiceTest {
             .isFailure(true)
             .build();
 
-        Mockito.when(paymentExecutorPort.execute(paymentConfirmCommand))
+        Mockito.when(paymentExecutorPort.execute(recorded(paymentConfirmCommand)))
             .thenReturn(Mono.just(paymentExecutionResult));
 
         PaymentConfirmationResult paymentConfirmationResult =
@@ -221,7 +225,7 @@ class PaymentConfirmServiceTest {
             .isFailure(false)
             .build();
 
-        Mockito.when(paymentExecutorPort.execute(paymentConfirmCommand))
+        Mockito.when(paymentExecutorPort.execute(recorded(paymentConfirmCommand)))
             .thenReturn(Mono.just(paymentExecutionResult));
 
         PaymentConfirmationResult paymentConfirmationResult =
@@ -261,7 +265,7 @@ class PaymentConfirmServiceTest {
                 TossPaymentError.REJECT_ACCOUNT_PAYMENT.name(), TossPaymentError.REJECT_ACCOUNT_PAYMENT.getDescription(), false, true, false, false);
 
 
-        Mockito.when(paymentExecutorPort.execute(paymentConfirmCommand))
+        Mockito.when(paymentExecutorPort.execute(recorded(paymentConfirmCommand)))
             .thenReturn(Mono.error(pspConfirmationException));
 
         PaymentConfirmationResult paymentConfirmationResult =
@@ -311,6 +315,108 @@ class PaymentConfirmServiceTest {
         assertTrue(paymentEvent.isFailure());
     }
 
+    @Test
+    void should_collapse_concurrent_duplicate_confirms_into_a_single_execution() {
+
+        String orderId = UUID.randomUUID().toString();
+
+        CheckoutCommand checloutCommand = CheckoutCommand.builder()
+            .cartId(1L)
+            .buyerId(1L)
+            .productIds(List.of(1L, 2L, 3L))
+            .idempotencyKey(orderId)
+            .build();
+
+        CheckoutResult checkoutResult = checkoutUsecase.checkout(checloutCommand).block();
+        assertThat(checkoutResult).isNotNull();
+
+        PaymentConfirmCommand paymentConfirmCommand =
+            PaymentConfirmCommand.builder()
+                .paymentKey(UUID.randomUUID().toString())
+                .orderId(orderId)
+                .amount(checkoutResult.getAmount())
+                .build();
+
+        PaymentExecutionResult paymentExecutionResult = PaymentExecutionResult.builder()
+            .paymentKey(paymentConfirmCommand.getPaymentKey())
+            .orderId(paymentConfirmCommand.getOrderId())
+            .extraDetails(PaymentExtraDetails.builder()
+                              .type(PaymentType.NORMAL)
+                              .method(PaymentMethod.EASY_PAY)
+                              .totalAmount(paymentConfirmCommand.getAmount())
+                              .orderName("test_order_name")
+                              .pspConfirmationStatus(PSPConfirmationStatus.DONE)
+                              .approveAt(LocalDateTime.now())
+                              .pspRawData("{}")
+                              .build())
+            .isSuccess(true)
+            .isRetryable(false)
+            .isUnknown(false)
+            .isFailure(false)
+            .build();
+
+        // PSP 응답이 늦어지는 동안 같은 결제 승인이 중복으로 들어온다.
+        Mockito.when(paymentExecutorPort.execute(recorded(paymentConfirmCommand)))
+            .thenReturn(Mono.delay(Duration.ofMillis(500)).thenReturn(paymentExecutionResult));
+
+        // 중복 요청은 다른 요청 객체로 들어온다.
+        List<PaymentConfirmationResult> paymentConfirmationResults = Flux.range(0, 3)
+            .flatMap(i -> paymentConfirmService.confirm(
+                PaymentConfirmCommand.builder()
+                    .paymentKey(paymentConfirmCommand.getPaymentKey())
+                    .orderId(orderId)
+                    .amount(paymentConfirmCommand.getAmount())
+                    .build()))
+            .collectList()
+            .block();
+
+        PaymentEvent paymentEvent = paymentDatabaseHelper.getPaymentEvent(orderId);
+
+        assertThat(paymentConfirmationResults).hasSize(3)
+            .allMatch(result -> result.getStatus() == PaymentStatus.SUCCESS);
+        assertTrue(paymentEvent.isSuccess());
+        Mockito.verify(paymentExecutorPort, Mockito.times(1)).execute(recorded(paymentConfirmCommand));
+    }
+
+    @Test
+    void should_be_marked_as_UNKNOWN_if_Payment_Confirmation_exceeds_the_deadline() {
+
+        String orderId = UUID.randomUUID().toString();
+
+        CheckoutCommand checloutCommand = CheckoutCommand.builder()
+            .cartId(1L)
+            .buyerId(1L)
+            .productIds(List.of(1L, 2L, 3L))
+            .idempotencyKey(orderId)
+            .build();
+
+        CheckoutResult checkoutResult = checkoutUsecase.checkout(checloutCommand).block();
+        assertThat(checkoutResult).isNotNull();
+
+        PaymentConfirmCommand paymentConfirmCommand =
+            PaymentConfirmCommand.builder()
+                .paymentKey(UUID.randomUUID().toString())
+                .orderId(orderId)
+                .amount(checkoutResult.getAmount())
+                .build();
+
+        // PSP 가 주어진 시간보다 늦게 응답한다.
+        Mockito.when(paymentExecutorPort.execute(recorded(paymentConfirmCommand)))
+            .thenReturn(Mono.never());
+
+        PaymentConfirmationResult paymentConfirmationResult = paymentConfirmService.confirm(paymentConfirmCommand)
+            .contextWrite(context -> PaymentDeadline.after(Duration.ofMillis(500)).writeTo(context))
+            .block(Duration.ofSeconds(10));
+        assertThat(paymentConfirmationResult).isNotNull();
+
+        PaymentEvent paymentEvent = paymentDatabaseHelper.getPaymentEvent(orderId);
+
+        assertThat(paymentConfirmationResult.getStatus()).isEqualTo(PaymentStatus.UNKNOWN);
+        assertThat(paymentConfirmationResult.getFailure().getErrorCode())
+            .isEqualTo(PaymentDeadlineExceededException.class.getSimpleName());
+        assertTrue(paymentEvent.isUnknown());
+    }
+
     @Test
     @Tag("ExternalIntegration")
     void should_send_the_event_message_to_the_external_message_system_after_the_payment_confirmation_has_bean_successful() throws InterruptedException {
@@ -352,11 +458,20 @@ class PaymentConfirmServiceTest {
             .isFailure(false)
             .build();
 
-        Mockito.when(paymentExecutorPort.execute(paymentConfirmCommand))
+        Mockito.when(paymentExecutorPort.execute(recorded(paymentConfirmCommand)))
             .thenReturn(Mono.just(paymentExecutionResult));
 
         paymentConfirmService.confirm(paymentConfirmCommand).block();
 
         Thread.sleep(10000);
     }
-}
\ No newline at end of file
+
+    /**
+     * 결제 승인 서비스가 PSP 에 보내는 명령 (EXECUTING 으로 변경할 때 결제에 기록된 PSP 가 채워진다.)
+     */
+    private PaymentConfirmCommand recorded(PaymentConfirmCommand paymentConfirmCommand) {
+        return paymentConfirmCommand.toBuilder()
+            .pspExecutor("tossPaymentExecutor")
+            .build();
+    }
+}
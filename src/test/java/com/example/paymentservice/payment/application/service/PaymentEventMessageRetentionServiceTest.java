@@ -0,0 +1,99 @@
+package com.example.paymentservice.payment.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.paymentservice.payment.adapter.out.persistent.repository.PaymentOutboxRepository;
+import com.example.paymentservice.payment.application.port.in.PaymentEventMessageRetentionUsecase;
+import com.example.paymentservice.payment.application.port.out.PaymentStatusUpdateCommand;
+import com.example.paymentservice.payment.domain.PSPConfirmationStatus;
+import com.example.paymentservice.payment.domain.PaymentEventMessage.PaymentEventMessageType;
+import com.example.paymentservice.payment.domain.PaymentExecutionResult;
+import com.example.paymentservice.payment.domain.PaymentExecutionResult.PaymentExtraDetails;
+import com.example.paymentservice.payment.domain.PaymentMethod;
+import com.example.paymentservice.payment.domain.PaymentType;
+import com.example.paymentservice.payment.test.PaymentDatabaseHelper;
+import com.example.paymentservice.payment.test.PaymentTestConfiguration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+@SpringBootTest(properties = {
+    "payment.outbox.retention.retention-period=0s",
+    "payment.outbox.retention.chunk-size=2",
+    "payment.outbox.retention.chunk-interval=10ms"
+})
+@Import(PaymentTestConfiguration.class)
+class PaymentEventMessageRetentionServiceTest {
+
+    @Autowired
+    private PaymentOutboxRepository paymentOutboxRepository;
+    @Autowired
+    private PaymentEventMessageRetentionUsecase paymentEventMessageRetentionUsecase;
+    @Autowired
+    private PaymentDatabaseHelper paymentDatabaseHelper;
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        paymentDatabaseHelper.clean().block();
+    }
+
+    @Test
+    void should_purge_only_sent_event_messages() throws InterruptedException {
+
+        List<String> orderIds = IntStream.range(0, 5)
+            .mapToObj(i -> UUID.randomUUID().toString())
+            .toList();
+
+        orderIds.forEach(orderId -> paymentOutboxRepository.insertOutbox(createSuccessCommand(orderId)).block());
+        orderIds.subList(0, 3).forEach(orderId ->
+            paymentOutboxRepository.markMessageAsSent(orderId, PaymentEventMessageType.PAYMENT_CONFIRMATION_SUCCESS).block());
+
+        // created_at 은 초 단위로 저장되므로 보관 기간 (0s) 이 확실히 지나도록 기다린다.
+        Thread.sleep(1100);
+
+        paymentEventMessageRetentionUsecase.purge();
+
+        Thread.sleep(3000);
+
+        assertThat(countOutboxes("SUCCESS")).isZero();
+        assertThat(countOutboxes("INIT")).isEqualTo(2);
+    }
+
+    private Long countOutboxes(String status) {
+        return databaseClient.sql("SELECT COUNT(*) AS count FROM outboxes WHERE status = :status")
+            .bind("status", status)
+            .map(row -> row.get("count", Long.class))
+            .one()
+            .block();
+    }
+
+    private PaymentStatusUpdateCommand createSuccessCommand(String orderId) {
+        return PaymentStatusUpdateCommand.ofExecutionResult(
+            PaymentExecutionResult.builder()
+                .paymentKey(UUID.randomUUID().toString())
+                .orderId(orderId)
+                .extraDetails(PaymentExtraDetails.builder()
+                                  .type(PaymentType.NORMAL)
+                                  .method(PaymentMethod.EASY_PAY)
+                                  .approveAt(LocalDateTime.now())
+                                  .orderName("test_order_name")
+                                  .pspConfirmationStatus(PSPConfirmationStatus.DONE)
+                                  .totalAmount(50000L)
+                                  .pspRawData("{}")
+                                  .build())
+                .isSuccess(true)
+                .isFailure(false)
+                .isUnknown(false)
+                .isRetryable(false)
+                .build());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.paymentservice.payment.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class PaymentOrderLanesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PaymentOrderLanes paymentOrderLanes;
+
+    @BeforeEach
+    void setUp() {
+        paymentOrderLanes = new PaymentOrderLanes(meterRegistry, true, 2);
+        paymentOrderLanes.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentOrderLanes.stop();
+    }
+
+    @Test
+    void should_execute_operations_of_the_same_order_one_at_a_time_in_order() {
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<Integer> completed = Flux.range(0, 5)
+            .flatMapSequential(i -> paymentOrderLanes.execute("order-1", () -> track(running, maxRunning, i)))
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(completed).containsExactly(0, 1, 2, 3, 4);
+        assertThat(maxRunning.get()).isEqualTo(1);
+    }
+
+    @Test
+    void should_execute_operations_of_different_orders_concurrently() {
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        Flux.range(0, 5)
+            .flatMap(i -> paymentOrderLanes.execute("order-" + i, () -> track(running, maxRunning, i)))
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(maxRunning.get()).isGreaterThan(1);
+        assertThat(meterRegistry.get("payment.lanes.wait").timers()).hasSize(2);
+    }
+
+    @Test
+    void should_continue_with_next_operation_after_failure() {
+
+        Mono<Integer> failed = paymentOrderLanes.execute("order-1", () -> Mono.error(new IllegalStateException("failure")));
+        Mono<Integer> next = paymentOrderLanes.execute("order-1", () -> Mono.just(1));
+
+        assertThat(failed.onErrorReturn(-1).block(Duration.ofSeconds(5))).isEqualTo(-1);
+        assertThat(next.block(Duration.ofSeconds(5))).isEqualTo(1);
+    }
+
+    private Mono<Integer> track(AtomicInteger running, AtomicInteger maxRunning, int value) {
+        return Mono.fromRunnable(() -> maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max))
+            .then(Mono.delay(Duration.ofMillis(100)))
+            .doOnTerminate(running::decrementAndGet)
+            .thenReturn(value);
+    }
+}
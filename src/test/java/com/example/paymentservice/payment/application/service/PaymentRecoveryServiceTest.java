@@ -24,6 +24,7 @@ import com.example.paymentservice.payment.test.PaymentTestConfiguration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -97,6 +98,27 @@ class PaymentRecoveryServiceTest {
         Thread.sleep(10000);
     }
 
+    @Test
+    void should_keep_the_psp_executor_recorded_when_the_payment_started() {
+
+        PaymentConfirmCommand paymentConfirmCommand = createUnknownStatusPaymentEvent();
+
+        // UNKNOWN 결제를 다시 EXECUTING 으로 변경할 때는 PSP 를 새로 고르지 않고 처음 기록된 PSP 를 그대로 사용한다.
+        AtomicInteger selections = new AtomicInteger();
+        String recordedExecutor = paymentStatusUpdatePort.updatePaymentStatusToExecuting(
+            paymentConfirmCommand.getPaymentKey(), paymentConfirmCommand.getOrderId(), () -> {
+                selections.incrementAndGet();
+                return "otherPaymentExecutor";
+            }).block();
+
+        assertThat(recordedExecutor).isEqualTo("tossPaymentExecutor");
+        assertThat(selections.get()).isZero();
+        assertThat(loadPendingPaymentPort.getPendingPayments().collectList().block())
+            .filteredOn(it -> it.getOrderId().equals(paymentConfirmCommand.getOrderId()))
+            .singleElement()
+            .satisfies(it -> assertThat(it.getPspExecutor()).isEqualTo("tossPaymentExecutor"));
+    }
+
     private PaymentConfirmCommand createUnknownStatusPaymentEvent() {
         String orderId = UUID.randomUUID().toString();
         String paymentKey = UUID.randomUUID().toString();
@@ -115,9 +137,12 @@ class PaymentRecoveryServiceTest {
             .paymentKey(paymentKey)
             .orderId(checkoutResult.getOrderId())
             .amount(checkoutResult.getAmount())
+            .pspExecutor("tossPaymentExecutor")
             .build();
 
-        paymentStatusUpdatePort.updatePaymentStatusToExecuting(paymentConfirmCommand.getPaymentKey(), paymentConfirmCommand.getOrderId()).block();
+        // 복구는 결제에 기록된 PSP 로 보내므로 같은 PSP 를 기록한다.
+        paymentStatusUpdatePort.updatePaymentStatusToExecuting(
+            paymentConfirmCommand.getPaymentKey(), paymentConfirmCommand.getOrderId(), paymentConfirmCommand::getPspExecutor).block();
 
         PaymentStatusUpdateCommand paymentStatusUpdateCommand = PaymentStatusUpdateCommand.builder()
             .paymentKey(paymentConfirmCommand.getPaymentKey())
@@ -0,0 +1,67 @@
+package com.example.paymentservice.payment.test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import lombok.experimental.UtilityClass;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * <h4> 리액티브 작업의 처리량(TPS)과 지연시간 분포를 측정하기 위한 벤치마크 헬퍼 </h4>
+ */
+@UtilityClass
+public class BenchmarkRunner {
+
+    /**
+     * @param name         결과 출력 시 사용할 이름
+     * @param warmup       측정 전 워밍업 요청 수
+     * @param requests     측정할 요청 수
+     * @param concurrency  동시에 실행할 요청 수
+     * @param task         요청 번호를 받아 실행할 작업을 생성하는 함수
+     */
+    public BenchmarkResult run(String name, int warmup, int requests, int concurrency, IntFunction<Mono<?>> task) {
+
+        execute(warmup, concurrency, task);
+
+        long startedAt = System.nanoTime();
+        long[] latencies = execute(requests, concurrency, i -> task.apply(warmup + i));
+        long elapsed = System.nanoTime() - startedAt;
+
+        Arrays.sort(latencies);
+
+        return new BenchmarkResult(
+            name,
+            requests,
+            requests / (elapsed / 1_000_000_000.0),
+            Duration.ofNanos(percentile(latencies, 0.50)),
+            Duration.ofNanos(percentile(latencies, 0.99)),
+            Duration.ofNanos(latencies[latencies.length - 1]));
+    }
+
+    private long[] execute(int requests, int concurrency, IntFunction<Mono<?>> task) {
+        return Flux.range(0, requests)
+            .flatMap(i -> {
+                long startedAt = System.nanoTime();
+                return Mono.defer(() -> task.apply(i))
+                    .then(Mono.fromSupplier(() -> System.nanoTime() - startedAt));
+            }, concurrency)
+            .collectList()
+            .map(it -> it.stream().mapToLong(Long::longValue).toArray())
+            .block();
+    }
+
+    private long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    public record BenchmarkResult(String name, int requests, double tps, Duration p50, Duration p99, Duration max) {
+
+        @Override
+        public String toString() {
+            return String.format("[%s] requests: %d, tps: %.1f, p50: %dms, p99: %dms, max: %dms",
+                                 name, requests, tps, p50.toMillis(), p99.toMillis(), max.toMillis());
+        }
+    }
+}